@@ -1,4 +1,6 @@
-module org.example.cw {
+module org.example.cw.app {
+    requires org.example.cw;
+
     requires javafx.controls;
     requires javafx.fxml;
     requires javafx.web;
@@ -13,6 +15,6 @@ module org.example.cw {
     requires eu.hansolo.tilesfx;
     requires com.almasb.fxgl.all;
 
-    opens org.example.cw to javafx.fxml;
-    exports org.example.cw;
+    opens org.example.cw.app to javafx.fxml;
+    exports org.example.cw.app;
 }
\ No newline at end of file
@@ -1,4 +1,4 @@
-package org.example.cw;
+package org.example.cw.app;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -1,4 +1,4 @@
-package org.example.cw;
+package org.example.cw.app;
 
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
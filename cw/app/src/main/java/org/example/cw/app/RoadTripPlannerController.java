@@ -1,10 +1,18 @@
-package org.example.cw;
+package org.example.cw.app;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
+import org.example.cw.RoadDataReloader;
+import org.example.cw.RoadNetwork;
+import org.example.cw.RouteOptions;
+import org.example.cw.RoutePlanner;
+import org.example.cw.RoutingSnapshot;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -13,10 +21,15 @@ import java.util.stream.Collectors;
  * 道路旅行规划应用程序的控制器类
  */
 public class RoadTripPlannerController {
+    /**
+     * 指定外部数据目录的系统属性，目录中应有roads.csv和attractions.csv
+     */
+    public static final String DATA_DIRECTORY_PROPERTY = "cw.dataDir";
 
     private RoadNetwork roadNetwork;
     private RoutePlanner routePlanner;
     private RouteMapView mapView;
+    private RoadDataReloader reloader; // 数据目录的热重载，未指定数据目录时为null
 
     @FXML
     private ComboBox<String> startCityComboBox;
@@ -104,10 +117,26 @@ public class RoadTripPlannerController {
      */
     @FXML
     private void initialize() {
-        // 初始化数据
-        roadNetwork = new RoadNetwork();
-        roadNetwork.loadData("/data/roads.csv", "/data/attractions.csv");
-        routePlanner = new RoutePlanner(roadNetwork);
+        // 初始化数据：指定了数据目录时监视其中的文件并热重载，否则使用内置资源
+        String dataDirectory = System.getProperty(DATA_DIRECTORY_PROPERTY);
+        if (dataDirectory != null) {
+            try {
+                reloader = new RoadDataReloader(Paths.get(dataDirectory, "roads.csv"),
+                                                Paths.get(dataDirectory, "attractions.csv"));
+                RoutingSnapshot snapshot = reloader.current();
+                roadNetwork = snapshot.getRoadNetwork();
+                routePlanner = snapshot.getRoutePlanner();
+                reloader.addListener(newSnapshot -> Platform.runLater(() -> applySnapshot(newSnapshot)));
+                reloader.start();
+            } catch (IOException e) {
+                System.err.println("无法从数据目录加载，改用内置数据: " + e.getMessage());
+            }
+        }
+        if (roadNetwork == null) {
+            roadNetwork = new RoadNetwork();
+            roadNetwork.loadData("/data/roads.csv", "/data/attractions.csv");
+            routePlanner = new RoutePlanner(roadNetwork);
+        }
         
         // 初始化地图视图
         mapView = new RouteMapView(roadNetwork, 800, 600);
@@ -212,6 +241,25 @@ public class RoadTripPlannerController {
         endCityComboBox.setPromptText(LanguageManager.getText("selectEndCity"));
     }
     
+    /**
+     * 切换到重新加载的数据（在JavaFX线程中调用）
+     * 已经开始的查询在切换前就完成了，之后的查询使用新数据
+     */
+    private void applySnapshot(RoutingSnapshot snapshot) {
+        roadNetwork = snapshot.getRoadNetwork();
+        routePlanner = snapshot.getRoutePlanner();
+        mapView.setRoadNetwork(roadNetwork);
+        
+        // 保留仍然存在的选择
+        String startCity = startCityComboBox.getValue();
+        String endCity = endCityComboBox.getValue();
+        loadCities();
+        startCityComboBox.setValue(roadNetwork.cityExists(startCity) ? startCity : null);
+        endCityComboBox.setValue(roadNetwork.cityExists(endCity) ? endCity : null);
+        selectedAttractionsListView.getItems().removeIf(attraction -> !roadNetwork.attractionExists(attraction));
+        filterAttractions(searchAttractionField.getText());
+    }
+    
     /**
      * 加载城市列表
      */
@@ -377,10 +425,16 @@ public class RoadTripPlannerController {
         boolean orderedAttractions = orderedAttractionsCheckBox.isSelected();
         
         try {
+            // 不使用缓存，两种算法都完整计算
+            RouteOptions dijkstraOptions = new RouteOptions(false, orderedAttractions);
+            dijkstraOptions.setUseCache(false);
+            RouteOptions astarOptions = new RouteOptions(true, orderedAttractions);
+            astarOptions.setUseCache(false);
+            
             // 使用Dijkstra算法
             long startTime = System.nanoTime();
             List<String> routeDijkstra = routePlanner.route(startingCity, endingCity, selectedAttractions, 
-                                                        false, orderedAttractions);
+                                                        dijkstraOptions).getCities();
             int distanceDijkstra = routePlanner.calculateTotalDistance(routeDijkstra);
             long endTimeDijkstra = System.nanoTime();
             double timeDijkstra = (endTimeDijkstra - startTime) / 1_000_000.0; // 转换为毫秒
@@ -388,7 +442,7 @@ public class RoadTripPlannerController {
             // 使用A*算法
             startTime = System.nanoTime();
             List<String> routeAStar = routePlanner.route(startingCity, endingCity, selectedAttractions, 
-                                                     true, orderedAttractions);
+                                                     astarOptions).getCities();
             int distanceAStar = routePlanner.calculateTotalDistance(routeAStar);
             long endTimeAStar = System.nanoTime();
             double timeAStar = (endTimeAStar - startTime) / 1_000_000.0; // 转换为毫秒
@@ -1,4 +1,4 @@
-package org.example.cw;
+package org.example.cw.app;
 
 import javafx.geometry.Insets;
 import javafx.scene.canvas.Canvas;
@@ -11,6 +11,9 @@ import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import org.example.cw.City;
+import org.example.cw.DistanceTable;
+import org.example.cw.RoadNetwork;
 
 import java.util.Collection;
 import java.util.HashMap;
@@ -100,6 +103,18 @@ public class RouteMapView extends Pane {
         displayAllCities();
     }
     
+    /**
+     * 切换到新的路网数据（热重载后调用），清除当前显示的路线
+     */
+    public void setRoadNetwork(RoadNetwork roadNetwork) {
+        this.roadNetwork = roadNetwork;
+        this.startCity = null;
+        this.endCity = null;
+        this.waypoints = null;
+        initCityLocations();
+        displayAllCities();
+    }
+    
     // 添加一个方法来设置路线
     public void setRoute(List<String> route) {
         if (route == null || route.size() < 2) return;
@@ -142,38 +157,16 @@ public class RouteMapView extends Pane {
         City[] cityArray = cities.toArray(new City[0]);
         City baseCity = cityArray[0]; // 使用第一个城市作为基准点
         
-        // 创建城市距离矩阵
+        // 创建城市距离矩阵，最短距离取自路网的全源距离表（与路线规划共用）
         int n = cityArray.length;
         double[][] distances = new double[n][n];
+        DistanceTable table = roadNetwork.getDistanceTable();
         
-        // 初始化距离矩阵
         for (int i = 0; i < n; i++) {
             for (int j = 0; j < n; j++) {
-                if (i == j) {
-                    distances[i][j] = 0;
-                } else {
-                    // 查找两城市间的直接距离
-                    Integer directDistance = cityArray[i].getConnections().get(cityArray[j]);
-                    if (directDistance != null) {
-                        distances[i][j] = directDistance;
-                    } else {
-                        // 如果没有直接连接，给一个较大值
-                        distances[i][j] = Double.MAX_VALUE;
-                    }
-                }
-            }
-        }
-        
-        // 使用Floyd-Warshall算法计算所有城市对之间的最短距离
-        for (int k = 0; k < n; k++) {
-            for (int i = 0; i < n; i++) {
-                for (int j = 0; j < n; j++) {
-                    if (distances[i][k] != Double.MAX_VALUE && 
-                        distances[k][j] != Double.MAX_VALUE &&
-                        distances[i][k] + distances[k][j] < distances[i][j]) {
-                        distances[i][j] = distances[i][k] + distances[k][j];
-                    }
-                }
+                int distance = table.getDistance(cityArray[i].getId(), cityArray[j].getId());
+                // 不连通的城市给一个较大值
+                distances[i][j] = distance == DistanceTable.UNREACHABLE ? Double.MAX_VALUE : distance;
             }
         }
         
@@ -0,0 +1,100 @@
+package org.example.cw.bench;
+
+import org.example.cw.CompressedRoadGraph;
+import org.example.cw.CsrGraph;
+import org.example.cw.GraphReordering;
+import org.example.cw.GraphSearch;
+import org.example.cw.RoadNetwork;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * 比较不同城市编号顺序下的路由性能
+ *
+ * 对同一组按城市名给定的查询，依次在随机顺序（模拟按散列表顺序编号）、加载顺序、BFS、RCM和
+ * 希尔伯特曲线顺序下运行Dijkstra，输出每个已确定城市的平均耗时、邻居编号的平均跨度
+ * （跨度越小，扩展一个城市时访问的内存越集中）以及压缩邻接表的大小。
+ * 参数：道路CSV [坐标CSV] [查询数]，可使用RoadNetworkGenerator生成的文件。
+ */
+public class ReorderingBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("用法: ReorderingBenchmark <roads.csv> [coordinates.csv] [查询数]");
+            return;
+        }
+        RoadNetwork roadNetwork = new RoadNetwork();
+        roadNetwork.loadRoadsParallel(Path.of(args[0]), Runtime.getRuntime().availableProcessors());
+        if (args.length > 1) {
+            roadNetwork.loadCoordinates(Path.of(args[1]));
+        }
+        int queryCount = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        int n = roadNetwork.getCityCount();
+        Random random = new Random(42);
+        String[] sources = new String[queryCount];
+        String[] targets = new String[queryCount];
+        for (int i = 0; i < queryCount; i++) {
+            sources[i] = roadNetwork.getCityById(random.nextInt(n)).getFullName();
+            targets[i] = roadNetwork.getCityById(random.nextInt(n)).getFullName();
+        }
+
+        int[] identity = new int[n];
+        for (int v = 0; v < n; v++) {
+            identity[v] = v;
+        }
+        int[] shuffled = identity.clone();
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = swap;
+        }
+
+        System.out.printf("%-10s %12s %12s %14s%n", "顺序", "ns/城市", "平均跨度", "压缩字节");
+        roadNetwork.renumberCities(shuffled);
+        run("RANDOM", roadNetwork, sources, targets);
+        int[] loadOrder = new int[n];
+        for (int v = 0; v < n; v++) {
+            loadOrder[shuffled[v]] = v; // 恢复加载顺序
+        }
+        roadNetwork.renumberCities(loadOrder);
+        run("LOAD", roadNetwork, sources, targets);
+        for (GraphReordering.Strategy strategy : GraphReordering.Strategy.values()) {
+            roadNetwork.reorderCities(strategy);
+            run(strategy.name(), roadNetwork, sources, targets);
+        }
+    }
+
+    private static void run(String label, RoadNetwork roadNetwork, String[] sources, String[] targets) {
+        CsrGraph graph = roadNetwork.getRoadGraph();
+        long gap = 0;
+        for (int v = 0; v < graph.getNodeCount(); v++) {
+            for (int e = graph.getFirstEdge(v); e < graph.getEndEdge(v); e++) {
+                gap += Math.abs(graph.getTarget(e) - v);
+            }
+        }
+        long compressedBytes = CompressedRoadGraph.compress(graph).getMemoryBytes();
+
+        GraphSearch search = new GraphSearch(graph);
+        // 预热一轮，再计时一轮
+        long nanos = 0;
+        long settled = 0;
+        for (int round = 0; round < 2; round++) {
+            nanos = 0;
+            settled = 0;
+            for (int i = 0; i < sources.length; i++) {
+                int source = roadNetwork.getCity(sources[i]).getId();
+                int target = roadNetwork.getCity(targets[i]).getId();
+                long start = System.nanoTime();
+                GraphSearch.SearchResult result = search.dijkstra(source, target);
+                nanos += System.nanoTime() - start;
+                settled += result.getSettledCount();
+            }
+        }
+        System.out.printf("%-10s %12.1f %12.1f %14d%n", label, (double) nanos / Math.max(1, settled),
+                (double) gap / Math.max(1, graph.getEdgeCount()), compressedBytes);
+    }
+}
@@ -0,0 +1,201 @@
+package org.example.cw.bench;
+
+import org.example.cw.OsmPbfImporter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 可复现的合成路网生成器，用于规模测试
+ *
+ * 城市排列在带随机扰动的网格上（覆盖美国本土的经纬度范围），道路连接网格中的相邻城市：
+ * 横向道路全部保留，纵向道路按概率保留（第0列全部保留，保证连通），
+ * 每个网格单元最多加一条对角线，因此路网接近平面图。道路距离是两端坐标的大圆距离（英里）乘以绕行系数。
+ * 城市名取自地名列表，列表用完后在州名前加序号（"Fordside 2 ME"）。
+ * 逐行生成并直接写入文件，只保留相邻两行的坐标，可以生成上百万个城市的路网。
+ * 相同的参数和随机种子总是生成相同的文件。
+ */
+public class RoadNetworkGenerator {
+    public static final String ROADS_FILE = "roads.csv";
+    public static final String ATTRACTIONS_FILE = "attractions.csv";
+    public static final String COORDINATES_FILE = "coordinates.csv";
+
+    private static final double MIN_LATITUDE = 25.0;
+    private static final double MAX_LATITUDE = 49.0;
+    private static final double MIN_LONGITUDE = -124.0;
+    private static final double MAX_LONGITUDE = -67.0;
+    private static final double METERS_PER_MILE = 1609.344;
+    private static final String[] ATTRACTION_KINDS = {"Museum", "Park", "Tower", "Gardens", "Gallery", "Falls"};
+
+    private final int cityCount;
+    private final long seed;
+    private double verticalRoadProbability = 0.6; // 纵向道路的保留概率
+    private double diagonalRoadProbability = 0.2; // 每个网格单元加对角线的概率
+    private double jitter = 0.35; // 坐标扰动幅度（网格间距的比例）
+    private int citiesPerAttraction = 100;
+
+    public RoadNetworkGenerator(int cityCount, long seed) {
+        if (cityCount < 2) {
+            throw new IllegalArgumentException("城市数至少为2: " + cityCount);
+        }
+        this.cityCount = cityCount;
+        this.seed = seed;
+    }
+
+    public void setVerticalRoadProbability(double verticalRoadProbability) {
+        this.verticalRoadProbability = verticalRoadProbability;
+    }
+
+    public void setDiagonalRoadProbability(double diagonalRoadProbability) {
+        this.diagonalRoadProbability = diagonalRoadProbability;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    public void setCitiesPerAttraction(int citiesPerAttraction) {
+        this.citiesPerAttraction = citiesPerAttraction;
+    }
+
+    /**
+     * 读取地名列表（每行一个"城市名 州"，如bench/data/10000places_random.csv），去掉重复项
+     */
+    public static List<String> readPlaceNames(Path placesFile) throws IOException {
+        Set<String> names = new LinkedHashSet<>();
+        for (String line : Files.readAllLines(placesFile, StandardCharsets.UTF_8)) {
+            String name = line.strip();
+            if (name.indexOf(' ') > 0 && name.indexOf(',') < 0 && name.indexOf('"') < 0) {
+                names.add(name);
+            }
+        }
+        if (names.isEmpty()) {
+            throw new IOException("地名列表为空: " + placesFile);
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * 在目录中生成roads.csv、attractions.csv和coordinates.csv
+     *
+     * @return 生成的道路数
+     */
+    public long generate(Path outputDirectory, List<String> placeNames) throws IOException {
+        Files.createDirectories(outputDirectory);
+        int width = (int) Math.ceil(Math.sqrt(cityCount));
+        int height = (cityCount + width - 1) / width;
+        double latitudeStep = (MAX_LATITUDE - MIN_LATITUDE) / height;
+        double longitudeStep = (MAX_LONGITUDE - MIN_LONGITUDE) / width;
+        Random random = new Random(seed);
+
+        double[] previousLatitudes = new double[width];
+        double[] previousLongitudes = new double[width];
+        double[] latitudes = new double[width];
+        double[] longitudes = new double[width];
+        long roadCount = 0;
+
+        try (BufferedWriter roads = newWriter(outputDirectory.resolve(ROADS_FILE));
+             BufferedWriter attractions = newWriter(outputDirectory.resolve(ATTRACTIONS_FILE));
+             BufferedWriter coordinates = newWriter(outputDirectory.resolve(COORDINATES_FILE))) {
+            roads.write("CityA,CityB,Distance\n");
+            attractions.write("Place of Interest,Location\n");
+            coordinates.write("City,Latitude,Longitude\n");
+
+            for (int y = 0; y < height; y++) {
+                int rowWidth = Math.min(width, cityCount - y * width);
+                int previousRowWidth = y == 0 ? 0 : Math.min(width, cityCount - (y - 1) * width);
+                for (int x = 0; x < rowWidth; x++) {
+                    int city = y * width + x;
+                    latitudes[x] = MIN_LATITUDE + (y + 0.5 + jitter * (random.nextDouble() * 2 - 1)) * latitudeStep;
+                    longitudes[x] = MIN_LONGITUDE + (x + 0.5 + jitter * (random.nextDouble() * 2 - 1)) * longitudeStep;
+                    String name = cityName(city, placeNames);
+                    coordinates.write(name + "," + latitudes[x] + "," + longitudes[x] + "\n");
+                    if (city % citiesPerAttraction == citiesPerAttraction / 2) {
+                        String kind = ATTRACTION_KINDS[random.nextInt(ATTRACTION_KINDS.length)];
+                        attractions.write(name + " " + kind + "," + name + "\n");
+                    }
+
+                    if (x > 0) {
+                        roadCount += writeRoad(roads, random, placeNames, city - 1, latitudes[x - 1], longitudes[x - 1],
+                                city, latitudes[x], longitudes[x]);
+                    }
+                    if (y > 0 && (x == 0 || random.nextDouble() < verticalRoadProbability)) {
+                        roadCount += writeRoad(roads, random, placeNames, city - width, previousLatitudes[x],
+                                previousLongitudes[x], city, latitudes[x], longitudes[x]);
+                    }
+                    // 与上一行的单元格对角线，每个单元格只选一个方向，避免道路交叉
+                    if (y > 0 && x > 0 && x - 1 < previousRowWidth && random.nextDouble() < diagonalRoadProbability) {
+                        if (random.nextBoolean()) {
+                            roadCount += writeRoad(roads, random, placeNames, city - width - 1, previousLatitudes[x - 1],
+                                    previousLongitudes[x - 1], city, latitudes[x], longitudes[x]);
+                        } else {
+                            roadCount += writeRoad(roads, random, placeNames, city - width, previousLatitudes[x],
+                                    previousLongitudes[x], city - 1, latitudes[x - 1], longitudes[x - 1]);
+                        }
+                    }
+                }
+                double[] swap = previousLatitudes;
+                previousLatitudes = latitudes;
+                latitudes = swap;
+                swap = previousLongitudes;
+                previousLongitudes = longitudes;
+                longitudes = swap;
+            }
+        }
+        return roadCount;
+    }
+
+    private static BufferedWriter newWriter(Path file) throws IOException {
+        return new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private int writeRoad(BufferedWriter roads, Random random, List<String> placeNames,
+                          int cityA, double latitudeA, double longitudeA,
+                          int cityB, double latitudeB, double longitudeB) throws IOException {
+        double miles = OsmPbfImporter.distance(latitudeA, longitudeA, latitudeB, longitudeB) / METERS_PER_MILE;
+        double detour = 1.0 + 0.3 * random.nextDouble(); // 道路不是直线
+        int distance = (int) Math.max(1, Math.round(miles * detour));
+        roads.write(cityName(cityA, placeNames) + "," + cityName(cityB, placeNames) + "," + distance + "\n");
+        return 1;
+    }
+
+    /**
+     * 第city个城市的全名，地名列表用完后在州名前加轮次序号
+     */
+    static String cityName(int city, List<String> placeNames) {
+        String place = placeNames.get(city % placeNames.size());
+        int round = city / placeNames.size();
+        if (round == 0) {
+            return place;
+        }
+        int split = place.lastIndexOf(' ');
+        return place.substring(0, split) + " " + (round + 1) + place.substring(split);
+    }
+
+    /**
+     * 参数：城市数 输出目录 [地名列表文件] [随机种子]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: RoadNetworkGenerator <城市数> <输出目录> [地名列表] [随机种子]");
+            return;
+        }
+        int cityCount = Integer.parseInt(args[0]);
+        Path outputDirectory = Path.of(args[1]);
+        Path placesFile = Path.of(args.length > 2 ? args[2] : "data/10000places_random.csv");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        long start = System.nanoTime();
+        long roadCount = new RoadNetworkGenerator(cityCount, seed).generate(outputDirectory, readPlaceNames(placesFile));
+        System.out.println("已生成 " + cityCount + " 个城市、" + roadCount + " 条道路到 " + outputDirectory
+                + "，用时 " + (System.nanoTime() - start) / 1_000_000 + " 毫秒");
+    }
+}
@@ -1,3 +1,5 @@
+package org.example.cw.bench;
+
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
@@ -6,16 +8,17 @@ import java.util.List;
 
 /**
  * 排序算法评估程序 - 比较插入排序、快速排序和归并排序的性能
+ * 数据集路径相对于bench模块目录
  */
 public class SortingAlgorithmEvaluation {
     
     public static void main(String[] args) {
         // 定义数据集文件路径
         String[] datasets = {
-            "CW3_Data_Files/1000places_sorted.csv",
-            "CW3_Data_Files/1000places_random.csv",
-            "CW3_Data_Files/10000places_sorted.csv",
-            "CW3_Data_Files/10000places_random.csv"
+            "data/1000places_sorted.csv",
+            "data/1000places_random.csv",
+            "data/10000places_sorted.csv",
+            "data/10000places_random.csv"
         };
         
         // 创建结果表格标题
@@ -0,0 +1,5 @@
+module org.example.cw {
+    requires jdk.httpserver;
+
+    exports org.example.cw;
+}
@@ -0,0 +1,163 @@
+package org.example.cw;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 以字节片段为键的驻留表，为每个不同的名称分配从0开始的连续编号
+ *
+ * 查找时直接对字节片段求散列并逐字节比较，已存在的名称不会产生任何String对象。
+ * 所有名称连续存放在一个字节数组中，每项为[长度(4字节)][编号(4字节)][名称字节]；
+ * 散列槽同时保存散列值和该项在字节数组中的位置，因此一次查找通常只访问槽和名称两处内存。
+ */
+public class ByteInternTable {
+    private static final int ENTRY_HEADER = 8;
+
+    private byte[] pool = new byte[1024]; // 所有名称项
+    private int poolSize;
+    private int[] entries = new int[64]; // 编号到名称项位置的映射
+    private long[] slots = new long[128]; // 散列槽，高32位为散列值、低32位为名称项位置+1，0表示空槽
+    private int size;
+
+    /**
+     * 创建空的驻留表
+     */
+    public ByteInternTable() {
+    }
+
+    /**
+     * 查找字节片段对应的编号，不存在时加入并分配新编号（等于加入前的size()）
+     */
+    public int intern(byte[] bytes, int offset, int length) {
+        return intern(bytes, offset, length, hash(bytes, offset, length));
+    }
+
+    /**
+     * 使用预先算好的散列值驻留（分段的并发驻留表先用散列值选择分段）
+     */
+    int intern(byte[] bytes, int offset, int length, int hash) {
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long entry = slots[slot];
+            if (entry == 0) {
+                int position = add(bytes, offset, length);
+                slots[slot] = slotEntry(hash, position);
+                if (size * 2 > slots.length) {
+                    rehash();
+                }
+                return size - 1;
+            }
+            int position = (int) entry - 1;
+            if ((int) (entry >>> 32) == hash && matches(position, bytes, offset, length)) {
+                return readInt(position + 4);
+            }
+        }
+    }
+
+    /**
+     * 查找字节片段对应的编号，不存在时返回-1
+     */
+    public int find(byte[] bytes, int offset, int length) {
+        int hash = hash(bytes, offset, length);
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long entry = slots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            int position = (int) entry - 1;
+            if ((int) (entry >>> 32) == hash && matches(position, bytes, offset, length)) {
+                return readInt(position + 4);
+            }
+        }
+    }
+
+    public int intern(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return intern(bytes, 0, bytes.length);
+    }
+
+    public int find(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return find(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 获取编号对应的名称
+     */
+    public String getString(int id) {
+        int position = entries[id];
+        return new String(pool, position + ENTRY_HEADER, readInt(position), StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int add(byte[] bytes, int offset, int length) {
+        int needed = ENTRY_HEADER + length;
+        if (poolSize + needed > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + needed));
+        }
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        int position = poolSize;
+        writeInt(position, length);
+        writeInt(position + 4, size);
+        System.arraycopy(bytes, offset, pool, position + ENTRY_HEADER, length);
+        poolSize += needed;
+        entries[size++] = position;
+        return position;
+    }
+
+    private boolean matches(int position, byte[] bytes, int offset, int length) {
+        int start = position + ENTRY_HEADER;
+        return readInt(position) == length
+                && Arrays.equals(pool, start, start + length, bytes, offset, offset + length);
+    }
+
+    private int readInt(int position) {
+        return (pool[position] & 0xFF) << 24 | (pool[position + 1] & 0xFF) << 16
+                | (pool[position + 2] & 0xFF) << 8 | (pool[position + 3] & 0xFF);
+    }
+
+    private void writeInt(int position, int value) {
+        pool[position] = (byte) (value >>> 24);
+        pool[position + 1] = (byte) (value >>> 16);
+        pool[position + 2] = (byte) (value >>> 8);
+        pool[position + 3] = (byte) value;
+    }
+
+    private static long slotEntry(int hash, int position) {
+        return ((long) hash << 32) | (position + 1);
+    }
+
+    private void rehash() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        int mask = slots.length - 1;
+        for (long entry : old) {
+            if (entry != 0) {
+                int slot = (int) (entry >>> 32) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = entry;
+            }
+        }
+    }
+
+    static int hash(byte[] bytes, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        // 混合高低位：相近的名称（如只有数字不同）多项式散列值也相近，线性探测下会聚集成片
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,334 @@
+package org.example.cw;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 表示道路网络图中的城市节点
+ *
+ * 相邻城市和距离存放在两个平行数组中（每条边约8字节，不装箱）。
+ * 度数较大时另建邻居编号到数组下标的IntIntMap，按邻居查距离不必线性扫描。
+ * getConnections()返回只读的Map视图，供按Map遍历的旧代码使用。
+ */
+public class City {
+    private static final City[] NO_NEIGHBORS = new City[0];
+    private static final int[] NO_DISTANCES = new int[0];
+    private static final int INDEX_THRESHOLD = 8; // 度数不超过该值时线性扫描比散列更快
+
+    private int id = -1; // 城市在道路网络中的编号（由RoadNetwork分配）
+    private String name;
+    private String state;
+    private City[] neighbors = NO_NEIGHBORS; // 相邻城市，前degree项有效
+    private int[] distances = NO_DISTANCES; // 与neighbors对应的距离
+    private int degree;
+    private IntIntMap neighborIndex; // 邻居编号到数组下标，度数超过INDEX_THRESHOLD时建立
+    private boolean hasAttraction; // 标示该城市是否有景点
+    private String attractionName; // 景点名称（如果有）
+    private double latitude; // 城市纬度坐标
+    private double longitude; // 城市经度坐标
+
+    public City(String name, String state) {
+        this.name = name;
+        this.state = state;
+        this.hasAttraction = false;
+        this.attractionName = null;
+        this.latitude = Double.NaN; // 默认为NaN表示未设置
+        this.longitude = Double.NaN;
+    }
+    
+    public City(String name, String state, double latitude, double longitude) {
+        this.name = name;
+        this.state = state;
+        this.hasAttraction = false;
+        this.attractionName = null;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getFullName() {
+        return name + " " + state;
+    }
+
+    /**
+     * 添加或修改到相邻城市的道路
+     */
+    public void addConnection(City destination, int distance) {
+        int index = indexOf(destination);
+        if (index >= 0) {
+            distances[index] = distance;
+            return;
+        }
+        if (degree == neighbors.length) {
+            int capacity = Math.max(4, degree + (degree >> 1));
+            neighbors = Arrays.copyOf(neighbors, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+        }
+        neighbors[degree] = destination;
+        distances[degree] = distance;
+        degree++;
+        if (neighborIndex != null) {
+            indexNeighbor(degree - 1);
+        } else if (degree > INDEX_THRESHOLD) {
+            buildIndex();
+        }
+    }
+
+    /**
+     * 删除到相邻城市的道路，返回原来的距离，不存在时返回null
+     */
+    public Integer removeConnection(City destination) {
+        int index = indexOf(destination);
+        if (index < 0) {
+            return null;
+        }
+        int removed = distances[index];
+        if (neighborIndex != null && neighbors[index].getId() >= 0) {
+            neighborIndex.remove(neighbors[index].getId());
+        }
+        // 最后一项移到空位
+        degree--;
+        if (index != degree) {
+            neighbors[index] = neighbors[degree];
+            distances[index] = distances[degree];
+            if (neighborIndex != null) {
+                indexNeighbor(index);
+            }
+        }
+        neighbors[degree] = null;
+        return removed;
+    }
+
+    /**
+     * 批量设置相邻城市（加载器使用，邻居不能重复）
+     */
+    void setConnections(City[] neighbors, int[] distances, int degree) {
+        this.neighbors = neighbors;
+        this.distances = distances;
+        this.degree = degree;
+        this.neighborIndex = null;
+        if (degree > INDEX_THRESHOLD) {
+            buildIndex();
+        }
+    }
+
+    /**
+     * 到相邻城市的距离，没有直接道路时返回EdgeUpdate.CLOSED
+     */
+    public int getDistanceTo(City destination) {
+        int index = indexOf(destination);
+        return index < 0 ? EdgeUpdate.CLOSED : distances[index];
+    }
+
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * 第index个相邻城市（0 <= index < getDegree()）
+     */
+    public City getNeighbor(int index) {
+        return neighbors[index];
+    }
+
+    /**
+     * 到第index个相邻城市的距离
+     */
+    public int getNeighborDistance(int index) {
+        return distances[index];
+    }
+
+    /**
+     * 相邻城市和距离的只读Map视图，随邻接表变化
+     */
+    public Map<City, Integer> getConnections() {
+        return new ConnectionView();
+    }
+
+    private int indexOf(City destination) {
+        if (neighborIndex != null && destination.getId() >= 0) {
+            int index = neighborIndex.get(destination.getId());
+            if (index >= 0 && (neighbors[index] == destination || neighbors[index].equals(destination))) {
+                return index;
+            }
+            return -1;
+        }
+        for (int i = 0; i < degree; i++) {
+            if (neighbors[i] == destination) {
+                return i;
+            }
+        }
+        for (int i = 0; i < degree; i++) {
+            if (neighbors[i].equals(destination)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 城市重新编号后重建邻居索引
+     */
+    void reindexNeighbors() {
+        if (neighborIndex != null) {
+            neighborIndex = null;
+            buildIndex();
+        }
+    }
+
+    private void buildIndex() {
+        for (int i = 0; i < degree; i++) {
+            if (neighbors[i].getId() < 0) {
+                return; // 不属于路网的城市没有编号，只能线性扫描
+            }
+        }
+        neighborIndex = new IntIntMap(degree * 2);
+        for (int i = 0; i < degree; i++) {
+            indexNeighbor(i);
+        }
+    }
+
+    private void indexNeighbor(int index) {
+        int id = neighbors[index].getId();
+        if (id < 0) {
+            neighborIndex = null;
+        } else {
+            neighborIndex.put(id, index);
+        }
+    }
+
+    private class ConnectionView extends AbstractMap<City, Integer> {
+        @Override
+        public int size() {
+            return degree;
+        }
+
+        @Override
+        public Integer get(Object key) {
+            if (!(key instanceof City)) {
+                return null;
+            }
+            int index = indexOf((City) key);
+            return index < 0 ? null : distances[index];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof City && indexOf((City) key) >= 0;
+        }
+
+        @Override
+        public Set<Entry<City, Integer>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return degree;
+                }
+
+                @Override
+                public Iterator<Entry<City, Integer>> iterator() {
+                    return new Iterator<>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < degree;
+                        }
+
+                        @Override
+                        public Entry<City, Integer> next() {
+                            if (next >= degree) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<City, Integer> entry = new SimpleImmutableEntry<>(neighbors[next], distances[next]);
+                            next++;
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    public boolean hasAttraction() {
+        return hasAttraction;
+    }
+
+    public void setHasAttraction(boolean hasAttraction) {
+        this.hasAttraction = hasAttraction;
+    }
+
+    public String getAttractionName() {
+        return attractionName;
+    }
+
+    public void setAttractionName(String attractionName) {
+        this.attractionName = attractionName;
+        this.hasAttraction = (attractionName != null);
+    }
+    
+    public double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+    
+    public void setCoordinates(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+    
+    public boolean hasCoordinates() {
+        return !Double.isNaN(latitude) && !Double.isNaN(longitude);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        City city = (City) o;
+        return Objects.equals(name, city.name) && 
+               Objects.equals(state, city.state);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, state);
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + state;
+    }
+} 
\ No newline at end of file
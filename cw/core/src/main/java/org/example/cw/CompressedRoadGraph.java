@@ -0,0 +1,268 @@
+package org.example.cw;
+
+import java.util.Arrays;
+
+/**
+ * 邻接表经过差分和变长字节压缩的城市图
+ *
+ * 每个城市的出边按终点编号排序，第一个终点存为相对城市自身编号的zigzag差值，
+ * 之后每个终点存为与前一个终点的差值，都用7位一组的变长字节编码。
+ * 相邻城市编号越接近，差值越小，大多数边只占1到2个字节。
+ * 所有距离都不超过65534时用char数组存放（0xFFFF表示封路），否则用int数组。
+ * 边编号与CsrRoadGraph相同（边在邻接表中的序号）。按编号随机访问（getTarget、getSource）需要先二分查找起点，
+ * 再从该城市的第一条边顺序解码，代价与出度成正比，不适合放在搜索的热循环里；
+ * 城市图上的路由只用forEachEdge顺序解码，代价很小。
+ * 转向扩展图（EdgeBasedGraph）每次扩展都按边编号取起点和终点，因此RoadNetwork为它使用decompress()得到的堆内副本。
+ */
+public class CompressedRoadGraph implements CsrGraph {
+    private static final char NARROW_CLOSED = 0xFFFF;
+
+    private final int nodeCount;
+    private final int[] edgeOffsets; // 城市v的边编号范围[edgeOffsets[v], edgeOffsets[v+1])
+    private final int[] byteOffsets; // 城市v的编码在targets中的起始位置
+    private final byte[] targets;
+    private final char[] narrowWeights; // 距离都能放进16位时使用，否则为null
+    private final int[] weights;
+
+    private CompressedRoadGraph(int nodeCount, int[] edgeOffsets, int[] byteOffsets, byte[] targets,
+                                char[] narrowWeights, int[] weights) {
+        this.nodeCount = nodeCount;
+        this.edgeOffsets = edgeOffsets;
+        this.byteOffsets = byteOffsets;
+        this.targets = targets;
+        this.narrowWeights = narrowWeights;
+        this.weights = weights;
+    }
+
+    /**
+     * 压缩已有的CSR图
+     */
+    public static CompressedRoadGraph compress(CsrGraph source) {
+        int n = source.getNodeCount();
+        int m = source.getEdgeCount();
+        int[] edgeOffsets = new int[n + 1];
+        int[] byteOffsets = new int[n + 1];
+        byte[] targets = new byte[Math.max(16, m + m / 2)];
+        int position = 0;
+        boolean narrow = true;
+
+        for (int v = 0; v < n; v++) {
+            edgeOffsets[v] = source.getFirstEdge(v);
+            byteOffsets[v] = position;
+            int previous = v;
+            for (int e = source.getFirstEdge(v); e < source.getEndEdge(v); e++) {
+                int target = source.getTarget(e);
+                int delta = target - previous;
+                // 第一个差值可能为负，用zigzag编码；之后的终点递增，差值非负
+                int encoded = e == source.getFirstEdge(v) ? (delta << 1) ^ (delta >> 31) : delta;
+                if (position + 5 > targets.length) {
+                    targets = Arrays.copyOf(targets, targets.length * 2);
+                }
+                position = writeVarint(targets, position, encoded);
+                previous = target;
+                int weight = source.getWeight(e);
+                if (weight != EdgeUpdate.CLOSED && (weight < 0 || weight >= NARROW_CLOSED)) {
+                    narrow = false;
+                }
+            }
+        }
+        edgeOffsets[n] = m;
+        byteOffsets[n] = position;
+
+        char[] narrowWeights = null;
+        int[] weights = null;
+        if (narrow) {
+            narrowWeights = new char[m];
+            for (int e = 0; e < m; e++) {
+                int weight = source.getWeight(e);
+                narrowWeights[e] = weight == EdgeUpdate.CLOSED ? NARROW_CLOSED : (char) weight;
+            }
+        } else {
+            weights = new int[m];
+            for (int e = 0; e < m; e++) {
+                weights[e] = source.getWeight(e);
+            }
+        }
+        return new CompressedRoadGraph(n, edgeOffsets, byteOffsets, Arrays.copyOf(targets, position),
+                narrowWeights, weights);
+    }
+
+    /**
+     * 顺序解码为普通的CSR图（包括封闭的道路），之后两者互不影响
+     */
+    public CsrRoadGraph decompress() {
+        int m = getEdgeCount();
+        int[] offsets = Arrays.copyOf(edgeOffsets, nodeCount + 1);
+        int[] decodedTargets = new int[m];
+        int[] decodedWeights = new int[m];
+        int position = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            int target = v;
+            int first = edgeOffsets[v];
+            for (int e = first; e < edgeOffsets[v + 1]; e++) {
+                int value = 0;
+                int shift = 0;
+                int b;
+                do {
+                    b = targets[position++];
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                target += e == first ? (value >>> 1) ^ -(value & 1) : value;
+                decodedTargets[e] = target;
+                decodedWeights[e] = getWeight(e);
+            }
+        }
+        return new CsrRoadGraph(offsets, decodedTargets, decodedWeights);
+    }
+
+    private static int writeVarint(byte[] buffer, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public void forEachEdge(int node, EdgeVisitor visitor) {
+        byte[] bytes = targets;
+        int position = byteOffsets[node];
+        int first = edgeOffsets[node];
+        int end = edgeOffsets[node + 1];
+        int target = node;
+        for (int e = first; e < end; e++) {
+            // 内联的变长整数解码，绝大多数差值只有一个字节
+            int value = bytes[position++];
+            if (value < 0) {
+                value &= 0x7F;
+                int shift = 7;
+                int b;
+                do {
+                    b = bytes[position++];
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+            }
+            target += e == first ? (value >>> 1) ^ -(value & 1) : value;
+            int weight = getWeight(e);
+            if (weight != EdgeUpdate.CLOSED) {
+                visitor.visit(target, weight);
+            }
+        }
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeOffsets[nodeCount];
+    }
+
+    @Override
+    public int getFirstEdge(int node) {
+        return edgeOffsets[node];
+    }
+
+    @Override
+    public int getEndEdge(int node) {
+        return edgeOffsets[node + 1];
+    }
+
+    @Override
+    public int getTarget(int edge) {
+        int node = getSource(edge);
+        int position = byteOffsets[node];
+        int first = edgeOffsets[node];
+        int target = node;
+        for (int e = first; e <= edge; e++) {
+            int value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = targets[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            target += e == first ? (value >>> 1) ^ -(value & 1) : value;
+        }
+        return target;
+    }
+
+    @Override
+    public int getWeight(int edge) {
+        if (narrowWeights != null) {
+            char weight = narrowWeights[edge];
+            return weight == NARROW_CLOSED ? EdgeUpdate.CLOSED : weight;
+        }
+        return weights[edge];
+    }
+
+    @Override
+    public int getSource(int edge) {
+        int index = Arrays.binarySearch(edgeOffsets, edge);
+        if (index >= 0) {
+            // 可能有出度为0的城市共享同一个偏移量，取最后一个
+            while (index + 1 < edgeOffsets.length && edgeOffsets[index + 1] == edge) {
+                index++;
+            }
+            return index;
+        }
+        return -index - 2;
+    }
+
+    @Override
+    public int findEdge(int from, int to) {
+        int position = byteOffsets[from];
+        int target = from;
+        int first = edgeOffsets[from];
+        for (int e = first; e < edgeOffsets[from + 1]; e++) {
+            int value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = targets[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            target += e == first ? (value >>> 1) ^ -(value & 1) : value;
+            if (target >= to) {
+                return target == to ? e : -1; // 终点递增，之后不会再出现
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 修改已有边的权重；窄距离数组放不下新距离时返回false，由调用方重建图
+     */
+    @Override
+    public boolean updateWeight(int from, int to, int weight) {
+        int edge = findEdge(from, to);
+        if (edge < 0) {
+            return false;
+        }
+        if (narrowWeights == null) {
+            weights[edge] = weight;
+        } else if (weight == EdgeUpdate.CLOSED) {
+            narrowWeights[edge] = NARROW_CLOSED;
+        } else if (weight >= 0 && weight < NARROW_CLOSED) {
+            narrowWeights[edge] = (char) weight;
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 邻接数据占用的字节数（用于与CsrRoadGraph比较）
+     */
+    public long getMemoryBytes() {
+        long weightBytes = narrowWeights != null ? 2L * narrowWeights.length : 4L * weights.length;
+        return 4L * (edgeOffsets.length + byteOffsets.length) + targets.length + weightBytes;
+    }
+}
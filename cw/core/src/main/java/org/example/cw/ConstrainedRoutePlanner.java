@@ -0,0 +1,296 @@
+package org.example.cw;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 带续航约束的最短路线规划（电动车队：两次充电之间最多行驶maxLegDistance）
+ *
+ * 标号包含：累计距离、自上次充电以来的行驶距离、充电次数，以及已访问的途经点数（阶段）。
+ * 在可充电城市上会同时保留"充电"和"不充电"两种标号，同一城市同一阶段上
+ * 三项都不更差的标号支配另一个标号。
+ * 搜索前先做下界预处理：对每个阶段的目标运行一次Dijkstra，
+ * 得到"到达下一个途经点并走完剩余途经点"的距离下界，用于排序和剪枝。
+ * 距离相同的路线中选择充电次数最少的一条，因此剪枝只丢弃下界严格大于已找到路线的标号。
+ */
+public class ConstrainedRoutePlanner {
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final RoadNetwork roadNetwork;
+    private final int maxLegDistance;
+    private final boolean[] refuel; // 城市是否可充电
+
+    // 标号存储
+    private int[] costs;
+    private int[] used; // 自上次充电以来的行驶距离
+    private int[] stops; // 充电次数
+    private int[] nodes;
+    private int[] stages;
+    private int[] parents;
+    private boolean[] charged; // 是否在该标号所在城市充电
+    private boolean[] removed;
+    private int labelCount;
+
+    private int[][] bucketLabels; // 每个（城市, 阶段）上保留的标号
+    private int[] bucketCounts;
+
+    public ConstrainedRoutePlanner(RoadNetwork roadNetwork, int maxLegDistance, Set<String> refuelCities) {
+        this.roadNetwork = roadNetwork;
+        this.maxLegDistance = maxLegDistance;
+        this.refuel = new boolean[roadNetwork.getCityCount()];
+        for (String name : refuelCities) {
+            City city = roadNetwork.getCity(name);
+            if (city == null) {
+                throw new IllegalArgumentException("找不到充电城市: " + name);
+            }
+            refuel[city.getId()] = true;
+        }
+    }
+
+    /**
+     * 按顺序经过所有途经点，求满足续航约束的最短路线
+     *
+     * @param start 起点（出发时满电）
+     * @param waypoints 按顺序访问的途经城市
+     * @param end 终点
+     * @return 路线结果，找不到可行路线时返回null
+     */
+    public synchronized RouteResult route(City start, List<City> waypoints, City end) {
+        roadNetwork.ensureCityAdjacency(); // 按城市邻接表搜索，堆外加载的路网先补建
+        int n = roadNetwork.getCityCount();
+        List<City> targets = new ArrayList<>(waypoints);
+        targets.add(end);
+        int stageCount = targets.size();
+        int[] targetIds = new int[stageCount];
+        for (int s = 0; s < stageCount; s++) {
+            targetIds[s] = targets.get(s).getId();
+        }
+
+        int[][] lowerBounds = computeLowerBounds(targetIds);
+        reset(n * (stageCount + 1));
+
+        // 起点可能恰好是前几个途经点
+        int startStage = advanceStage(start.getId(), 0, targetIds);
+        if (startStage < stageCount && lowerBounds[startStage][start.getId()] == INFINITY) {
+            return null;
+        }
+
+        IntMinHeap queue = new IntMinHeap(1024);
+        int first = addLabel(start.getId(), startStage, 0, 0, 0, -1, false);
+        addToBucket(start.getId() * (stageCount + 1) + startStage, first);
+        queue.insertOrDecrease(first, 0);
+
+        int best = -1;
+        int bestCost = INFINITY;
+
+        while (!queue.isEmpty()) {
+            if (queue.peekKey() > bestCost) {
+                break; // 剩余标号的下界都比已找到的路线长；下界相等的标号可能充电更少，仍需处理
+            }
+            int label = queue.poll();
+            if (removed[label]) {
+                continue;
+            }
+            int node = nodes[label];
+            int stage = stages[label];
+            if (stage == stageCount) {
+                if (costs[label] < bestCost || (costs[label] == bestCost && stops[label] < stops[best])) {
+                    best = label;
+                    bestCost = costs[label];
+                }
+                continue;
+            }
+
+            City city = roadNetwork.getCityById(node);
+            for (int i = 0; i < city.getDegree(); i++) {
+                int next = city.getNeighbor(i).getId();
+                int weight = city.getNeighborDistance(i);
+                int newUsed = used[label] + weight;
+                if (newUsed > maxLegDistance) {
+                    continue; // 超出续航
+                }
+                int newCost = costs[label] + weight;
+                int nextStage = advanceStage(next, stage, targetIds);
+                int bound = nextStage == stageCount ? 0 : lowerBounds[nextStage][next];
+                if (bound == INFINITY || newCost + bound > bestCost) {
+                    continue;
+                }
+
+                int plain = tryInsert(next, nextStage, stageCount, newCost, newUsed, stops[label], label, false);
+                if (plain >= 0) {
+                    queue.insertOrDecrease(plain, newCost + bound);
+                }
+                if (refuel[next] && nextStage < stageCount) {
+                    int charge = tryInsert(next, nextStage, stageCount, newCost, 0, stops[label] + 1, label, true);
+                    if (charge >= 0) {
+                        queue.insertOrDecrease(charge, newCost + bound);
+                    }
+                }
+            }
+        }
+
+        if (best < 0) {
+            return null;
+        }
+        return buildResult(best);
+    }
+
+    /**
+     * 从城市node出发，依次越过已到达的途经点
+     */
+    private int advanceStage(int node, int stage, int[] targetIds) {
+        while (stage < targetIds.length && targetIds[stage] == node) {
+            stage++;
+        }
+        return stage;
+    }
+
+    /**
+     * 下界预处理：lowerBounds[s][v] = d(v, 目标s) + 目标s之后各段最短距离之和
+     */
+    private int[][] computeLowerBounds(int[] targetIds) {
+        int stageCount = targetIds.length;
+        int[][] lowerBounds = new int[stageCount][];
+        int remaining = 0;
+        for (int s = stageCount - 1; s >= 0; s--) {
+            int[] distance = dijkstra(targetIds[s]);
+            if (s + 1 < stageCount) {
+                int leg = lowerBounds[s + 1][targetIds[s]];
+                remaining = (leg == INFINITY || remaining == INFINITY) ? INFINITY : leg;
+            }
+            for (int v = 0; v < distance.length; v++) {
+                if (distance[v] != INFINITY && remaining != INFINITY) {
+                    distance[v] += remaining;
+                } else {
+                    distance[v] = INFINITY;
+                }
+            }
+            lowerBounds[s] = distance;
+        }
+        return lowerBounds;
+    }
+
+    private int[] dijkstra(int source) {
+        int n = roadNetwork.getCityCount();
+        int[] distance = new int[n];
+        Arrays.fill(distance, INFINITY);
+        distance[source] = 0;
+        IntMinHeap heap = new IntMinHeap(n);
+        heap.insertOrDecrease(source, 0);
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            City city = roadNetwork.getCityById(current);
+            for (int i = 0; i < city.getDegree(); i++) {
+                int next = city.getNeighbor(i).getId();
+                int newDistance = distance[current] + city.getNeighborDistance(i);
+                if (newDistance < distance[next]) {
+                    distance[next] = newDistance;
+                    heap.insertOrDecrease(next, newDistance);
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * 插入新标号，被已有标号支配时返回-1
+     */
+    private int tryInsert(int node, int stage, int stageCount, int cost, int usedRange, int stopCount,
+                          int parent, boolean chargedHere) {
+        int bucket = node * (stageCount + 1) + stage;
+        int[] labels = bucketLabels[bucket];
+        int count = bucketCounts[bucket];
+        for (int i = 0; i < count; i++) {
+            int l = labels[i];
+            if (costs[l] <= cost && used[l] <= usedRange && stops[l] <= stopCount) {
+                return -1;
+            }
+        }
+
+        // 移除被新标号支配的标号
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int l = labels[i];
+            if (cost <= costs[l] && usedRange <= used[l] && stopCount <= stops[l]) {
+                removed[l] = true;
+            } else {
+                labels[kept++] = l;
+            }
+        }
+        bucketCounts[bucket] = kept;
+
+        int label = addLabel(node, stage, cost, usedRange, stopCount, parent, chargedHere);
+        addToBucket(bucket, label);
+        return label;
+    }
+
+    private void addToBucket(int bucket, int label) {
+        int[] labels = bucketLabels[bucket];
+        int count = bucketCounts[bucket];
+        if (labels == null) {
+            labels = new int[4];
+            bucketLabels[bucket] = labels;
+        } else if (count == labels.length) {
+            labels = Arrays.copyOf(labels, count * 2);
+            bucketLabels[bucket] = labels;
+        }
+        labels[count] = label;
+        bucketCounts[bucket] = count + 1;
+    }
+
+    private void reset(int bucketCount) {
+        int capacity = 1024;
+        costs = new int[capacity];
+        used = new int[capacity];
+        stops = new int[capacity];
+        nodes = new int[capacity];
+        stages = new int[capacity];
+        parents = new int[capacity];
+        charged = new boolean[capacity];
+        removed = new boolean[capacity];
+        labelCount = 0;
+        bucketLabels = new int[bucketCount][];
+        bucketCounts = new int[bucketCount];
+    }
+
+    private int addLabel(int node, int stage, int cost, int usedRange, int stopCount, int parent, boolean chargedHere) {
+        if (labelCount == nodes.length) {
+            int capacity = nodes.length * 2;
+            costs = Arrays.copyOf(costs, capacity);
+            used = Arrays.copyOf(used, capacity);
+            stops = Arrays.copyOf(stops, capacity);
+            nodes = Arrays.copyOf(nodes, capacity);
+            stages = Arrays.copyOf(stages, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            charged = Arrays.copyOf(charged, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+        }
+        int label = labelCount++;
+        costs[label] = cost;
+        used[label] = usedRange;
+        stops[label] = stopCount;
+        nodes[label] = node;
+        stages[label] = stage;
+        parents[label] = parent;
+        charged[label] = chargedHere;
+        return label;
+    }
+
+    private RouteResult buildResult(int label) {
+        List<String> cities = new ArrayList<>();
+        List<String> chargingStops = new ArrayList<>();
+        for (int l = label; l != -1; l = parents[l]) {
+            String name = roadNetwork.getCityById(nodes[l]).getFullName();
+            cities.add(name);
+            if (charged[l]) {
+                chargingStops.add(name);
+            }
+        }
+        Collections.reverse(cities);
+        Collections.reverse(chargingStops);
+        return new RouteResult(cities, costs[label], chargingStops);
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.cw;
+
+/**
+ * 压缩稀疏行（CSR）格式城市图的访问接口
+ *
+ * 边编号是边在邻接数组中的位置，城市v的出边编号为getFirstEdge(v)到getEndEdge(v)-1，按终点编号排序。
+ * 堆内数组（CsrRoadGraph）和堆外缓冲区（OffHeapRoadGraph）两种存储都实现该接口，
+ * 路由引擎、扩展图和路网更新只通过它访问邻接数据。
+ */
+public interface CsrGraph extends RoadGraph {
+
+    /**
+     * 获取边的总数（每条双向道路计两次）
+     */
+    int getEdgeCount();
+
+    int getFirstEdge(int node);
+
+    int getEndEdge(int node);
+
+    int getTarget(int edge);
+
+    int getWeight(int edge);
+
+    /**
+     * 获取边的起点
+     */
+    int getSource(int edge);
+
+    /**
+     * 查找从from到to的边编号，不存在时返回-1
+     */
+    int findEdge(int from, int to);
+
+    /**
+     * 修改已有边的权重（CLOSED表示封路），边不存在时返回false
+     */
+    boolean updateWeight(int from, int to, int weight);
+
+    @Override
+    default RoadGraph getReverse() {
+        return this; // 道路是双向的
+    }
+
+    @Override
+    default int toCity(int node) {
+        return node;
+    }
+}
@@ -0,0 +1,229 @@
+package org.example.cw;
+
+import java.util.Arrays;
+
+/**
+ * 以压缩稀疏行（CSR）格式存储的城市图
+ *
+ * offsets[v]到offsets[v+1]之间是城市v的出边，targets/weights为边的终点和距离，
+ * 每个城市的出边按终点编号排序，因此可以二分查找某条边。
+ * 边在数组中的位置同时作为边编号使用。道路是双向的，反向图就是自身。
+ * 封闭的道路权重记为EdgeUpdate.CLOSED，遍历时跳过。
+ */
+public class CsrRoadGraph implements CsrGraph {
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    public CsrRoadGraph(int[] offsets, int[] targets, int[] weights) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * 从道路网络的城市邻接表构建CSR图
+     */
+    public static CsrRoadGraph fromRoadNetwork(RoadNetwork roadNetwork) {
+        int n = roadNetwork.getCityCount();
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + roadNetwork.getCityById(v).getDegree();
+        }
+
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        long[] packed = new long[0];
+        for (int v = 0; v < n; v++) {
+            City city = roadNetwork.getCityById(v);
+            if (packed.length < city.getDegree()) {
+                packed = new long[city.getDegree()];
+            }
+            // 终点编号放在高32位，排序后即按终点有序
+            int count = city.getDegree();
+            for (int i = 0; i < count; i++) {
+                packed[i] = ((long) city.getNeighbor(i).getId() << 32) | (city.getNeighborDistance(i) & 0xFFFFFFFFL);
+            }
+            Arrays.sort(packed, 0, count);
+            for (int i = 0; i < count; i++) {
+                targets[offsets[v] + i] = (int) (packed[i] >>> 32);
+                weights[offsets[v] + i] = (int) packed[i];
+            }
+        }
+        return new CsrRoadGraph(offsets, targets, weights);
+    }
+
+    /**
+     * 复制权重数组、共享结构数组的副本，修改副本的权重不影响原图
+     */
+    public CsrRoadGraph copyWeights() {
+        return new CsrRoadGraph(offsets, targets, weights.clone());
+    }
+
+    /**
+     * 复制任意CSR图当前的权重，得到堆内的副本；之后原图原地更新权重不影响副本
+     */
+    public static CsrRoadGraph copyOf(CsrGraph graph) {
+        if (graph instanceof CsrRoadGraph) {
+            return ((CsrRoadGraph) graph).copyWeights();
+        }
+        if (graph instanceof CompressedRoadGraph) {
+            return ((CompressedRoadGraph) graph).decompress(); // 按边编号取终点要从头解码，整体解压更快
+        }
+        int n = graph.getNodeCount();
+        int m = graph.getEdgeCount();
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = graph.getEndEdge(v);
+        }
+        for (int e = 0; e < m; e++) {
+            targets[e] = graph.getTarget(e);
+            weights[e] = graph.getWeight(e);
+        }
+        return new CsrRoadGraph(offsets, targets, weights);
+    }
+
+    /**
+     * 从边列表构建CSR图（导入外部路网时使用）
+     * 每条边按双向道路处理；同一对城市有多条边时保留最短的一条，自环被忽略。
+     *
+     * @param edgeCount sources/targets/weights中有效边的数量
+     */
+    public static CsrRoadGraph fromEdges(int nodeCount, int[] sources, int[] targets, int[] weights, int edgeCount) {
+        int[] offsets = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            if (sources[i] != targets[i]) {
+                offsets[sources[i] + 1]++;
+                offsets[targets[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        // 终点编号放在高32位、距离放在低32位，排序后同一终点的最短边排在最前
+        long[] packed = new long[offsets[nodeCount]];
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        for (int i = 0; i < edgeCount; i++) {
+            int u = sources[i];
+            int v = targets[i];
+            if (u != v) {
+                packed[next[u]++] = ((long) v << 32) | (weights[i] & 0xFFFFFFFFL);
+                packed[next[v]++] = ((long) u << 32) | (weights[i] & 0xFFFFFFFFL);
+            }
+        }
+
+        int[] newOffsets = new int[nodeCount + 1];
+        int[] newTargets = new int[packed.length];
+        int[] newWeights = new int[packed.length];
+        int count = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            Arrays.sort(packed, offsets[v], offsets[v + 1]);
+            int previous = -1;
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int target = (int) (packed[i] >>> 32);
+                if (target != previous) {
+                    newTargets[count] = target;
+                    newWeights[count] = (int) packed[i];
+                    count++;
+                    previous = target;
+                }
+            }
+            newOffsets[v + 1] = count;
+        }
+        return new CsrRoadGraph(newOffsets, Arrays.copyOf(newTargets, count), Arrays.copyOf(newWeights, count));
+    }
+
+    @Override
+    public int getNodeCount() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public void forEachEdge(int node, EdgeVisitor visitor) {
+        for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+            int weight = weights[e];
+            if (weight != EdgeUpdate.CLOSED) {
+                visitor.visit(targets[e], weight);
+            }
+        }
+    }
+
+    @Override
+    public RoadGraph getReverse() {
+        return this;
+    }
+
+    @Override
+    public int toCity(int node) {
+        return node;
+    }
+
+    /**
+     * 获取边的总数（每条双向道路计两次）
+     */
+    @Override
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    @Override
+    public int getFirstEdge(int node) {
+        return offsets[node];
+    }
+
+    @Override
+    public int getEndEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    @Override
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    @Override
+    public int getWeight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * 获取边的起点（在offsets上二分查找）
+     */
+    @Override
+    public int getSource(int edge) {
+        int index = Arrays.binarySearch(offsets, edge);
+        if (index >= 0) {
+            // 可能有出度为0的城市共享同一个偏移量，取最后一个
+            while (index + 1 < offsets.length && offsets[index + 1] == edge) {
+                index++;
+            }
+            return index;
+        }
+        return -index - 2;
+    }
+
+    /**
+     * 查找从from到to的边编号，不存在时返回-1
+     */
+    @Override
+    public int findEdge(int from, int to) {
+        int index = Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * 修改已有边的权重（CLOSED表示封路），边不存在时返回false
+     */
+    @Override
+    public boolean updateWeight(int from, int to, int weight) {
+        int edge = findEdge(from, to);
+        if (edge < 0) {
+            return false;
+        }
+        weights[edge] = weight;
+        return true;
+    }
+}
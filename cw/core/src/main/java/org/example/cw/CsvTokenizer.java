@@ -0,0 +1,313 @@
+package org.example.cw;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 字节级流式CSV分词器
+ *
+ * 输入读入一个复用的缓冲区，每次nextRecord()只记录当前行各字段在缓冲区中的起止位置，
+ * 不创建String或String[]。整数字段原地解析，名称字段可以直接按字节驻留到ByteInternTable。
+ * 支持双引号字段（字段内可含逗号和换行，""表示一个引号，原地反转义），
+ * 未加引号的字段会去掉首尾空白。空行被跳过，行尾的\r被忽略，文件开头的UTF-8 BOM被跳过。
+ */
+public class CsvTokenizer implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private byte[] data; // 缓冲区，单行超过缓冲区大小时扩容
+    private int limit; // 缓冲区中有效数据的末尾
+    private int position; // 下一条记录的开始位置
+    private boolean endOfInput;
+    private boolean started; // 是否已经检查过BOM
+
+    private int[] fieldStarts = new int[8];
+    private int[] fieldEnds = new int[8];
+    private int fieldCount;
+    private long lineNumber; // 当前记录最后一行的行号（从1开始）
+
+    public CsvTokenizer(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvTokenizer(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.data = new byte[Math.max(bufferSize, 16)];
+    }
+
+    public CsvTokenizer(InputStream in) {
+        this(Channels.newChannel(in));
+    }
+
+    /**
+     * 前进到下一条非空记录，输入结束时返回false
+     */
+    public boolean nextRecord() throws IOException {
+        while (true) {
+            int end = findRecordEnd();
+            if (end < 0) {
+                fieldCount = 0;
+                return false;
+            }
+            int recordStart = position;
+            position = end;
+            tokenize(recordStart, end);
+            if (fieldCount > 1 || fieldEnds[0] > fieldStarts[0]) {
+                return true;
+            }
+            // 空行，继续读下一行
+        }
+    }
+
+    /**
+     * 找到从position开始的一条完整记录的末尾（不含换行符之后的内容），必要时读入更多数据
+     * 只统计引号的奇偶性，不修改缓冲区，所以数据不完整时可以安全地重新扫描
+     */
+    private int findRecordEnd() throws IOException {
+        int scanned = position;
+        boolean inQuotes = false;
+        while (true) {
+            for (int i = scanned; i < limit; i++) {
+                byte b = data[i];
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n') {
+                    lineNumber++;
+                    if (!inQuotes) {
+                        return i + 1;
+                    }
+                }
+            }
+            if (endOfInput) {
+                if (position == limit) {
+                    return -1;
+                }
+                lineNumber++;
+                return limit; // 最后一行没有换行符
+            }
+            int scannedLength = limit - position; // 已扫描部分相对记录开头的长度
+            fill();
+            scanned = position + scannedLength;
+        }
+    }
+
+    /**
+     * 把未处理的数据移到缓冲区开头并读入更多数据
+     */
+    private void fill() throws IOException {
+        int remaining = limit - position;
+        if (position > 0) {
+            System.arraycopy(data, position, data, 0, remaining);
+        } else if (remaining == data.length) {
+            data = Arrays.copyOf(data, data.length * 2); // 一条记录比缓冲区还长
+        }
+        position = 0;
+        limit = remaining;
+
+        ByteBuffer buffer = ByteBuffer.wrap(data, limit, data.length - limit);
+        int read = channel.read(buffer);
+        while (read == 0) {
+            read = channel.read(buffer);
+        }
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+
+        if (!started) {
+            started = true;
+            if (limit >= 3 && (data[0] & 0xFF) == 0xEF && (data[1] & 0xFF) == 0xBB && (data[2] & 0xFF) == 0xBF) {
+                position = 3;
+            }
+        }
+    }
+
+    /**
+     * 把[start, end)之间的一条完整记录切分为字段
+     */
+    private void tokenize(int start, int end) {
+        fieldCount = 0;
+        // 去掉行尾的换行符
+        if (end > start && data[end - 1] == '\n') {
+            end--;
+        }
+        if (end > start && data[end - 1] == '\r') {
+            end--;
+        }
+
+        int i = start;
+        while (true) {
+            while (i < end && isBlank(data[i])) {
+                i++;
+            }
+            int fieldStart;
+            int fieldEnd;
+            if (i < end && data[i] == '"') {
+                // 引号字段：原地反转义，写指针w不会超过读指针
+                fieldStart = ++i;
+                int w = i;
+                while (i < end) {
+                    byte b = data[i++];
+                    if (b == '"') {
+                        if (i < end && data[i] == '"') {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    data[w++] = b;
+                }
+                fieldEnd = w;
+                while (i < end && data[i] != ',') {
+                    i++; // 忽略右引号和逗号之间的内容
+                }
+            } else {
+                fieldStart = i;
+                while (i < end && data[i] != ',') {
+                    i++;
+                }
+                fieldEnd = i;
+                while (fieldEnd > fieldStart && isBlank(data[fieldEnd - 1])) {
+                    fieldEnd--;
+                }
+            }
+            addField(fieldStart, fieldEnd);
+            if (i >= end) {
+                return;
+            }
+            i++; // 跳过逗号
+        }
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    /**
+     * 当前记录的字段数
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * 当前记录的行号，用于错误信息
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public int getFieldLength(int field) {
+        return fieldEnds[field] - fieldStarts[field];
+    }
+
+    /**
+     * 原地解析整数字段，格式错误或溢出时抛出NumberFormatException
+     */
+    public int getInt(int field) {
+        int i = fieldStarts[field];
+        int end = fieldEnds[field];
+        if (i == end) {
+            throw new NumberFormatException("第 " + lineNumber + " 行的第 " + (field + 1) + " 个字段为空");
+        }
+        boolean negative = data[i] == '-';
+        if (negative || data[i] == '+') {
+            i++;
+        }
+        if (i == end) {
+            throw invalidNumber(field);
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidNumber(field);
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw invalidNumber(field);
+            }
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw invalidNumber(field);
+        }
+        return (int) value;
+    }
+
+    private NumberFormatException invalidNumber(int field) {
+        return new NumberFormatException("第 " + lineNumber + " 行的第 " + (field + 1) + " 个字段不是整数: " + getString(field));
+    }
+
+    /**
+     * 获取字段的字符串值（会分配新的String）
+     */
+    public String getString(int field) {
+        return new String(data, fieldStarts[field], getFieldLength(field), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 字段是否等于给定的ASCII文本（不区分大小写），不分配对象
+     */
+    public boolean equalsIgnoreCase(int field, String ascii) {
+        int start = fieldStarts[field];
+        if (getFieldLength(field) != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length(); i++) {
+            if (Character.toLowerCase((char) data[start + i]) != Character.toLowerCase(ascii.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 把字段驻留到名称表中并返回其编号
+     */
+    public int intern(int field, ByteInternTable table) {
+        return table.intern(data, fieldStarts[field], getFieldLength(field));
+    }
+
+    /**
+     * 在名称表中查找字段，不存在时返回-1
+     */
+    public int find(int field, ByteInternTable table) {
+        return table.find(data, fieldStarts[field], getFieldLength(field));
+    }
+
+    /**
+     * 当前缓冲区和字段位置，供同一包内需要直接处理字节的加载器使用
+     */
+    byte[] getBuffer() {
+        return data;
+    }
+
+    int getFieldStart(int field) {
+        return fieldStarts[field];
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.cw;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 导入DIMACS最短路挑战赛格式的路网（USA-road-d.*.gr/.co等）
+ *
+ * .gr文件："p sp n m" 声明节点数和弧数，"a u v w" 是一条弧（节点从1开始编号）；
+ * .co文件："v id x y" 是节点坐标，x为经度、y为纬度，单位为百万分之一度。
+ * 以"c"开头的行是注释。弧按双向道路导入，同一对节点的两个方向取较短的距离。
+ * 节点i导入后编号为i-1，全名为"V<i> DIMACS"。
+ */
+public class DimacsImporter {
+    public static final String STATE = "DIMACS";
+
+    /**
+     * 创建导入器，每次load都是独立的导入
+     */
+    public DimacsImporter() {
+    }
+
+    /**
+     * 导入.gr文件，coordinatesFile为null时不导入坐标
+     */
+    public ImportedGraph load(Path graphFile, Path coordinatesFile) throws IOException {
+        int nodeCount = -1;
+        int[] sources = new int[0];
+        int[] targets = new int[0];
+        int[] weights = new int[0];
+        int edgeCount = 0;
+
+        try (LineReader reader = new LineReader(graphFile)) {
+            int type;
+            while ((type = reader.nextLine()) >= 0) {
+                if (type == 'p') {
+                    reader.skipWord(); // "sp"
+                    nodeCount = (int) reader.nextLong();
+                    int declared = (int) reader.nextLong();
+                    sources = new int[declared];
+                    targets = new int[declared];
+                    weights = new int[declared];
+                } else if (type == 'a') {
+                    if (nodeCount < 0) {
+                        throw new IOException(graphFile + " 第 " + reader.getLineNumber() + " 行：弧出现在p行之前");
+                    }
+                    int u = node(reader, nodeCount);
+                    int v = node(reader, nodeCount);
+                    long weight = reader.nextLong();
+                    if (weight < 0 || weight > Integer.MAX_VALUE) {
+                        throw new IOException(graphFile + " 第 " + reader.getLineNumber() + " 行：距离无效 " + weight);
+                    }
+                    if (edgeCount == sources.length) {
+                        int capacity = Math.max(16, edgeCount * 2);
+                        sources = Arrays.copyOf(sources, capacity);
+                        targets = Arrays.copyOf(targets, capacity);
+                        weights = Arrays.copyOf(weights, capacity);
+                    }
+                    sources[edgeCount] = u;
+                    targets[edgeCount] = v;
+                    weights[edgeCount] = (int) weight;
+                    edgeCount++;
+                }
+                reader.skipLine();
+            }
+        }
+        if (nodeCount < 0) {
+            throw new IOException("缺少p行: " + graphFile);
+        }
+
+        String[] names = new String[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            names[i] = "V" + (i + 1) + " " + STATE;
+        }
+        CsrRoadGraph graph = CsrRoadGraph.fromEdges(nodeCount, sources, targets, weights, edgeCount);
+
+        if (coordinatesFile == null) {
+            return new ImportedGraph(graph, names, null, null);
+        }
+        double[] latitudes = new double[nodeCount];
+        double[] longitudes = new double[nodeCount];
+        Arrays.fill(latitudes, Double.NaN);
+        Arrays.fill(longitudes, Double.NaN);
+        try (LineReader reader = new LineReader(coordinatesFile)) {
+            int type;
+            while ((type = reader.nextLine()) >= 0) {
+                if (type == 'v') {
+                    int v = node(reader, nodeCount);
+                    longitudes[v] = reader.nextLong() / 1e6;
+                    latitudes[v] = reader.nextLong() / 1e6;
+                }
+                reader.skipLine();
+            }
+        }
+        return new ImportedGraph(graph, names, latitudes, longitudes);
+    }
+
+    private static int node(LineReader reader, int nodeCount) throws IOException {
+        long id = reader.nextLong();
+        if (id < 1 || id > nodeCount) {
+            throw new IOException("第 " + reader.getLineNumber() + " 行：节点编号超出范围 " + id);
+        }
+        return (int) id - 1;
+    }
+
+    /**
+     * 按字节读取以空白分隔的行，不创建String
+     */
+    private static class LineReader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        private long lineNumber;
+
+        LineReader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer.flip();
+        }
+
+        /**
+         * 前进到下一个非空行并返回其首字符，文件结束时返回-1
+         */
+        int nextLine() throws IOException {
+            while (true) {
+                int b = read();
+                if (b < 0) {
+                    return -1;
+                }
+                if (b == '\n') {
+                    continue; // 空行
+                }
+                if (b != ' ' && b != '\t' && b != '\r') {
+                    lineNumber++;
+                    return b;
+                }
+            }
+        }
+
+        void skipLine() throws IOException {
+            int b = peek();
+            while (b >= 0 && b != '\n') {
+                read();
+                b = peek();
+            }
+        }
+
+        void skipWord() throws IOException {
+            skipBlanks();
+            int b = peek();
+            while (b >= 0 && b > ' ') {
+                read();
+                b = peek();
+            }
+        }
+
+        long nextLong() throws IOException {
+            skipBlanks();
+            boolean negative = peek() == '-';
+            if (negative) {
+                read();
+            }
+            long value = 0;
+            int digits = 0;
+            int b = peek();
+            while (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                digits++;
+                read();
+                b = peek();
+            }
+            if (digits == 0) {
+                throw new IOException("第 " + lineNumber + " 行：缺少数字");
+            }
+            return negative ? -value : value;
+        }
+
+        long getLineNumber() {
+            return lineNumber;
+        }
+
+        private void skipBlanks() throws IOException {
+            int b = peek();
+            while (b == ' ' || b == '\t' || b == '\r') {
+                read();
+                b = peek();
+            }
+        }
+
+        private int peek() throws IOException {
+            if (!buffer.hasRemaining() && !fill()) {
+                return -1;
+            }
+            return buffer.get(buffer.position()) & 0xFF;
+        }
+
+        private int read() throws IOException {
+            if (!buffer.hasRemaining() && !fill()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        private boolean fill() throws IOException {
+            buffer.clear();
+            int read = channel.read(buffer);
+            while (read == 0) {
+                read = channel.read(buffer);
+            }
+            buffer.flip();
+            return read > 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
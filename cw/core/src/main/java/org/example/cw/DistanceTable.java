@@ -0,0 +1,336 @@
+package org.example.cw;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 所有城市对之间的最短距离表
+ *
+ * 对每个城市各做一次完整的Dijkstra（多个线程并行，每个线程复用一个GraphSearch），
+ * 建成后任意两城市的距离查询是O(1)，路径可以沿距离表逐步回溯得到。
+ * 道路是双向的，任意两点距离不超过某一点离心率的两倍，先用它估计最大距离：
+ * 估计值能放进16位时每个距离占2字节（0xFFFF表示不可达），否则占4字节。
+ * 数据超过HEAP_LIMIT_BYTES时存放在内存映射的临时文件中，按行分块，每块不超过1GB。
+ * 适合几万个城市以内的路网（n个城市需要n²个距离）。
+ * 距离表持有计算它时使用的图，回溯路径只读这张图，因此调用方此后不能再修改它的权重；
+ * 会原地更新权重的路网传入一份权重副本。
+ */
+public class DistanceTable {
+    public static final int UNREACHABLE = GraphSearch.INFINITY;
+    public static final long HEAP_LIMIT_BYTES = 256L << 20;
+    private static final char NARROW_UNREACHABLE = 0xFFFF;
+    private static final long CHUNK_BYTES = 1L << 30;
+
+    private final CsrGraph graph; // 计算距离表时使用的图
+    private final int nodeCount;
+    private final boolean narrow; // 是否每个距离占2字节
+    private final char[] narrowDistances; // 堆内存储，否则为null
+    private final int[] wideDistances;
+    private final ByteBuffer[] chunks; // 内存映射存储，否则为null
+    private final int rowsPerChunk;
+
+    private DistanceTable(CsrGraph graph, boolean narrow, boolean mapped) {
+        this.graph = graph;
+        int nodeCount = graph.getNodeCount();
+        this.nodeCount = nodeCount;
+        this.narrow = narrow;
+        long entries = (long) nodeCount * nodeCount;
+        long bytes = entries * (narrow ? 2 : 4);
+        if (!mapped) {
+            if (entries > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("距离表太大，无法放在堆内: " + nodeCount + " 个城市");
+            }
+            narrowDistances = narrow ? new char[(int) entries] : null;
+            wideDistances = narrow ? null : new int[(int) entries];
+            chunks = null;
+            rowsPerChunk = 0;
+            return;
+        }
+        long rowBytes = (long) nodeCount * (narrow ? 2 : 4);
+        rowsPerChunk = (int) Math.max(1, Math.min(nodeCount, CHUNK_BYTES / Math.max(1, rowBytes)));
+        int chunkCount = Math.max(1, (nodeCount + rowsPerChunk - 1) / rowsPerChunk);
+        chunks = new ByteBuffer[chunkCount];
+        narrowDistances = null;
+        wideDistances = null;
+        try {
+            Path file = Files.createTempFile("distance-table", ".bin");
+            // 关闭时删除文件，映射在通道关闭后仍然有效
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE)) {
+                for (int i = 0; i < chunkCount; i++) {
+                    long start = (long) i * rowsPerChunk * rowBytes;
+                    long size = Math.min((long) rowsPerChunk * rowBytes, bytes - start);
+                    chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, size)
+                            .order(ByteOrder.nativeOrder());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法创建距离表的映射文件", e);
+        }
+    }
+
+    /**
+     * 计算路网的距离表，使用所有处理器
+     */
+    public static DistanceTable compute(CsrGraph graph) {
+        return compute(graph, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 用threads个线程并行计算距离表
+     */
+    public static DistanceTable compute(CsrGraph graph, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("线程数必须为正数: " + threads);
+        }
+        int n = graph.getNodeCount();
+        boolean narrow = estimateMaxDistance(graph) < NARROW_UNREACHABLE;
+        long bytes = (long) n * n * (narrow ? 2 : 4);
+        DistanceTable table = new DistanceTable(graph, narrow, bytes > HEAP_LIMIT_BYTES);
+
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            GraphSearch search = new GraphSearch(graph);
+            for (int source = next.getAndIncrement(); source < n; source = next.getAndIncrement()) {
+                ShortestPathTree tree = search.shortestPathTree(source);
+                for (int target = 0; target < n; target++) {
+                    table.set(source, target, tree.getDistance(target));
+                }
+            }
+        };
+        int workers = Math.min(threads, Math.max(1, n));
+        if (workers == 1) {
+            worker.run();
+            return table;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "distance-table");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(worker));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("计算距离表时被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("计算距离表时出错", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return table;
+    }
+
+    /**
+     * 最大有限距离的上界：每个连通分量取一个点做Dijkstra，其离心率的两倍不小于分量内任意两点的距离
+     */
+    static long estimateMaxDistance(CsrGraph graph) {
+        int n = graph.getNodeCount();
+        boolean[] covered = new boolean[n];
+        GraphSearch search = new GraphSearch(graph);
+        long bound = 0;
+        for (int source = 0; source < n; source++) {
+            if (covered[source]) {
+                continue;
+            }
+            ShortestPathTree tree = search.shortestPathTree(source);
+            long eccentricity = 0;
+            for (int v = 0; v < n; v++) {
+                if (tree.isReachable(v)) {
+                    covered[v] = true;
+                    eccentricity = Math.max(eccentricity, tree.getDistance(v));
+                }
+            }
+            bound = Math.max(bound, 2 * eccentricity);
+        }
+        return bound;
+    }
+
+    private void set(int from, int to, int distance) {
+        long index = (long) from * nodeCount + to;
+        if (chunks == null) {
+            if (narrow) {
+                narrowDistances[(int) index] = distance == UNREACHABLE ? NARROW_UNREACHABLE : (char) distance;
+            } else {
+                wideDistances[(int) index] = distance;
+            }
+            return;
+        }
+        ByteBuffer chunk = chunks[from / rowsPerChunk];
+        int position = (from % rowsPerChunk) * nodeCount + to;
+        if (narrow) {
+            chunk.putChar(2 * position, distance == UNREACHABLE ? NARROW_UNREACHABLE : (char) distance);
+        } else {
+            chunk.putInt(4 * position, distance);
+        }
+    }
+
+    /**
+     * 获取两城市间的最短距离，不可达时返回UNREACHABLE
+     */
+    public int getDistance(int from, int to) {
+        if (chunks == null) {
+            int index = from * nodeCount + to;
+            if (narrow) {
+                char distance = narrowDistances[index];
+                return distance == NARROW_UNREACHABLE ? UNREACHABLE : distance;
+            }
+            return wideDistances[index];
+        }
+        ByteBuffer chunk = chunks[from / rowsPerChunk];
+        int position = (from % rowsPerChunk) * nodeCount + to;
+        if (narrow) {
+            char distance = chunk.getChar(2 * position);
+            return distance == NARROW_UNREACHABLE ? UNREACHABLE : distance;
+        }
+        return chunk.getInt(4 * position);
+    }
+
+    /**
+     * 沿距离表回溯一条最短路径（含两端），不可达时返回null
+     *
+     * 每一步选择满足 边权 + 邻居到终点的距离 = 当前点到终点的距离 的邻居，耗时为路径长度乘以平均度数。
+     * 零权重的道路不减少剩余距离，只在剩余距离相同的城市之间做一次广度优先搜索，不会来回绕圈。
+     */
+    public int[] getPath(int from, int to) {
+        int remaining = getDistance(from, to);
+        if (remaining == UNREACHABLE) {
+            return null;
+        }
+        int[] path = new int[16];
+        int length = 0;
+        path[length++] = from;
+        int current = from;
+        while (current != to) {
+            // 每一步都让剩余距离严格减少：先在剩余距离相同的零权重道路上找到能前进的城市，再走一条正权重的道路
+            int[] plateau = findExit(graph, current, to, remaining);
+            if (plateau == null) {
+                throw new IllegalStateException("距离表与图不一致: " + current + " -> " + to);
+            }
+            if (length + plateau.length > path.length) {
+                path = Arrays.copyOf(path, Math.max(path.length * 2, length + plateau.length));
+            }
+            System.arraycopy(plateau, 0, path, length, plateau.length);
+            length += plateau.length;
+            current = path[length - 1];
+            remaining = getDistance(current, to);
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    /**
+     * 从current出发，只经过剩余距离仍为remaining的零权重道路做广度优先搜索，
+     * 找到终点或有正权重最短路径边的城市为止
+     *
+     * @return 不含current的路径，最后一个城市是终点或正权重边的另一端；找不到时返回null
+     */
+    private int[] findExit(CsrGraph graph, int current, int to, int remaining) {
+        int step = progressEdge(graph, current, to, remaining);
+        if (step >= 0) {
+            return new int[]{graph.getTarget(step)};
+        }
+        Map<Integer, Integer> parents = new HashMap<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        parents.put(current, -1);
+        queue.add(current);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            int exit = node == to ? -1 : progressEdge(graph, node, to, remaining);
+            if (node == to || exit >= 0) {
+                List<Integer> reversed = new ArrayList<>();
+                if (exit >= 0) {
+                    reversed.add(graph.getTarget(exit));
+                }
+                for (int v = node; v != current; v = parents.get(v)) {
+                    reversed.add(v);
+                }
+                int[] result = new int[reversed.size()];
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = reversed.get(result.length - 1 - i);
+                }
+                return result;
+            }
+            for (int e = graph.getFirstEdge(node); e < graph.getEndEdge(node); e++) {
+                int target = graph.getTarget(e);
+                if (graph.getWeight(e) == 0 && getDistance(target, to) == remaining
+                        && !parents.containsKey(target)) {
+                    parents.put(target, node);
+                    queue.add(target);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * node的一条位于最短路径上、权重为正的出边，没有时返回-1
+     */
+    private int progressEdge(CsrGraph graph, int node, int to, int remaining) {
+        for (int e = graph.getFirstEdge(node); e < graph.getEndEdge(node); e++) {
+            int weight = graph.getWeight(e);
+            if (weight <= 0) {
+                continue; // 封闭的道路（EdgeUpdate.CLOSED）为负数，零权重道路由findExit处理
+            }
+            int rest = getDistance(graph.getTarget(e), to);
+            if (rest != UNREACHABLE && weight + rest == remaining) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * 获取计算距离表时使用的图
+     */
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * 是否每个距离只占2字节
+     */
+    public boolean isNarrow() {
+        return narrow;
+    }
+
+    /**
+     * 是否存放在内存映射文件中
+     */
+    public boolean isMapped() {
+        return chunks != null;
+    }
+
+    /**
+     * 距离数据占用的字节数
+     */
+    public long getMemoryBytes() {
+        return (long) nodeCount * nodeCount * (narrow ? 2 : 4);
+    }
+}
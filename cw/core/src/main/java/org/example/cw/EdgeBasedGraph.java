@@ -0,0 +1,195 @@
+package org.example.cw;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 支持转向限制和转向代价的基于边的扩展图
+ *
+ * 扩展图并不实际生成，而是在遍历时由底层CSR图和转向表即时计算，
+ * 额外内存只有转向限制本身。节点编号划分为三段：
+ * - [0, n)：城市v的出发节点，只有出边，指向v的所有出边节点和v自己的到达节点（代价0，起点即终点）
+ * - [n, 2n)：城市v的到达节点，只有入边，来自所有驶入v的边节点和v的出发节点
+ * - [2n, 2n+m)：有向道路e=(u->v)，可以到达v的到达节点（代价0），
+ *   或转向v的下一条道路f（代价为f的距离加转向代价，禁止的转向不生成）
+ * 从出发节点s搜索到到达节点n+t，即得到考虑转向的最短路线，
+ * 因此现有的Dijkstra、A*和双向搜索无需修改即可在其上运行。
+ */
+public class EdgeBasedGraph implements RoadGraph {
+    private final CsrGraph base;
+    private final int cityCount;
+    private final long[] turnKeys; // 排好序的（驶入边<<32 | 驶出边）
+    private final int[] turnCosts;
+    private final int uTurnCost; // 掉头代价，TurnRestriction.FORBIDDEN表示禁止掉头
+    private final ReverseEdgeBasedGraph reverse;
+
+    public EdgeBasedGraph(CsrGraph base, List<TurnRestriction> restrictions, int uTurnCost) {
+        this.base = base;
+        this.cityCount = base.getNodeCount();
+        this.uTurnCost = uTurnCost;
+
+        // 将城市三元组转换为边编号对
+        List<long[]> turns = new ArrayList<>();
+        for (TurnRestriction restriction : restrictions) {
+            int in = base.findEdge(restriction.getFromCity().getId(), restriction.getViaCity().getId());
+            int out = base.findEdge(restriction.getViaCity().getId(), restriction.getToCity().getId());
+            if (in >= 0 && out >= 0) {
+                turns.add(new long[]{turnKey(in, out), restriction.getCost()});
+            }
+        }
+        turns.sort((a, b) -> Long.compare(a[0], b[0]));
+        turnKeys = new long[turns.size()];
+        turnCosts = new int[turns.size()];
+        for (int i = 0; i < turns.size(); i++) {
+            turnKeys[i] = turns.get(i)[0];
+            turnCosts[i] = (int) turns.get(i)[1];
+        }
+        reverse = new ReverseEdgeBasedGraph();
+    }
+
+    private static long turnKey(int in, int out) {
+        return ((long) in << 32) | out;
+    }
+
+    /**
+     * 从驶入边in转向驶出边out的代价，FORBIDDEN表示禁止
+     */
+    private int turnCost(int in, int out, int inSource) {
+        int index = Arrays.binarySearch(turnKeys, turnKey(in, out));
+        if (index >= 0) {
+            return turnCosts[index];
+        }
+        if (base.getTarget(out) == inSource) {
+            return uTurnCost;
+        }
+        return 0;
+    }
+
+    /**
+     * 城市v的出发节点
+     */
+    public int sourceNode(int city) {
+        return city;
+    }
+
+    /**
+     * 城市v的到达节点
+     */
+    public int targetNode(int city) {
+        return cityCount + city;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return 2 * cityCount + base.getEdgeCount();
+    }
+
+    @Override
+    public void forEachEdge(int node, EdgeVisitor visitor) {
+        if (node < cityCount) {
+            // 出发节点：原地到达，或进入该城市的每条出边
+            visitor.visit(cityCount + node, 0);
+            for (int f = base.getFirstEdge(node); f < base.getEndEdge(node); f++) {
+                int weight = base.getWeight(f);
+                if (weight != EdgeUpdate.CLOSED) {
+                    visitor.visit(2 * cityCount + f, weight);
+                }
+            }
+            return;
+        }
+        if (node < 2 * cityCount) {
+            return; // 到达节点没有出边
+        }
+
+        int e = node - 2 * cityCount;
+        int via = base.getTarget(e);
+        int from = base.getSource(e);
+        visitor.visit(cityCount + via, 0);
+        for (int f = base.getFirstEdge(via); f < base.getEndEdge(via); f++) {
+            int weight = base.getWeight(f);
+            if (weight == EdgeUpdate.CLOSED) {
+                continue;
+            }
+            int cost = turnCost(e, f, from);
+            if (cost != TurnRestriction.FORBIDDEN) {
+                visitor.visit(2 * cityCount + f, weight + cost);
+            }
+        }
+    }
+
+    @Override
+    public RoadGraph getReverse() {
+        return reverse;
+    }
+
+    @Override
+    public int toCity(int node) {
+        if (node < cityCount) {
+            return node;
+        }
+        if (node < 2 * cityCount) {
+            return node - cityCount;
+        }
+        return base.getTarget(node - 2 * cityCount);
+    }
+
+    /**
+     * 反向扩展图：按入边遍历，用于双向搜索的后向部分
+     */
+    private class ReverseEdgeBasedGraph implements RoadGraph {
+
+        @Override
+        public int getNodeCount() {
+            return EdgeBasedGraph.this.getNodeCount();
+        }
+
+        @Override
+        public void forEachEdge(int node, EdgeVisitor visitor) {
+            if (node < cityCount) {
+                return; // 出发节点没有入边
+            }
+            if (node < 2 * cityCount) {
+                // 到达节点：来自每条驶入该城市的边（道路双向，驶入边是出边的反向边）
+                int city = node - cityCount;
+                visitor.visit(city, 0);
+                for (int f = base.getFirstEdge(city); f < base.getEndEdge(city); f++) {
+                    int in = base.findEdge(base.getTarget(f), city);
+                    if (in >= 0 && base.getWeight(in) != EdgeUpdate.CLOSED) {
+                        visitor.visit(2 * cityCount + in, 0);
+                    }
+                }
+                return;
+            }
+
+            int f = node - 2 * cityCount;
+            int weight = base.getWeight(f);
+            if (weight == EdgeUpdate.CLOSED) {
+                return;
+            }
+            int via = base.getSource(f);
+            visitor.visit(via, weight);
+            for (int out = base.getFirstEdge(via); out < base.getEndEdge(via); out++) {
+                int from = base.getTarget(out);
+                int e = base.findEdge(from, via);
+                if (e < 0 || base.getWeight(e) == EdgeUpdate.CLOSED) {
+                    continue;
+                }
+                int cost = turnCost(e, f, from);
+                if (cost != TurnRestriction.FORBIDDEN) {
+                    visitor.visit(2 * cityCount + e, weight + cost);
+                }
+            }
+        }
+
+        @Override
+        public RoadGraph getReverse() {
+            return EdgeBasedGraph.this;
+        }
+
+        @Override
+        public int toCity(int node) {
+            return EdgeBasedGraph.this.toCity(node);
+        }
+    }
+}
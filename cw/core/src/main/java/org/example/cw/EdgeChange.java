@@ -0,0 +1,49 @@
+package org.example.cw;
+
+/**
+ * 表示一条已经生效的边权变更，供路由索引做增量更新
+ */
+public class EdgeChange {
+    private final City cityA;
+    private final City cityB;
+    private final int oldDistance; // 变更前距离，EdgeUpdate.CLOSED表示原来没有道路
+    private final int newDistance; // 变更后距离，EdgeUpdate.CLOSED表示道路已封闭
+
+    public EdgeChange(City cityA, City cityB, int oldDistance, int newDistance) {
+        this.cityA = cityA;
+        this.cityB = cityB;
+        this.oldDistance = oldDistance;
+        this.newDistance = newDistance;
+    }
+
+    public City getCityA() {
+        return cityA;
+    }
+
+    public City getCityB() {
+        return cityB;
+    }
+
+    public int getOldDistance() {
+        return oldDistance;
+    }
+
+    public int getNewDistance() {
+        return newDistance;
+    }
+
+    /**
+     * 变更是否使边变短（包括新增道路），这类变更会使下界估计失效
+     */
+    public boolean isDecrease() {
+        if (newDistance == EdgeUpdate.CLOSED) {
+            return false;
+        }
+        return oldDistance == EdgeUpdate.CLOSED || newDistance < oldDistance;
+    }
+
+    @Override
+    public String toString() {
+        return cityA + " - " + cityB + ": " + oldDistance + " -> " + newDistance;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.cw;
+
+/**
+ * 表示一条待应用的道路变更：封路或设置新的距离
+ */
+public class EdgeUpdate {
+    public static final int CLOSED = -1; // 表示道路封闭（边不存在）
+
+    private final String cityA; // 道路端点A（城市全名）
+    private final String cityB; // 道路端点B（城市全名）
+    private final int distance; // 新距离，CLOSED表示封路
+
+    private EdgeUpdate(String cityA, String cityB, int distance) {
+        this.cityA = cityA;
+        this.cityB = cityB;
+        this.distance = distance;
+    }
+
+    /**
+     * 创建封路变更
+     */
+    public static EdgeUpdate close(String cityA, String cityB) {
+        return new EdgeUpdate(cityA, cityB, CLOSED);
+    }
+
+    /**
+     * 创建设置距离的变更（道路不存在时会新增）
+     */
+    public static EdgeUpdate setDistance(String cityA, String cityB, int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("道路距离不能为负数: " + distance);
+        }
+        return new EdgeUpdate(cityA, cityB, distance);
+    }
+
+    /**
+     * 解析一行变更记录，格式为 城市A,城市B,距离 ，距离为 closed 或 -1 表示封路
+     */
+    public static EdgeUpdate parse(String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("无效的道路变更记录: " + line);
+        }
+        String cityA = parts[0].trim();
+        String cityB = parts[1].trim();
+        String value = parts[2].trim();
+        if (value.equalsIgnoreCase("closed") || value.equals("-1")) {
+            return close(cityA, cityB);
+        }
+        return setDistance(cityA, cityB, Integer.parseInt(value));
+    }
+
+    public String getCityA() {
+        return cityA;
+    }
+
+    public String getCityB() {
+        return cityB;
+    }
+
+    public int getDistance() {
+        return distance;
+    }
+
+    public boolean isClosure() {
+        return distance == CLOSED;
+    }
+
+    @Override
+    public String toString() {
+        return cityA + " - " + cityB + ": " + (isClosure() ? "closed" : String.valueOf(distance));
+    }
+}
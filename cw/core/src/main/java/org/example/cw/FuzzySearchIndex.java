@@ -0,0 +1,96 @@
+package org.example.cw;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 名称子串搜索的三元组倒排索引，支持增量添加和删除
+ *
+ * 每个名称（小写后）的所有连续三字符片段都指向该名称。查询时取查询串中倒排表最短的
+ * 三元组作为候选集，再逐个确认是否包含查询串，避免扫描全部名称。
+ * 少于三个字符的查询没有三元组可用，退回到全量扫描。
+ */
+public class FuzzySearchIndex {
+    private final Map<String, String> lowerCaseNames = new HashMap<>(); // 名称到小写形式
+    private final Map<Long, Set<String>> postings = new HashMap<>(); // 三元组到包含它的名称
+
+    public FuzzySearchIndex() {
+    }
+
+    public FuzzySearchIndex(Collection<String> names) {
+        for (String name : names) {
+            add(name);
+        }
+    }
+
+    public void add(String name) {
+        String lowerCase = name.toLowerCase();
+        if (lowerCaseNames.putIfAbsent(name, lowerCase) != null) {
+            return;
+        }
+        for (int i = 0; i + 3 <= lowerCase.length(); i++) {
+            postings.computeIfAbsent(trigram(lowerCase, i), key -> new HashSet<>()).add(name);
+        }
+    }
+
+    public void remove(String name) {
+        String lowerCase = lowerCaseNames.remove(name);
+        if (lowerCase == null) {
+            return;
+        }
+        for (int i = 0; i + 3 <= lowerCase.length(); i++) {
+            long key = trigram(lowerCase, i);
+            Set<String> names = postings.get(key);
+            if (names != null) {
+                names.remove(name);
+                if (names.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return lowerCaseNames.size();
+    }
+
+    /**
+     * 查找包含输入（不区分大小写）的所有名称，输入为空时返回全部名称
+     */
+    public List<String> search(String input) {
+        if (input == null || input.trim().isEmpty()) {
+            return new ArrayList<>(lowerCaseNames.keySet());
+        }
+        String query = input.trim().toLowerCase();
+
+        Collection<String> candidates = lowerCaseNames.keySet();
+        if (query.length() >= 3) {
+            for (int i = 0; i + 3 <= query.length(); i++) {
+                Set<String> names = postings.get(trigram(query, i));
+                if (names == null) {
+                    return new ArrayList<>(); // 某个三元组没有出现过，不可能匹配
+                }
+                if (names.size() < candidates.size()) {
+                    candidates = names;
+                }
+            }
+        }
+
+        List<String> matches = new ArrayList<>();
+        for (String name : candidates) {
+            if (lowerCaseNames.get(name).contains(query)) {
+                matches.add(name);
+            }
+        }
+        return matches;
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
@@ -0,0 +1,230 @@
+package org.example.cw;
+
+import java.util.Arrays;
+
+/**
+ * 为提高缓存局部性而重新排列城市编号
+ *
+ * 城市编号默认按加载时首次出现的顺序分配，相邻城市在数组中往往相距很远，
+ * 搜索扩展一个城市时读取邻居的距离、堆位置等数组会产生大量缓存未命中。
+ * 重排后地理上或图上相近的城市编号也相近：
+ * - HILBERT：按坐标在希尔伯特曲线上的位置排序（需要所有城市都有坐标，否则退回RCM）
+ * - BFS：按广度优先遍历的顺序编号
+ * - RCM：反向Cuthill–McKee，广度优先遍历时按度数从小到大访问邻居，最后整体反转，使邻接矩阵带宽较小
+ * 计算结果是newToOld排列（newToOld[新编号] = 旧编号），由RoadNetwork.renumberCities应用。
+ */
+public class GraphReordering {
+    private static final int HILBERT_ORDER = 15; // 每个坐标轴2^15个格子，曲线位置小于2^30
+
+    /**
+     * 重排策略
+     */
+    public enum Strategy {
+        HILBERT,
+        BFS,
+        RCM
+    }
+
+    private GraphReordering() {
+    }
+
+    /**
+     * 计算路网的重排顺序
+     */
+    public static int[] computeOrder(RoadNetwork roadNetwork, Strategy strategy) {
+        if (strategy == Strategy.HILBERT) {
+            int[] order = hilbertOrder(roadNetwork);
+            if (order != null) {
+                return order;
+            }
+            strategy = Strategy.RCM;
+        }
+        CsrGraph graph = roadNetwork.getRoadGraph();
+        return strategy == Strategy.BFS ? bfsOrder(graph) : reverseCuthillMcKee(graph);
+    }
+
+    /**
+     * 按希尔伯特曲线排序，有城市缺少坐标时返回null
+     */
+    static int[] hilbertOrder(RoadNetwork roadNetwork) {
+        int n = roadNetwork.getCityCount();
+        double minLatitude = Double.POSITIVE_INFINITY;
+        double maxLatitude = Double.NEGATIVE_INFINITY;
+        double minLongitude = Double.POSITIVE_INFINITY;
+        double maxLongitude = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < n; v++) {
+            City city = roadNetwork.getCityById(v);
+            if (!city.hasCoordinates()) {
+                return null;
+            }
+            minLatitude = Math.min(minLatitude, city.getLatitude());
+            maxLatitude = Math.max(maxLatitude, city.getLatitude());
+            minLongitude = Math.min(minLongitude, city.getLongitude());
+            maxLongitude = Math.max(maxLongitude, city.getLongitude());
+        }
+
+        int cells = 1 << HILBERT_ORDER;
+        double latitudeScale = (cells - 1) / Math.max(maxLatitude - minLatitude, 1e-12);
+        double longitudeScale = (cells - 1) / Math.max(maxLongitude - minLongitude, 1e-12);
+        // 曲线位置放在高32位、城市编号放在低32位，排序后即得到顺序
+        long[] keys = new long[n];
+        for (int v = 0; v < n; v++) {
+            City city = roadNetwork.getCityById(v);
+            int x = (int) ((city.getLongitude() - minLongitude) * longitudeScale);
+            int y = (int) ((city.getLatitude() - minLatitude) * latitudeScale);
+            keys[v] = ((long) hilbertIndex(x, y) << 32) | v;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * 格子(x, y)在希尔伯特曲线上的位置
+     */
+    static int hilbertIndex(int x, int y) {
+        int index = 0;
+        for (int s = 1 << (HILBERT_ORDER - 1); s > 0; s >>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            index += s * s * ((3 * rx) ^ ry);
+            // 旋转象限
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int swap = x;
+                x = y;
+                y = swap;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 广度优先顺序，每个连通分量从编号最小的城市开始
+     */
+    static int[] bfsOrder(CsrGraph graph) {
+        int n = graph.getNodeCount();
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int head = 0;
+        int tail = 0;
+        for (int start = 0; start < n; start++) {
+            if (visited[start]) {
+                continue;
+            }
+            visited[start] = true;
+            order[tail++] = start;
+            while (head < tail) {
+                int v = order[head++];
+                for (int e = graph.getFirstEdge(v); e < graph.getEndEdge(v); e++) {
+                    int w = graph.getTarget(e);
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        order[tail++] = w;
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * 反向Cuthill–McKee顺序，每个连通分量从伪外围点（度数小、离其他点远的城市）开始
+     */
+    static int[] reverseCuthillMcKee(CsrGraph graph) {
+        int n = graph.getNodeCount();
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int[] level = new int[n];
+        long[] neighbors = new long[0];
+        int tail = 0;
+        for (int seed = 0; seed < n; seed++) {
+            if (visited[seed]) {
+                continue;
+            }
+            int start = pseudoPeripheralNode(graph, seed, level);
+            int head = tail;
+            visited[start] = true;
+            order[tail++] = start;
+            while (head < tail) {
+                int v = order[head++];
+                // 未访问的邻居按度数从小到大加入队列（度数在高32位，编号在低32位）
+                int count = 0;
+                for (int e = graph.getFirstEdge(v); e < graph.getEndEdge(v); e++) {
+                    int w = graph.getTarget(e);
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        if (count == neighbors.length) {
+                            neighbors = Arrays.copyOf(neighbors, Math.max(8, count * 2));
+                        }
+                        neighbors[count++] = ((long) degree(graph, w) << 32) | w;
+                    }
+                }
+                Arrays.sort(neighbors, 0, count);
+                for (int i = 0; i < count; i++) {
+                    order[tail++] = (int) neighbors[i];
+                }
+            }
+        }
+        // 整体反转
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    private static int degree(CsrGraph graph, int v) {
+        return graph.getEndEdge(v) - graph.getFirstEdge(v);
+    }
+
+    /**
+     * 从seed开始反复做广度优先搜索，取最后一层中度数最小的城市，直到层数不再增加
+     * level数组作为临时空间使用，调用后恢复为0
+     */
+    private static int pseudoPeripheralNode(CsrGraph graph, int seed, int[] level) {
+        int current = seed;
+        int depth = -1;
+        int[] queue = new int[16];
+        while (true) {
+            // 层号从1开始，0表示未访问
+            int tail = 0;
+            queue[tail++] = current;
+            level[current] = 1;
+            int maxLevel = 1;
+            int candidate = current;
+            for (int head = 0; head < tail; head++) {
+                int v = queue[head];
+                if (level[v] > maxLevel || (level[v] == maxLevel && degree(graph, v) < degree(graph, candidate))) {
+                    maxLevel = level[v];
+                    candidate = v;
+                }
+                for (int e = graph.getFirstEdge(v); e < graph.getEndEdge(v); e++) {
+                    int w = graph.getTarget(e);
+                    if (level[w] == 0) {
+                        level[w] = level[v] + 1;
+                        if (tail == queue.length) {
+                            queue = Arrays.copyOf(queue, tail * 2);
+                        }
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            for (int i = 0; i < tail; i++) {
+                level[queue[i]] = 0;
+            }
+            if (maxLevel <= depth) {
+                return current;
+            }
+            depth = maxLevel;
+            current = candidate;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package org.example.cw;
+
+import java.util.Arrays;
+
+/**
+ * 基于RoadGraph接口的最短路径引擎：Dijkstra、A*和双向Dijkstra
+ *
+ * 距离和前驱数组在多次查询之间复用，每次查询只重置上一次访问过的节点，
+ * 因此一个实例不能被多个线程同时使用。
+ */
+public class GraphSearch {
+    public static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * A*启发式函数：节点到目标的距离下界
+     */
+    @FunctionalInterface
+    public interface Heuristic {
+        int estimate(int node);
+    }
+
+    private final RoadGraph graph;
+    private final int[] distance;
+    private final int[] parent;
+    private final IntMinHeap heap;
+    private int[] touched = new int[64]; // 本次查询修改过的节点
+    private int touchedCount;
+
+    // 双向搜索的后向部分，首次使用时分配
+    private int[] distanceBackward;
+    private int[] parentBackward;
+    private IntMinHeap heapBackward;
+
+    private int settledCount; // 上一次查询出队的节点数
+    private final Relaxer relaxer = new Relaxer();
+
+    public GraphSearch(RoadGraph graph) {
+        this.graph = graph;
+        int n = graph.getNodeCount();
+        distance = new int[n];
+        parent = new int[n];
+        heap = new IntMinHeap(n);
+        Arrays.fill(distance, INFINITY);
+        Arrays.fill(parent, -1);
+    }
+
+    public RoadGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Dijkstra算法，寻找source到target的最短路径
+     */
+    public SearchResult dijkstra(int source, int target) {
+        return astar(source, target, null);
+    }
+
+    /**
+     * A*算法，heuristic为null时等同于Dijkstra
+     */
+    public SearchResult astar(int source, int target, Heuristic heuristic) {
+        reset();
+        settledCount = 0;
+        visit(source, 0, -1);
+        heap.insertOrDecrease(source, estimate(heuristic, source));
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settledCount++;
+            if (current == target) {
+                break;
+            }
+
+            relaxer.prepare(current, true, heuristic);
+            graph.forEachEdge(current, relaxer);
+        }
+        heap.clear();
+
+        return buildResult(target, distance[target], target, null);
+    }
+
+    /**
+     * 从source出发扩展整个图，返回完整的最短路径树（距离和前驱数组是新分配的副本）
+     */
+    public ShortestPathTree shortestPathTree(int source) {
+        return shortestPathTree(source, INFINITY);
+    }
+
+    /**
+     * 从source出发只扩展到距离maxDistance为止，更远的节点在返回的树中视为不可达
+     */
+    public ShortestPathTree shortestPathTree(int source, int maxDistance) {
+        reset();
+        settledCount = 0;
+        visit(source, 0, -1);
+        heap.insertOrDecrease(source, 0);
+
+        while (!heap.isEmpty() && heap.peekKey() <= maxDistance) {
+            int current = heap.poll();
+            settledCount++;
+            relaxer.prepare(current, true, null);
+            graph.forEachEdge(current, relaxer);
+        }
+        heap.clear();
+
+        int[] treeDistance = distance.clone();
+        int[] treeParent = parent.clone();
+        // 队列中剩下的节点距离超过maxDistance，只是暂定值
+        for (int i = 0; i < touchedCount; i++) {
+            int node = touched[i];
+            if (treeDistance[node] > maxDistance) {
+                treeDistance[node] = INFINITY;
+                treeParent[node] = -1;
+            }
+        }
+        return new ShortestPathTree(source, treeDistance, treeParent);
+    }
+
+    /**
+     * 从source出发只扩展到距离maxDistance为止，按出队顺序（距离从近到远）返回到达的节点，
+     * 只分配与到达节点数成正比的空间，不复制整个距离数组
+     */
+    public Reach reachWithin(int source, int maxDistance) {
+        reset();
+        settledCount = 0;
+        visit(source, 0, -1);
+        heap.insertOrDecrease(source, 0);
+
+        int[] nodes = new int[16];
+        int[] distances = new int[16];
+        while (!heap.isEmpty() && heap.peekKey() <= maxDistance) {
+            int current = heap.poll();
+            if (settledCount == nodes.length) {
+                nodes = Arrays.copyOf(nodes, settledCount * 2);
+                distances = Arrays.copyOf(distances, settledCount * 2);
+            }
+            nodes[settledCount] = current;
+            distances[settledCount] = distance[current];
+            settledCount++;
+            relaxer.prepare(current, true, null);
+            graph.forEachEdge(current, relaxer);
+        }
+        heap.clear();
+        return new Reach(Arrays.copyOf(nodes, settledCount), Arrays.copyOf(distances, settledCount));
+    }
+
+    /**
+     * 双向Dijkstra：前向在原图、后向在反向图上交替扩展，
+     * 两侧队首距离之和不小于已知最优值时停止
+     */
+    public SearchResult bidirectional(int source, int target) {
+        if (distanceBackward == null) {
+            int n = graph.getNodeCount();
+            distanceBackward = new int[n];
+            parentBackward = new int[n];
+            heapBackward = new IntMinHeap(n);
+            Arrays.fill(distanceBackward, INFINITY);
+            Arrays.fill(parentBackward, -1);
+        }
+        reset();
+        settledCount = 0;
+        RoadGraph reverse = graph.getReverse();
+
+        visit(source, 0, -1);
+        visitBackward(target, 0, -1);
+        heap.insertOrDecrease(source, 0);
+        heapBackward.insertOrDecrease(target, 0);
+
+        relaxer.bestDistance = source == target ? 0 : INFINITY;
+        relaxer.meeting = source == target ? source : -1;
+
+        while (!heap.isEmpty() && !heapBackward.isEmpty()) {
+            long topSum = (long) heap.peekKey() + heapBackward.peekKey();
+            if (topSum >= relaxer.bestDistance) {
+                break;
+            }
+
+            boolean forward = heap.peekKey() <= heapBackward.peekKey();
+            int current = (forward ? heap : heapBackward).poll();
+            settledCount++;
+            relaxer.prepare(current, forward, null);
+            relaxer.bidirectional = true;
+            (forward ? graph : reverse).forEachEdge(current, relaxer);
+        }
+        relaxer.bidirectional = false;
+        heap.clear();
+        heapBackward.clear();
+
+        return buildResult(target, relaxer.bestDistance, relaxer.meeting, parentBackward);
+    }
+
+    private int estimate(Heuristic heuristic, int node) {
+        return heuristic == null ? 0 : heuristic.estimate(node);
+    }
+
+    private void visit(int node, int newDistance, int previous) {
+        if (distance[node] == INFINITY && parentBackwardUnset(node)) {
+            track(node);
+        }
+        distance[node] = newDistance;
+        parent[node] = previous;
+    }
+
+    private void visitBackward(int node, int newDistance, int previous) {
+        if (distanceBackward[node] == INFINITY && distance[node] == INFINITY) {
+            track(node);
+        }
+        distanceBackward[node] = newDistance;
+        parentBackward[node] = previous;
+    }
+
+    private boolean parentBackwardUnset(int node) {
+        return distanceBackward == null || distanceBackward[node] == INFINITY;
+    }
+
+    private void track(int node) {
+        if (touchedCount == touched.length) {
+            touched = Arrays.copyOf(touched, touchedCount * 2);
+        }
+        touched[touchedCount++] = node;
+    }
+
+    /**
+     * 只重置上一次查询访问过的节点
+     */
+    private void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            int node = touched[i];
+            distance[node] = INFINITY;
+            parent[node] = -1;
+            if (distanceBackward != null) {
+                distanceBackward[node] = INFINITY;
+                parentBackward[node] = -1;
+            }
+        }
+        touchedCount = 0;
+    }
+
+    /**
+     * 从相遇节点向两端回溯构建路径
+     */
+    private SearchResult buildResult(int target, int totalDistance, int meeting, int[] backwardParents) {
+        if (totalDistance == INFINITY || meeting < 0) {
+            return new SearchResult(INFINITY, new int[0], settledCount);
+        }
+
+        int length = 0;
+        for (int v = meeting; v != -1; v = parent[v]) {
+            length++;
+        }
+        if (backwardParents != null) {
+            for (int v = backwardParents[meeting]; v != -1; v = backwardParents[v]) {
+                length++;
+            }
+        }
+
+        int[] path = new int[length];
+        int index = 0;
+        for (int v = meeting; v != -1; v = parent[v]) {
+            path[index++] = v;
+        }
+        // 前向部分是倒序的
+        for (int i = 0, j = index - 1; i < j; i++, j--) {
+            int temp = path[i];
+            path[i] = path[j];
+            path[j] = temp;
+        }
+        if (backwardParents != null) {
+            for (int v = backwardParents[meeting]; v != -1; v = backwardParents[v]) {
+                path[index++] = v;
+            }
+        }
+        return new SearchResult(totalDistance, path, settledCount);
+    }
+
+    /**
+     * 松弛一个节点的所有出边，作为字段复用以免每次扩展都分配lambda
+     */
+    private class Relaxer implements RoadGraph.EdgeVisitor {
+        private int current;
+        private int base;
+        private boolean forward;
+        private Heuristic heuristic;
+        private boolean bidirectional;
+        private int bestDistance; // 双向搜索中已知的最优距离
+        private int meeting; // 对应的相遇节点
+
+        void prepare(int current, boolean forward, Heuristic heuristic) {
+            this.current = current;
+            this.forward = forward;
+            this.heuristic = heuristic;
+            this.base = forward ? distance[current] : distanceBackward[current];
+        }
+
+        @Override
+        public void visit(int next, int weight) {
+            int newDistance = base + weight;
+            int[] own = forward ? distance : distanceBackward;
+            if (newDistance < own[next]) {
+                if (forward) {
+                    GraphSearch.this.visit(next, newDistance, current);
+                    heap.insertOrDecrease(next, newDistance + estimate(heuristic, next));
+                } else {
+                    visitBackward(next, newDistance, current);
+                    heapBackward.insertOrDecrease(next, newDistance);
+                }
+            }
+            if (bidirectional) {
+                int[] other = forward ? distanceBackward : distance;
+                if (other[next] != INFINITY && (long) own[next] + other[next] < bestDistance) {
+                    bestDistance = own[next] + other[next];
+                    meeting = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * reachWithin的结果：到达的节点及其最短距离，按距离从近到远排列
+     */
+    public static class Reach {
+        private final int[] nodes;
+        private final int[] distances;
+
+        public Reach(int[] nodes, int[] distances) {
+            this.nodes = nodes;
+            this.distances = distances;
+        }
+
+        public int size() {
+            return nodes.length;
+        }
+
+        public int getNode(int index) {
+            return nodes[index];
+        }
+
+        public int getDistance(int index) {
+            return distances[index];
+        }
+    }
+
+    /**
+     * 单次查询结果：最短距离、节点路径和出队节点数
+     */
+    public static class SearchResult {
+        private final int distance;
+        private final int[] path;
+        private final int settledCount;
+
+        public SearchResult(int distance, int[] path, int settledCount) {
+            this.distance = distance;
+            this.path = path;
+            this.settledCount = settledCount;
+        }
+
+        public boolean isFound() {
+            return distance != INFINITY;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+
+        public int[] getPath() {
+            return path;
+        }
+
+        public int getSettledCount() {
+            return settledCount;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.cw;
+
+/**
+ * 从外部格式（DIMACS、OSM）导入的路网：CSR图、按编号排列的城市全名和可选的坐标
+ */
+public class ImportedGraph {
+    private final CsrRoadGraph graph;
+    private final String[] cityNames;
+    private final double[] latitudes; // 没有坐标时为null，单个城市缺少坐标时为NaN
+    private final double[] longitudes;
+
+    public ImportedGraph(CsrRoadGraph graph, String[] cityNames, double[] latitudes, double[] longitudes) {
+        this.graph = graph;
+        this.cityNames = cityNames;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+    }
+
+    public CsrRoadGraph getGraph() {
+        return graph;
+    }
+
+    public String[] getCityNames() {
+        return cityNames;
+    }
+
+    public boolean hasCoordinates() {
+        return latitudes != null;
+    }
+
+    public double getLatitude(int city) {
+        return latitudes[city];
+    }
+
+    public double getLongitude(int city) {
+        return longitudes[city];
+    }
+
+    /**
+     * 按编号排列的纬度数组（不复制），没有坐标时为null
+     */
+    double[] getLatitudes() {
+        return latitudes;
+    }
+
+    double[] getLongitudes() {
+        return longitudes;
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.cw;
+
+import java.util.Arrays;
+
+/**
+ * 以城市编号为元素、int为键的索引二叉最小堆
+ * 支持decrease-key，避免搜索过程中装箱和重复入队
+ */
+public class IntMinHeap {
+    private int[] heap; // 堆中的元素
+    private int[] keys; // 元素对应的键
+    private int[] positions; // 元素在堆中的位置，-1表示不在堆中
+    private int size;
+
+    public IntMinHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int element) {
+        return element < positions.length && positions[element] >= 0;
+    }
+
+    /**
+     * 获取堆顶元素的键
+     */
+    public int peekKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * 插入元素，若已在堆中且新键更小则降低其键
+     */
+    public void insertOrDecrease(int element, int key) {
+        if (element >= positions.length) {
+            grow(element + 1);
+        }
+        int position = positions[element];
+        if (position < 0) {
+            heap[size] = element;
+            positions[element] = size;
+            keys[element] = key;
+            siftUp(size++);
+        } else if (key < keys[element]) {
+            keys[element] = key;
+            siftUp(position);
+        }
+    }
+
+    /**
+     * 弹出键最小的元素
+     */
+    public int poll() {
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * 清空堆以便复用
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * 扩容以容纳更大的元素编号（标号搜索中元素数量事先未知）
+     */
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, positions.length * 2);
+        int oldLength = positions.length;
+        heap = Arrays.copyOf(heap, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        Arrays.fill(positions, oldLength, capacity, -1);
+    }
+
+    private void siftUp(int position) {
+        int element = heap[position];
+        int key = keys[element];
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = heap[parentPosition];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = element;
+        positions[element] = position;
+    }
+
+    private void siftDown(int position) {
+        int element = heap[position];
+        int key = keys[element];
+        int half = size >>> 1;
+        while (position < half) {
+            int childPosition = 2 * position + 1;
+            int child = heap[childPosition];
+            int rightPosition = childPosition + 1;
+            if (rightPosition < size && keys[heap[rightPosition]] < keys[child]) {
+                childPosition = rightPosition;
+                child = heap[childPosition];
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            heap[position] = child;
+            positions[child] = position;
+            position = childPosition;
+        }
+        heap[position] = element;
+        positions[element] = position;
+    }
+}
@@ -0,0 +1,259 @@
+package org.example.cw;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 地标（ALT）路由索引：预先计算少量地标到所有城市的距离，
+ * 利用三角不等式为A*算法提供下界估计。
+ *
+ * 边权变更时做增量维护：
+ * - 变短（含新增道路）：从受影响端点出发做局部松弛，只更新距离确实变小的城市
+ * - 变长（含封路）：旧距离仍是合法下界，仅记录陈旧程度，超过阈值时只重算该地标
+ * 因此存储的距离始终是某个"边权不大于当前路网"的图上的精确距离，下界保持可采纳。
+ */
+public class LandmarkIndex implements RoadNetworkListener {
+    public static final int DEFAULT_LANDMARK_COUNT = 8;
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int STALE_THRESHOLD = 32; // 地标累计多少条变长的树边后重算
+
+    private final RoadNetwork roadNetwork;
+    private int[] landmarks; // 地标城市编号
+    private int[][] distances; // distances[k][v]：第k个地标到城市v的距离
+    private int[] staleEdges; // 每个地标累计的变长树边数量
+    private int refreshCount; // 单个地标重算的次数（统计用）
+
+    public LandmarkIndex(RoadNetwork roadNetwork) {
+        this(roadNetwork, DEFAULT_LANDMARK_COUNT);
+    }
+
+    public LandmarkIndex(RoadNetwork roadNetwork, int landmarkCount) {
+        this.roadNetwork = roadNetwork;
+        build(landmarkCount);
+    }
+
+    /**
+     * 城市重新编号后，按新编号重排距离表，地标本身不变
+     */
+    @Override
+    public void onCitiesRenumbered(int[] newToOld) {
+        int[] oldToNew = new int[newToOld.length];
+        for (int v = 0; v < newToOld.length; v++) {
+            oldToNew[newToOld[v]] = v;
+        }
+        for (int k = 0; k < landmarks.length; k++) {
+            landmarks[k] = oldToNew[landmarks[k]];
+            int[] old = distances[k];
+            int[] distance = new int[newToOld.length];
+            for (int v = 0; v < newToOld.length; v++) {
+                distance[v] = newToOld[v] < old.length ? old[newToOld[v]] : INFINITY;
+            }
+            distances[k] = distance;
+        }
+    }
+
+    /**
+     * 使用"最远点"策略选择地标并计算距离表
+     */
+    private void build(int landmarkCount) {
+        int n = roadNetwork.getCityCount();
+        int count = Math.min(landmarkCount, n);
+        landmarks = new int[count];
+        distances = new int[count][];
+        staleEdges = new int[count];
+
+        if (count == 0) {
+            return;
+        }
+
+        // 第一个地标取离0号城市最远的城市
+        int[] fromFirst = computeDistances(0);
+        landmarks[0] = farthest(fromFirst, null);
+        distances[0] = computeDistances(landmarks[0]);
+
+        // 之后每次选择离已有地标最远的城市
+        int[] minDistance = distances[0].clone();
+        for (int k = 1; k < count; k++) {
+            landmarks[k] = farthest(minDistance, landmarks);
+            distances[k] = computeDistances(landmarks[k]);
+            for (int v = 0; v < n; v++) {
+                minDistance[v] = Math.min(minDistance[v], distances[k][v]);
+            }
+        }
+    }
+
+    /**
+     * 找到距离最大的可达城市（排除已选地标）
+     */
+    private int farthest(int[] distance, int[] excluded) {
+        int best = 0;
+        int bestDistance = -1;
+        for (int v = 0; v < distance.length; v++) {
+            if (distance[v] == INFINITY || distance[v] <= bestDistance) {
+                continue;
+            }
+            if (excluded != null && contains(excluded, v)) {
+                continue;
+            }
+            best = v;
+            bestDistance = distance[v];
+        }
+        return best;
+    }
+
+    private boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从指定城市出发运行完整的Dijkstra
+     */
+    private int[] computeDistances(int source) {
+        int[] distance = new int[roadNetwork.getCityCount()];
+        Arrays.fill(distance, INFINITY);
+        distance[source] = 0;
+
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        queue.add(new long[]{0, source});
+        propagate(distance, queue);
+        return distance;
+    }
+
+    /**
+     * 从队列中的城市开始松弛，只接受严格更短的距离
+     */
+    private void propagate(int[] distance, PriorityQueue<long[]> queue) {
+        CsrGraph graph = roadNetwork.getRoadGraph();
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int current = (int) entry[1];
+            if (entry[0] > distance[current]) {
+                continue; // 过期条目
+            }
+
+            if (current >= graph.getNodeCount()) {
+                continue; // 图构建之后新增、没有道路的城市
+            }
+            // 遍历CSR图而不是城市的邻接表，堆外加载的路网城市没有邻接表
+            graph.forEachEdge(current, (neighbor, weight) -> {
+                int newDistance = distance[current] + weight;
+                if (newDistance < distance[neighbor]) {
+                    distance[neighbor] = newDistance;
+                    queue.add(new long[]{newDistance, neighbor});
+                }
+            });
+        }
+    }
+
+    /**
+     * 计算从from到to的距离下界
+     */
+    public int lowerBound(City from, City to) {
+        return lowerBound(from.getId(), to.getId());
+    }
+
+    /**
+     * 按城市编号计算距离下界
+     */
+    public int lowerBound(int v, int t) {
+        if (distances.length == 0 || v >= distances[0].length || t >= distances[0].length) {
+            return 0; // 索引建立后新增的城市，尚未有任何道路
+        }
+        int best = 0;
+        for (int[] distance : distances) {
+            int dv = distance[v];
+            int dt = distance[t];
+            if (dv == INFINITY || dt == INFINITY) {
+                continue;
+            }
+            int bound = Math.abs(dt - dv);
+            if (bound > best) {
+                best = bound;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void onEdgesChanged(List<EdgeChange> changes) {
+        int n = roadNetwork.getCityCount();
+        for (int k = 0; k < landmarks.length; k++) {
+            if (distances[k].length < n) {
+                // 增量导入新增了城市：新城市先视为不可达，再由新道路松弛
+                int oldLength = distances[k].length;
+                distances[k] = Arrays.copyOf(distances[k], n);
+                Arrays.fill(distances[k], oldLength, n, INFINITY);
+            }
+            int[] distance = distances[k];
+            PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+
+            for (EdgeChange change : changes) {
+                int a = change.getCityA().getId();
+                int b = change.getCityB().getId();
+
+                if (change.isDecrease()) {
+                    // 边变短：端点的距离可能变小，作为局部松弛的种子
+                    int weight = change.getNewDistance();
+                    seed(distance, queue, a, b, weight);
+                    seed(distance, queue, b, a, weight);
+                } else if (isTreeEdge(distance, a, b, change.getOldDistance())) {
+                    // 边变长且位于最短路径树上：下界仍合法，但会变松
+                    staleEdges[k]++;
+                }
+            }
+
+            if (staleEdges[k] > STALE_THRESHOLD) {
+                refreshLandmark(k);
+            } else if (!queue.isEmpty()) {
+                propagate(distance, queue);
+            }
+        }
+    }
+
+    private void seed(int[] distance, PriorityQueue<long[]> queue, int from, int to, int weight) {
+        if (distance[from] == INFINITY) {
+            return;
+        }
+        int newDistance = distance[from] + weight;
+        if (newDistance < distance[to]) {
+            distance[to] = newDistance;
+            queue.add(new long[]{newDistance, to});
+        }
+    }
+
+    private boolean isTreeEdge(int[] distance, int a, int b, int weight) {
+        if (weight == EdgeUpdate.CLOSED || distance[a] == INFINITY || distance[b] == INFINITY) {
+            return false;
+        }
+        return distance[a] + weight == distance[b] || distance[b] + weight == distance[a];
+    }
+
+    /**
+     * 重新计算单个地标的距离表
+     */
+    private void refreshLandmark(int k) {
+        distances[k] = computeDistances(landmarks[k]);
+        staleEdges[k] = 0;
+        refreshCount++;
+    }
+
+    /**
+     * 获取地标数量
+     */
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * 获取单个地标重算的累计次数
+     */
+    public int getRefreshCount() {
+        return refreshCount;
+    }
+}
@@ -0,0 +1,257 @@
+package org.example.cw;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 内存映射的二进制路网图，打开时不做任何解析
+ *
+ * 文件由CSV编译一次生成，之后通过FileChannel.map直接映射，加载是O(1)的，
+ * 路由直接在映射缓冲区上进行。文件布局（大端序，各段按4字节对齐）：
+ * - 文件头（32字节）：魔数、格式版本、城市数n、有向边数m、字符串表字节数
+ * - CSR段：offsets[n+1]、targets[m]、weights[m]，含义与CsrRoadGraph相同
+ * - 字符串表段：nameOffsets[n+1]、按名称字节序排列的城市编号sortedIds[n]、UTF-8名称数据
+ * 按名称查找城市时在sortedIds上二分查找，不需要在内存中建立散列表。
+ */
+public class MappedRoadGraph implements RoadGraph {
+    public static final int MAGIC = 0x43575247; // "CWRG"
+    public static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private final int nodeCount;
+    private final int edgeCount;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+    private final IntBuffer nameOffsets;
+    private final IntBuffer sortedIds;
+    private final ByteBuffer names;
+
+    private MappedRoadGraph(MappedByteBuffer buffer, int nodeCount, int edgeCount, int nameBytes) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        int position = HEADER_SIZE;
+        offsets = intSection(buffer, position, nodeCount + 1);
+        position += (nodeCount + 1) * 4;
+        targets = intSection(buffer, position, edgeCount);
+        position += edgeCount * 4;
+        weights = intSection(buffer, position, edgeCount);
+        position += edgeCount * 4;
+        nameOffsets = intSection(buffer, position, nodeCount + 1);
+        position += (nodeCount + 1) * 4;
+        sortedIds = intSection(buffer, position, nodeCount);
+        position += nodeCount * 4;
+        names = buffer.duplicate().position(position).limit(position + nameBytes).slice();
+    }
+
+    private static IntBuffer intSection(ByteBuffer buffer, int position, int count) {
+        return buffer.duplicate().position(position).limit(position + count * 4).slice().asIntBuffer();
+    }
+
+    /**
+     * 映射已编译的二进制图文件
+     */
+    public static MappedRoadGraph open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("二进制图文件过短: " + file);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("二进制图文件超过2GB: " + file);
+            }
+            // 映射在通道关闭后仍然有效
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("不是二进制图文件: " + file);
+            }
+            if (buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("不支持的二进制图格式版本: " + buffer.getInt(4));
+            }
+            int nodeCount = buffer.getInt(8);
+            int edgeCount = buffer.getInt(12);
+            long nameBytes = buffer.getLong(16);
+            long expected = HEADER_SIZE + 4L * (3L * nodeCount + 2 + 2L * edgeCount) + nameBytes;
+            if (expected != size) {
+                throw new IOException("二进制图文件长度不符: " + size + "，应为 " + expected);
+            }
+            return new MappedRoadGraph(buffer, nodeCount, edgeCount, (int) nameBytes);
+        }
+    }
+
+    /**
+     * 把道路网络编译为二进制图文件
+     */
+    public static void write(RoadNetwork roadNetwork, Path file) throws IOException {
+        CsrGraph graph = roadNetwork.getRoadGraph();
+        int n = graph.getNodeCount();
+        int m = graph.getEdgeCount();
+
+        byte[][] nameData = new byte[n][];
+        long nameBytes = 0;
+        for (int v = 0; v < n; v++) {
+            nameData[v] = roadNetwork.getCityById(v).getFullName().getBytes(StandardCharsets.UTF_8);
+            nameBytes += nameData[v].length;
+        }
+        if (nameBytes > Integer.MAX_VALUE) {
+            throw new IOException("城市名称总长度超过2GB");
+        }
+        Integer[] order = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(nameData[a], nameData[b]));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(n);
+            out.writeInt(m);
+            out.writeLong(nameBytes);
+            out.writeLong(0); // 保留
+
+            for (int v = 0; v < n; v++) {
+                out.writeInt(graph.getFirstEdge(v));
+            }
+            out.writeInt(m);
+            for (int e = 0; e < m; e++) {
+                out.writeInt(graph.getTarget(e));
+            }
+            for (int e = 0; e < m; e++) {
+                out.writeInt(graph.getWeight(e));
+            }
+
+            int nameOffset = 0;
+            for (int v = 0; v < n; v++) {
+                out.writeInt(nameOffset);
+                nameOffset += nameData[v].length;
+            }
+            out.writeInt(nameOffset);
+            for (int v = 0; v < n; v++) {
+                out.writeInt(order[v]);
+            }
+            for (int v = 0; v < n; v++) {
+                out.write(nameData[v]);
+            }
+        }
+    }
+
+    /**
+     * 从道路CSV文件编译二进制图：参数为 道路CSV路径 输出文件路径
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: MappedRoadGraph <roads.csv> <输出文件>");
+            return;
+        }
+        RoadNetwork roadNetwork = new RoadNetwork();
+        roadNetwork.loadRoadsFile(Path.of(args[0]));
+        write(roadNetwork, Path.of(args[1]));
+        System.out.println("已编译 " + roadNetwork.getCityCount() + " 个城市到 " + args[1]);
+    }
+
+    @Override
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public void forEachEdge(int node, EdgeVisitor visitor) {
+        int end = offsets.get(node + 1);
+        for (int e = offsets.get(node); e < end; e++) {
+            int weight = weights.get(e);
+            if (weight != EdgeUpdate.CLOSED) {
+                visitor.visit(targets.get(e), weight);
+            }
+        }
+    }
+
+    @Override
+    public RoadGraph getReverse() {
+        return this;
+    }
+
+    @Override
+    public int toCity(int node) {
+        return node;
+    }
+
+    /**
+     * 获取边的总数（每条双向道路计两次）
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * 获取城市全名
+     */
+    public String getCityName(int city) {
+        int start = nameOffsets.get(city);
+        int length = nameOffsets.get(city + 1) - start;
+        byte[] bytes = new byte[length];
+        names.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 按全名查找城市编号，不存在时返回-1
+     */
+    public int findCity(String fullName) {
+        byte[] key = fullName.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = nodeCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int city = sortedIds.get(middle);
+            int comparison = compareName(city, key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return city;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按无符号字节序比较城市名称与key
+     */
+    private int compareName(int city, byte[] key) {
+        int start = nameOffsets.get(city);
+        int length = nameOffsets.get(city + 1) - start;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (names.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - key.length;
+    }
+
+    /**
+     * 把搜索得到的节点路径转换为城市名称
+     */
+    public List<String> toCityNames(int[] path) {
+        List<String> result = new ArrayList<>(path.length);
+        for (int node : path) {
+            result.add(getCityName(node));
+        }
+        return result;
+    }
+}
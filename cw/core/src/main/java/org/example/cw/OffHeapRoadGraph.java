@@ -0,0 +1,275 @@
+package org.example.cw;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 存放在堆外的CSR城市图
+ *
+ * offsets、targets、weights和城市坐标都放在直接缓冲区或内存映射的临时文件中，
+ * 垃圾回收器不扫描也不移动这些数据，图再大GC停顿时间也不变。
+ * 单个缓冲区最大2GB，所以每个数组按CHUNK_INTS个元素分块存放。
+ * 两种存储方式：
+ * - DIRECT：ByteBuffer.allocateDirect，受-XX:MaxDirectMemorySize限制
+ * - MAPPED：映射已删除的临时文件，由操作系统页缓存管理，可以超过物理内存
+ * JDK 17的MemorySegment还是孵化API，因此使用NIO缓冲区实现。
+ *
+ * 空路网通过RoadNetwork.loadRoadsParallel或导入器（DIMACS、OSM）加载时，道路只保存在这张图中，
+ * 城市只保存名称、编号和坐标，没有邻接表，堆上不再有与边数成正比的数据。
+ * 其他加载方式，以及需要城市邻接表的操作（合并加载、新增道路、重新编号等）仍在堆上保存一份邻接表，
+ * 见RoadNetwork.setGraphStorage。
+ */
+public class OffHeapRoadGraph implements CsrGraph {
+    private static final int CHUNK_SHIFT = 28;
+    private static final int CHUNK_INTS = 1 << CHUNK_SHIFT; // 每块1GB
+    private static final int CHUNK_MASK = CHUNK_INTS - 1;
+
+    /**
+     * 堆外存储方式
+     */
+    public enum Storage {
+        DIRECT,
+        MAPPED
+    }
+
+    private final int nodeCount;
+    private final int edgeCount;
+    private final IntBuffer offsets;
+    private final IntBuffer[] targets;
+    private final IntBuffer[] weights;
+    private final DoubleBuffer latitudes; // 没有坐标时为null
+    private final DoubleBuffer longitudes;
+
+    private OffHeapRoadGraph(int nodeCount, int edgeCount, boolean withCoordinates, Storage storage) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.offsets = allocate(nodeCount + 1L, storage).asIntBuffer();
+        this.targets = allocateInts(edgeCount, storage);
+        this.weights = allocateInts(edgeCount, storage);
+        if (withCoordinates) {
+            // 每个double占两个int的空间
+            latitudes = allocate(nodeCount * 2L, storage).asDoubleBuffer();
+            longitudes = allocate(nodeCount * 2L, storage).asDoubleBuffer();
+        } else {
+            latitudes = null;
+            longitudes = null;
+        }
+    }
+
+    private static IntBuffer[] allocateInts(int count, Storage storage) {
+        IntBuffer[] chunks = new IntBuffer[Math.max(1, (int) ((count + (long) CHUNK_MASK) >>> CHUNK_SHIFT))];
+        for (int i = 0; i < chunks.length; i++) {
+            int length = (int) Math.min(CHUNK_INTS, count - ((long) i << CHUNK_SHIFT));
+            chunks[i] = allocate(Math.max(0, length), storage).asIntBuffer();
+        }
+        return chunks;
+    }
+
+    /**
+     * 分配可容纳intCount个int的本机字节序缓冲区
+     */
+    private static ByteBuffer allocate(long intCount, Storage storage) {
+        long bytes = intCount * 4;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("单个缓冲区超过2GB: " + bytes);
+        }
+        if (storage == Storage.DIRECT) {
+            return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        }
+        try {
+            Path file = Files.createTempFile("road-graph", ".bin");
+            // 关闭时删除文件，映射在通道关闭后仍然有效
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes).order(ByteOrder.nativeOrder());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法创建堆外图的映射文件", e);
+        }
+    }
+
+    /**
+     * 复制已有的CSR图到堆外，不带坐标
+     */
+    public static OffHeapRoadGraph copyOf(CsrGraph source, Storage storage) {
+        return copyOf(source, null, null, storage);
+    }
+
+    /**
+     * 复制已有的CSR图和城市坐标到堆外
+     *
+     * @param latitudes 按城市编号排列的纬度，null表示没有坐标，单个城市缺少坐标时为NaN
+     */
+    public static OffHeapRoadGraph copyOf(CsrGraph source, double[] latitudes, double[] longitudes, Storage storage) {
+        int n = source.getNodeCount();
+        OffHeapRoadGraph graph = new OffHeapRoadGraph(n, source.getEdgeCount(), latitudes != null, storage);
+        for (int v = 0; v <= n; v++) {
+            graph.offsets.put(v, v < n ? source.getFirstEdge(v) : source.getEdgeCount());
+        }
+        for (int e = 0; e < graph.edgeCount; e++) {
+            graph.setEdge(e, source.getTarget(e), source.getWeight(e));
+        }
+        if (latitudes != null) {
+            for (int v = 0; v < n; v++) {
+                graph.latitudes.put(v, latitudes[v]);
+                graph.longitudes.put(v, longitudes[v]);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * 从城市邻接表构建，不经过堆内的CSR数组；有坐标的城市同时复制坐标
+     * 邻接表本身仍留在堆上，这是它之外的第二份拷贝
+     */
+    public static OffHeapRoadGraph fromRoadNetwork(RoadNetwork roadNetwork, Storage storage) {
+        int n = roadNetwork.getCityCount();
+        long m = 0;
+        boolean withCoordinates = false;
+        for (int v = 0; v < n; v++) {
+            City city = roadNetwork.getCityById(v);
+            m += city.getDegree();
+            withCoordinates |= city.hasCoordinates();
+        }
+        if (m > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("边数超过int范围: " + m);
+        }
+
+        OffHeapRoadGraph graph = new OffHeapRoadGraph(n, (int) m, withCoordinates, storage);
+        long[] packed = new long[0];
+        int edge = 0;
+        for (int v = 0; v < n; v++) {
+            City city = roadNetwork.getCityById(v);
+            graph.offsets.put(v, edge);
+            int count = city.getDegree();
+            if (packed.length < count) {
+                packed = new long[count];
+            }
+            // 终点编号放在高32位，排序后即按终点有序
+            for (int i = 0; i < count; i++) {
+                packed[i] = ((long) city.getNeighbor(i).getId() << 32) | (city.getNeighborDistance(i) & 0xFFFFFFFFL);
+            }
+            Arrays.sort(packed, 0, count);
+            for (int i = 0; i < count; i++) {
+                graph.setEdge(edge++, (int) (packed[i] >>> 32), (int) packed[i]);
+            }
+            if (withCoordinates) {
+                graph.latitudes.put(v, city.getLatitude());
+                graph.longitudes.put(v, city.getLongitude());
+            }
+        }
+        graph.offsets.put(n, edge);
+        return graph;
+    }
+
+    private void setEdge(int edge, int target, int weight) {
+        targets[edge >>> CHUNK_SHIFT].put(edge & CHUNK_MASK, target);
+        weights[edge >>> CHUNK_SHIFT].put(edge & CHUNK_MASK, weight);
+    }
+
+    @Override
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public void forEachEdge(int node, EdgeVisitor visitor) {
+        int end = offsets.get(node + 1);
+        for (int e = offsets.get(node); e < end; e++) {
+            int weight = getWeight(e);
+            if (weight != EdgeUpdate.CLOSED) {
+                visitor.visit(getTarget(e), weight);
+            }
+        }
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int getFirstEdge(int node) {
+        return offsets.get(node);
+    }
+
+    @Override
+    public int getEndEdge(int node) {
+        return offsets.get(node + 1);
+    }
+
+    @Override
+    public int getTarget(int edge) {
+        return targets[edge >>> CHUNK_SHIFT].get(edge & CHUNK_MASK);
+    }
+
+    @Override
+    public int getWeight(int edge) {
+        return weights[edge >>> CHUNK_SHIFT].get(edge & CHUNK_MASK);
+    }
+
+    @Override
+    public int getSource(int edge) {
+        // 找最后一个offsets[v] <= edge的城市（出度为0的城市与下一个城市共享偏移量）
+        int low = 0;
+        int high = nodeCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (offsets.get(middle) <= edge) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public int findEdge(int from, int to) {
+        int low = offsets.get(from);
+        int high = offsets.get(from + 1) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int target = getTarget(middle);
+            if (target < to) {
+                low = middle + 1;
+            } else if (target > to) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean updateWeight(int from, int to, int weight) {
+        int edge = findEdge(from, to);
+        if (edge < 0) {
+            return false;
+        }
+        weights[edge >>> CHUNK_SHIFT].put(edge & CHUNK_MASK, weight);
+        return true;
+    }
+
+    public boolean hasCoordinates() {
+        return latitudes != null;
+    }
+
+    public double getLatitude(int city) {
+        return latitudes.get(city);
+    }
+
+    public double getLongitude(int city) {
+        return longitudes.get(city);
+    }
+}
@@ -0,0 +1,646 @@
+package org.example.cw;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 从本地OSM PBF文件导入可路由的路网
+ *
+ * 只保留带有可通行机动车道路highway标签的way，路口（被多条way引用的节点和way的端点）作为城市，
+ * 两个路口之间的way片段合并为一条道路，距离为沿途节点间大圆距离之和（米）。
+ * 单行道也按双向道路导入，因为路网中的道路都是双向的。
+ * 文件读两遍：第一遍收集道路和节点引用，第二遍只读取被引用节点的坐标。
+ * 自带最小的protobuf解码器，不依赖外部库；支持未压缩和zlib压缩的数据块。
+ * 节点导入后的全名为"N<OSM节点编号> OSM"。
+ */
+public class OsmPbfImporter {
+    public static final String STATE = "OSM";
+    private static final double EARTH_RADIUS_METERS = 6371008.8;
+    private static final int MAX_HEADER_SIZE = 64 * 1024;
+    private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+    private static final Set<String> ROUTABLE_HIGHWAYS = Set.of(
+            "motorway", "motorway_link", "trunk", "trunk_link", "primary", "primary_link",
+            "secondary", "secondary_link", "tertiary", "tertiary_link", "unclassified",
+            "residential", "living_street", "service", "road");
+
+    // 第一遍的结果：所有道路的节点引用依次排列，wayStarts[i]到wayStarts[i+1]是第i条道路
+    private long[] wayRefs;
+    private int refCount;
+    private int[] wayStarts;
+    private int wayCount;
+
+    // 被引用的节点：OSM编号到下标的映射，以及各节点的引用次数和坐标
+    private LongIntMap nodeIndex;
+    private int[] referenceCounts;
+    private double[] latitudes;
+    private double[] longitudes;
+
+    /**
+     * 创建导入器；导入过程中的中间数据保存在实例中，同一实例不能并发导入
+     */
+    public OsmPbfImporter() {
+    }
+
+    /**
+     * 导入PBF文件
+     */
+    public ImportedGraph load(Path file) throws IOException {
+        wayRefs = new long[1024];
+        refCount = 0;
+        wayStarts = new int[16];
+        wayCount = 0;
+        readBlocks(file, true);
+        indexReferencedNodes();
+        readBlocks(file, false);
+        return buildGraph();
+    }
+
+    private void readBlocks(Path file, boolean ways) throws IOException {
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                int headerSize;
+                try {
+                    headerSize = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (headerSize < 0 || headerSize > MAX_HEADER_SIZE) {
+                    throw new IOException("PBF数据块头长度无效: " + headerSize);
+                }
+                byte[] header = new byte[headerSize];
+                in.readFully(header);
+
+                String type = null;
+                int dataSize = -1;
+                ProtoReader reader = new ProtoReader(header, 0, headerSize);
+                while (reader.next()) {
+                    if (reader.field() == 1) {
+                        type = reader.string();
+                    } else if (reader.field() == 3) {
+                        dataSize = (int) reader.varint();
+                    } else {
+                        reader.skip();
+                    }
+                }
+                if (dataSize < 0 || dataSize > MAX_BLOB_SIZE) {
+                    throw new IOException("PBF数据块长度无效: " + dataSize);
+                }
+                byte[] blob = new byte[dataSize];
+                in.readFully(blob);
+                if ("OSMData".equals(type)) {
+                    byte[] block = decompress(blob, inflater);
+                    readPrimitiveBlock(block, ways);
+                }
+                // OSMHeader等其他数据块不需要
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] decompress(byte[] blob, Inflater inflater) throws IOException {
+        ProtoReader reader = new ProtoReader(blob, 0, blob.length);
+        int rawSize = -1;
+        int zlibStart = -1;
+        int zlibEnd = -1;
+        while (reader.next()) {
+            switch (reader.field()) {
+                case 1: // raw
+                    int start = reader.lengthDelimited();
+                    return Arrays.copyOfRange(blob, start, reader.position());
+                case 2: // raw_size
+                    rawSize = (int) reader.varint();
+                    break;
+                case 3: // zlib_data
+                    zlibStart = reader.lengthDelimited();
+                    zlibEnd = reader.position();
+                    break;
+                default:
+                    reader.skip(); // lzma等压缩方式不支持
+                    break;
+            }
+        }
+        if (zlibStart < 0 || rawSize < 0 || rawSize > MAX_BLOB_SIZE) {
+            throw new IOException("不支持的PBF数据块压缩方式");
+        }
+        byte[] raw = new byte[rawSize];
+        inflater.reset();
+        inflater.setInput(blob, zlibStart, zlibEnd - zlibStart);
+        try {
+            int length = 0;
+            while (length < rawSize && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, rawSize - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != rawSize) {
+                throw new IOException("PBF数据块解压后长度不符: " + length + "，应为 " + rawSize);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("PBF数据块解压失败", e);
+        }
+        return raw;
+    }
+
+    /**
+     * 解析PrimitiveBlock：字符串表和坐标参数可能出现在分组之后，所以先记下各分组的位置
+     */
+    private void readPrimitiveBlock(byte[] block, boolean ways) throws IOException {
+        List<int[]> groups = new ArrayList<>();
+        int stringTableStart = -1;
+        int stringTableEnd = -1;
+        long granularity = 100;
+        long latOffset = 0;
+        long lonOffset = 0;
+        ProtoReader reader = new ProtoReader(block, 0, block.length);
+        while (reader.next()) {
+            switch (reader.field()) {
+                case 1:
+                    stringTableStart = reader.lengthDelimited();
+                    stringTableEnd = reader.position();
+                    break;
+                case 2:
+                    int start = reader.lengthDelimited();
+                    groups.add(new int[]{start, reader.position()});
+                    break;
+                case 17:
+                    granularity = reader.varint();
+                    break;
+                case 19:
+                    latOffset = reader.varint();
+                    break;
+                case 20:
+                    lonOffset = reader.varint();
+                    break;
+                default:
+                    reader.skip();
+                    break;
+            }
+        }
+
+        if (ways) {
+            int[] highwayValues = stringTableStart < 0 ? null : routableStrings(block, stringTableStart, stringTableEnd);
+            if (highwayValues == null) {
+                return; // 没有字符串表的块不含带标签的道路
+            }
+            for (int[] group : groups) {
+                ProtoReader groupReader = new ProtoReader(block, group[0], group[1]);
+                while (groupReader.next()) {
+                    if (groupReader.field() == 3) {
+                        int start = groupReader.lengthDelimited();
+                        readWay(block, start, groupReader.position(), highwayValues);
+                    } else {
+                        groupReader.skip();
+                    }
+                }
+            }
+        } else {
+            for (int[] group : groups) {
+                ProtoReader groupReader = new ProtoReader(block, group[0], group[1]);
+                while (groupReader.next()) {
+                    if (groupReader.field() == 1) {
+                        int start = groupReader.lengthDelimited();
+                        readNode(block, start, groupReader.position(), granularity, latOffset, lonOffset);
+                    } else if (groupReader.field() == 2) {
+                        int start = groupReader.lengthDelimited();
+                        readDenseNodes(block, start, groupReader.position(), granularity, latOffset, lonOffset);
+                    } else {
+                        groupReader.skip();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 在字符串表中查找"highway"键和可通行的道路类型
+     *
+     * @return 下标0为"highway"在字符串表中的编号（不存在时为-1），其后为可通行道路类型的编号
+     */
+    private static int[] routableStrings(byte[] block, int start, int end) throws IOException {
+        int highway = -1;
+        int[] routable = new int[8];
+        int routableCount = 0;
+        int index = 0;
+        ProtoReader reader = new ProtoReader(block, start, end);
+        while (reader.next()) {
+            if (reader.field() != 1) {
+                reader.skip();
+                continue;
+            }
+            String value = reader.string();
+            if (value.equals("highway")) {
+                highway = index;
+            }
+            if (ROUTABLE_HIGHWAYS.contains(value)) {
+                if (routableCount == routable.length) {
+                    routable = Arrays.copyOf(routable, routableCount * 2);
+                }
+                routable[routableCount++] = index;
+            }
+            index++;
+        }
+        int[] result = new int[routableCount + 1];
+        result[0] = highway;
+        System.arraycopy(routable, 0, result, 1, routableCount);
+        return result;
+    }
+
+    private void readWay(byte[] block, int start, int end, int[] highwayValues) throws IOException {
+        int keysStart = -1;
+        int keysEnd = -1;
+        int valuesStart = -1;
+        int valuesEnd = -1;
+        int refsStart = -1;
+        int refsEnd = -1;
+        ProtoReader reader = new ProtoReader(block, start, end);
+        while (reader.next()) {
+            switch (reader.field()) {
+                case 2:
+                    keysStart = reader.lengthDelimited();
+                    keysEnd = reader.position();
+                    break;
+                case 3:
+                    valuesStart = reader.lengthDelimited();
+                    valuesEnd = reader.position();
+                    break;
+                case 8:
+                    refsStart = reader.lengthDelimited();
+                    refsEnd = reader.position();
+                    break;
+                default:
+                    reader.skip();
+                    break;
+            }
+        }
+        if (highwayValues[0] < 0 || keysStart < 0 || valuesStart < 0 || refsStart < 0) {
+            return;
+        }
+
+        boolean routable = false;
+        ProtoReader keys = new ProtoReader(block, keysStart, keysEnd);
+        ProtoReader values = new ProtoReader(block, valuesStart, valuesEnd);
+        while (keys.hasMore() && values.hasMore()) {
+            long key = keys.varint();
+            long value = values.varint();
+            if (key == highwayValues[0]) {
+                for (int i = 1; i < highwayValues.length; i++) {
+                    if (value == highwayValues[i]) {
+                        routable = true;
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        if (!routable) {
+            return;
+        }
+
+        ProtoReader refs = new ProtoReader(block, refsStart, refsEnd);
+        long ref = 0;
+        int wayStart = refCount;
+        while (refs.hasMore()) {
+            ref += refs.signedVarint();
+            if (refCount == wayRefs.length) {
+                wayRefs = Arrays.copyOf(wayRefs, refCount * 2);
+            }
+            wayRefs[refCount++] = ref;
+        }
+        if (refCount - wayStart < 2) {
+            refCount = wayStart; // 少于两个节点的道路没有意义
+            return;
+        }
+        if (wayCount + 1 == wayStarts.length) {
+            wayStarts = Arrays.copyOf(wayStarts, wayStarts.length * 2);
+        }
+        wayStarts[++wayCount] = refCount;
+    }
+
+    /**
+     * 为道路引用的节点分配下标并统计引用次数；道路端点额外计一次，保证成为路口
+     */
+    private void indexReferencedNodes() {
+        nodeIndex = new LongIntMap(refCount);
+        referenceCounts = new int[refCount];
+        for (int w = 0; w < wayCount; w++) {
+            for (int i = wayStarts[w]; i < wayStarts[w + 1]; i++) {
+                int index = nodeIndex.getOrAdd(wayRefs[i]);
+                referenceCounts[index]++;
+                if (i == wayStarts[w] || i == wayStarts[w + 1] - 1) {
+                    referenceCounts[index]++;
+                }
+            }
+        }
+        latitudes = new double[nodeIndex.size()];
+        longitudes = new double[nodeIndex.size()];
+        Arrays.fill(latitudes, Double.NaN);
+        Arrays.fill(longitudes, Double.NaN);
+    }
+
+    private void readNode(byte[] block, int start, int end, long granularity, long latOffset, long lonOffset)
+            throws IOException {
+        long id = 0;
+        long lat = 0;
+        long lon = 0;
+        ProtoReader reader = new ProtoReader(block, start, end);
+        while (reader.next()) {
+            switch (reader.field()) {
+                case 1:
+                    id = reader.signedVarint();
+                    break;
+                case 8:
+                    lat = reader.signedVarint();
+                    break;
+                case 9:
+                    lon = reader.signedVarint();
+                    break;
+                default:
+                    reader.skip();
+                    break;
+            }
+        }
+        setCoordinates(id, lat, lon, granularity, latOffset, lonOffset);
+    }
+
+    private void readDenseNodes(byte[] block, int start, int end, long granularity, long latOffset, long lonOffset)
+            throws IOException {
+        ProtoReader ids = null;
+        ProtoReader lats = null;
+        ProtoReader lons = null;
+        ProtoReader reader = new ProtoReader(block, start, end);
+        while (reader.next()) {
+            int field = reader.field();
+            if (field == 1 || field == 8 || field == 9) {
+                int packedStart = reader.lengthDelimited();
+                ProtoReader packed = new ProtoReader(block, packedStart, reader.position());
+                if (field == 1) {
+                    ids = packed;
+                } else if (field == 8) {
+                    lats = packed;
+                } else {
+                    lons = packed;
+                }
+            } else {
+                reader.skip();
+            }
+        }
+        if (ids == null || lats == null || lons == null) {
+            return;
+        }
+        // 三个数组都是差分编码
+        long id = 0;
+        long lat = 0;
+        long lon = 0;
+        while (ids.hasMore() && lats.hasMore() && lons.hasMore()) {
+            id += ids.signedVarint();
+            lat += lats.signedVarint();
+            lon += lons.signedVarint();
+            setCoordinates(id, lat, lon, granularity, latOffset, lonOffset);
+        }
+    }
+
+    private void setCoordinates(long id, long lat, long lon, long granularity, long latOffset, long lonOffset) {
+        int index = nodeIndex.get(id);
+        if (index >= 0) {
+            latitudes[index] = 1e-9 * (latOffset + granularity * lat);
+            longitudes[index] = 1e-9 * (lonOffset + granularity * lon);
+        }
+    }
+
+    /**
+     * 把道路在路口处切开，相邻路口之间的片段成为一条道路
+     */
+    private ImportedGraph buildGraph() {
+        int[] cityIds = new int[nodeIndex.size()];
+        Arrays.fill(cityIds, -1);
+        List<String> names = new ArrayList<>();
+        List<Integer> sourceNodes = new ArrayList<>();
+
+        int[] sources = new int[16];
+        int[] targets = new int[16];
+        int[] weights = new int[16];
+        int edgeCount = 0;
+        for (int w = 0; w < wayCount; w++) {
+            int previousJunction = -1;
+            double length = 0;
+            boolean complete = true; // 片段中所有节点都有坐标
+            for (int i = wayStarts[w]; i < wayStarts[w + 1]; i++) {
+                int index = nodeIndex.get(wayRefs[i]);
+                if (i > wayStarts[w]) {
+                    int previous = nodeIndex.get(wayRefs[i - 1]);
+                    if (Double.isNaN(latitudes[index]) || Double.isNaN(latitudes[previous])) {
+                        complete = false;
+                    } else {
+                        length += distance(latitudes[previous], longitudes[previous], latitudes[index], longitudes[index]);
+                    }
+                }
+                if (referenceCounts[index] < 2) {
+                    continue; // 道路中间的普通节点
+                }
+                if (cityIds[index] < 0) {
+                    cityIds[index] = names.size();
+                    names.add("N" + wayRefs[i] + " " + STATE);
+                    sourceNodes.add(index);
+                }
+                if (previousJunction >= 0 && complete) {
+                    if (edgeCount == sources.length) {
+                        sources = Arrays.copyOf(sources, edgeCount * 2);
+                        targets = Arrays.copyOf(targets, edgeCount * 2);
+                        weights = Arrays.copyOf(weights, edgeCount * 2);
+                    }
+                    sources[edgeCount] = previousJunction;
+                    targets[edgeCount] = cityIds[index];
+                    weights[edgeCount] = (int) Math.max(1, Math.round(length));
+                    edgeCount++;
+                }
+                previousJunction = cityIds[index];
+                length = 0;
+                complete = true;
+            }
+        }
+
+        int n = names.size();
+        double[] cityLatitudes = new double[n];
+        double[] cityLongitudes = new double[n];
+        for (int v = 0; v < n; v++) {
+            cityLatitudes[v] = latitudes[sourceNodes.get(v)];
+            cityLongitudes[v] = longitudes[sourceNodes.get(v)];
+        }
+        CsrRoadGraph graph = CsrRoadGraph.fromEdges(n, sources, targets, weights, edgeCount);
+        return new ImportedGraph(graph, names.toArray(new String[0]), cityLatitudes, cityLongitudes);
+    }
+
+    /**
+     * 两点间的大圆距离（米）
+     */
+    public static double distance(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * 最小的protobuf解码器，只支持PBF格式用到的线路类型
+     */
+    private static class ProtoReader {
+        private final byte[] data;
+        private int position;
+        private final int end;
+        private int tag;
+
+        ProtoReader(byte[] data, int start, int end) {
+            this.data = data;
+            this.position = start;
+            this.end = end;
+        }
+
+        boolean hasMore() {
+            return position < end;
+        }
+
+        /**
+         * 读取下一个字段的标签，没有更多字段时返回false
+         */
+        boolean next() throws IOException {
+            if (position >= end) {
+                return false;
+            }
+            tag = (int) varint();
+            return true;
+        }
+
+        int field() {
+            return tag >>> 3;
+        }
+
+        int position() {
+            return position;
+        }
+
+        long varint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= end) {
+                    throw new IOException("PBF数据被截断");
+                }
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("PBF变长整数过长");
+        }
+
+        long signedVarint() throws IOException {
+            long value = varint();
+            return (value >>> 1) ^ -(value & 1); // zigzag解码
+        }
+
+        /**
+         * 跳过长度前缀，返回内容的起始位置；读完后position()为内容末尾
+         */
+        int lengthDelimited() throws IOException {
+            int length = (int) varint();
+            if (length < 0 || length > end - position) {
+                throw new IOException("PBF字段长度无效: " + length);
+            }
+            int start = position;
+            position += length;
+            return start;
+        }
+
+        String string() throws IOException {
+            int start = lengthDelimited();
+            return new String(data, start, position - start, StandardCharsets.UTF_8);
+        }
+
+        void skip() throws IOException {
+            switch (tag & 7) {
+                case 0:
+                    varint();
+                    break;
+                case 1:
+                    position += 8;
+                    break;
+                case 2:
+                    lengthDelimited();
+                    break;
+                case 5:
+                    position += 4;
+                    break;
+                default:
+                    throw new IOException("不支持的PBF线路类型: " + (tag & 7));
+            }
+        }
+    }
+
+    /**
+     * long到int的开放寻址散列表，为OSM节点编号分配连续下标
+     */
+    private static class LongIntMap {
+        private long[] keys;
+        private int[] values;
+        private boolean[] used;
+        private int size;
+
+        LongIntMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return -1;
+        }
+
+        int getOrAdd(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            values[slot] = size;
+            return size++;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
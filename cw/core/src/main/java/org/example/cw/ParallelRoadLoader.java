@@ -0,0 +1,422 @@
+package org.example.cw;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多线程分块加载大型道路文件并直接构建CSR图
+ *
+ * 1. 按行边界把文件切成与线程数相同的块，每块在各自线程中用CsvTokenizer解析到线程私有的边缓冲区；
+ * 2. 城市名通过分段加锁的驻留表解析为分段内编号，全部解析完后再映射为连续的全局编号；
+ * 3. 按起点做并行计数排序：各块分别统计出度直方图，前缀和后各自把边写入互不重叠的位置；
+ * 4. 每个城市的出边按终点排序，重复的道路保留文件中最后出现的一条（与逐行加载的覆盖语义一致）。
+ * 道路文件中的引号字段不能包含换行，否则切块可能落在字段中间。
+ * 城市编号的顺序与逐行加载不同，但对同一文件和同一线程数是确定的。
+ */
+public class ParallelRoadLoader {
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS; // 驻留表的分段数
+
+    private final int threads;
+
+    public ParallelRoadLoader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelRoadLoader(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("线程数必须为正数: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * 加载结果：CSR图和按编号排列的城市全名
+     */
+    public static class Result {
+        private final CsrRoadGraph graph;
+        private final String[] cityNames;
+
+        Result(CsrRoadGraph graph, String[] cityNames) {
+            this.graph = graph;
+            this.cityNames = cityNames;
+        }
+
+        public CsrRoadGraph getGraph() {
+            return graph;
+        }
+
+        public String[] getCityNames() {
+            return cityNames;
+        }
+    }
+
+    /**
+     * 加载道路文件（格式与roads.csv相同，首行为标题）
+     */
+    public Result load(Path roadsFile) throws IOException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "road-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(roadsFile, StandardOpenOption.READ)) {
+            return load(channel, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Result load(FileChannel channel, ExecutorService executor) throws IOException {
+        long[] bounds = splitAtLines(channel);
+        int chunks = bounds.length - 1;
+
+        // 第一步：并行解析到各块的边缓冲区
+        InternStripe[] stripes = new InternStripe[STRIPES];
+        for (int s = 0; s < STRIPES; s++) {
+            stripes[s] = new InternStripe();
+        }
+        EdgeBuffer[] buffers = new EdgeBuffer[chunks];
+        List<Callable<Void>> parseTasks = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            int chunk = c;
+            parseTasks.add(() -> {
+                buffers[chunk] = parseChunk(channel, bounds[chunk], bounds[chunk + 1], chunk == 0, stripes);
+                return null;
+            });
+        }
+        runAll(executor, parseTasks);
+
+        // 分段内编号映射为全局编号：分段s的城市编号从stripeBase[s]开始
+        int[] stripeBase = new int[STRIPES + 1];
+        for (int s = 0; s < STRIPES; s++) {
+            stripeBase[s + 1] = stripeBase[s] + stripes[s].table.size();
+        }
+        int n = stripeBase[STRIPES];
+        String[] names = new String[n];
+        for (int s = 0; s < STRIPES; s++) {
+            for (int local = 0; local < stripes[s].table.size(); local++) {
+                names[stripeBase[s] + local] = stripes[s].table.getString(local);
+            }
+        }
+
+        // 第二步：并行转换编号并统计每块的出度直方图（每条道路贡献两条有向边）
+        int[][] histograms = new int[chunks][];
+        List<Callable<Void>> countTasks = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            int chunk = c;
+            countTasks.add(() -> {
+                EdgeBuffer buffer = buffers[chunk];
+                int[] histogram = new int[n];
+                for (int i = 0; i < buffer.size; i++) {
+                    int a = globalId(buffer.sources[i], stripeBase);
+                    int b = globalId(buffer.targets[i], stripeBase);
+                    buffer.sources[i] = a;
+                    buffer.targets[i] = b;
+                    histogram[a]++;
+                    histogram[b]++;
+                }
+                histograms[chunk] = histogram;
+                return null;
+            });
+        }
+        runAll(executor, countTasks);
+
+        // 前缀和：offsets为各城市出边的起点，直方图原地改为每块在该城市内的写入位置
+        int[] offsets = new int[n + 1];
+        int position = 0;
+        for (int v = 0; v < n; v++) {
+            offsets[v] = position;
+            for (int c = 0; c < chunks; c++) {
+                int count = histograms[c][v];
+                histograms[c][v] = position;
+                position += count;
+            }
+        }
+        offsets[n] = position;
+
+        // 第三步：并行分发，各块写入的区间互不重叠，块内保持文件顺序
+        int[] targets = new int[position];
+        int[] weights = new int[position];
+        List<Callable<Void>> scatterTasks = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            int chunk = c;
+            scatterTasks.add(() -> {
+                EdgeBuffer buffer = buffers[chunk];
+                int[] next = histograms[chunk];
+                for (int i = 0; i < buffer.size; i++) {
+                    int a = buffer.sources[i];
+                    int b = buffer.targets[i];
+                    int weight = buffer.weights[i];
+                    int p = next[a]++;
+                    targets[p] = b;
+                    weights[p] = weight;
+                    p = next[b]++;
+                    targets[p] = a;
+                    weights[p] = weight;
+                }
+                buffers[chunk] = null; // 尽早释放
+                histograms[chunk] = null;
+                return null;
+            });
+        }
+        runAll(executor, scatterTasks);
+
+        // 第四步：并行按终点排序并去重，degrees记录去重后的出度
+        int[] degrees = new int[n];
+        List<Callable<Void>> sortTasks = new ArrayList<>();
+        int ranges = Math.min(n, threads * 4);
+        for (int r = 0; r < ranges; r++) {
+            int from = (int) ((long) n * r / ranges);
+            int to = (int) ((long) n * (r + 1) / ranges);
+            sortTasks.add(() -> {
+                sortAdjacency(offsets, targets, weights, degrees, from, to);
+                return null;
+            });
+        }
+        runAll(executor, sortTasks);
+
+        return new Result(compact(offsets, targets, weights, degrees), names);
+    }
+
+    /**
+     * 把文件按字节均分后向后移动到下一个换行符之后，得到各块的边界
+     */
+    private long[] splitAtLines(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int chunks = (int) Math.max(1, Math.min(threads, size / (1 << 20))); // 小文件不必切块
+        long[] bounds = new long[chunks + 1];
+        bounds[chunks] = size;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (int c = 1; c < chunks; c++) {
+            long position = Math.max(size * c / chunks, bounds[c - 1]);
+            bounds[c] = size;
+            search:
+            while (position < size) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        bounds[c] = position + i + 1;
+                        break search;
+                    }
+                }
+                position += read;
+            }
+        }
+        return bounds;
+    }
+
+    private EdgeBuffer parseChunk(FileChannel channel, long start, long end, boolean hasHeader,
+                                  InternStripe[] stripes) throws IOException {
+        EdgeBuffer buffer = new EdgeBuffer();
+        if (start >= end) {
+            return buffer;
+        }
+        CsvTokenizer tokenizer = new CsvTokenizer(new RegionChannel(channel, start, end));
+        if (hasHeader) {
+            tokenizer.nextRecord(); // 跳过标题行
+        }
+        while (tokenizer.nextRecord()) {
+            if (tokenizer.getFieldCount() < 3) {
+                continue;
+            }
+            int distance;
+            try {
+                distance = tokenizer.getInt(2);
+            } catch (NumberFormatException e) {
+                System.err.println("跳过无效的道路: " + e.getMessage());
+                continue;
+            }
+            buffer.add(intern(tokenizer, 0, stripes), intern(tokenizer, 1, stripes), distance);
+        }
+        return buffer;
+    }
+
+    /**
+     * 按散列值选择分段并在分段锁内驻留，返回（分段内编号 << STRIPE_BITS | 分段）
+     */
+    private static int intern(CsvTokenizer tokenizer, int field, InternStripe[] stripes) {
+        byte[] data = tokenizer.getBuffer();
+        int offset = tokenizer.getFieldStart(field);
+        int length = tokenizer.getFieldLength(field);
+        int hash = ByteInternTable.hash(data, offset, length);
+        int stripe = hash >>> (32 - STRIPE_BITS); // 用高位选分段，低位留给分段内的散列槽
+        int local;
+        InternStripe target = stripes[stripe];
+        synchronized (target) {
+            local = target.table.intern(data, offset, length, hash);
+        }
+        return (local << STRIPE_BITS) | stripe;
+    }
+
+    private static int globalId(int encoded, int[] stripeBase) {
+        return stripeBase[encoded & (STRIPES - 1)] + (encoded >>> STRIPE_BITS);
+    }
+
+    /**
+     * 对[from, to)范围内每个城市的出边按终点排序，终点相同的只保留文件中最后出现的一条
+     */
+    private static void sortAdjacency(int[] offsets, int[] targets, int[] weights, int[] degrees, int from, int to) {
+        long[] packed = new long[16];
+        int[] segmentWeights = new int[16];
+        for (int v = from; v < to; v++) {
+            int start = offsets[v];
+            int length = offsets[v + 1] - start;
+            if (length <= 1) {
+                degrees[v] = length;
+                continue;
+            }
+            if (packed.length < length) {
+                packed = new long[Math.max(length, packed.length * 2)];
+                segmentWeights = new int[packed.length];
+            }
+            // 终点在高32位、段内序号在低32位，排序后相同终点按文件顺序相邻
+            for (int i = 0; i < length; i++) {
+                packed[i] = ((long) targets[start + i] << 32) | i;
+                segmentWeights[i] = weights[start + i];
+            }
+            Arrays.sort(packed, 0, length);
+            int kept = 0;
+            for (int i = 0; i < length; i++) {
+                int target = (int) (packed[i] >>> 32);
+                if (i + 1 < length && (int) (packed[i + 1] >>> 32) == target) {
+                    continue; // 后面还有同一终点的更晚记录
+                }
+                targets[start + kept] = target;
+                weights[start + kept] = segmentWeights[(int) packed[i]];
+                kept++;
+            }
+            degrees[v] = kept;
+        }
+    }
+
+    /**
+     * 去掉重复道路留下的空位，没有重复道路时直接使用原数组
+     */
+    private static CsrRoadGraph compact(int[] offsets, int[] targets, int[] weights, int[] degrees) {
+        int n = degrees.length;
+        int[] newOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            newOffsets[v + 1] = newOffsets[v] + degrees[v];
+        }
+        if (newOffsets[n] == offsets[n]) {
+            return new CsrRoadGraph(offsets, targets, weights);
+        }
+        int[] newTargets = new int[newOffsets[n]];
+        int[] newWeights = new int[newOffsets[n]];
+        for (int v = 0; v < n; v++) {
+            System.arraycopy(targets, offsets[v], newTargets, newOffsets[v], degrees[v]);
+            System.arraycopy(weights, offsets[v], newWeights, newOffsets[v], degrees[v]);
+        }
+        return new CsrRoadGraph(newOffsets, newTargets, newWeights);
+    }
+
+    private static void runAll(ExecutorService executor, List<Callable<Void>> tasks) throws IOException {
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("加载道路时被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("加载道路时出错", cause);
+        }
+    }
+
+    /**
+     * 驻留表的一个分段，访问时以分段对象加锁
+     */
+    private static class InternStripe {
+        private final ByteInternTable table = new ByteInternTable();
+    }
+
+    /**
+     * 线程私有的边缓冲区，城市编号为驻留时得到的分段编码
+     */
+    private static class EdgeBuffer {
+        private int[] sources = new int[1024];
+        private int[] targets = new int[1024];
+        private int[] weights = new int[1024];
+        private int size;
+
+        void add(int source, int target, int weight) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    /**
+     * 只读取文件中[start, end)区间的通道，多个线程可以共享同一个FileChannel做定位读取
+     */
+    private static class RegionChannel implements ReadableByteChannel {
+        private final FileChannel channel;
+        private long position;
+        private final long end;
+
+        RegionChannel(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int limit = destination.limit();
+            if (destination.remaining() > end - position) {
+                destination.limit(destination.position() + (int) (end - position));
+            }
+            int read = channel.read(destination, position);
+            destination.limit(limit);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // 共享的FileChannel由加载器统一关闭
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.cw;
+
+import java.util.List;
+
+/**
+ * 多目标路线查询中的一条帕累托最优路线
+ */
+public class ParetoRoute {
+    private final List<String> cities;
+    private final int distance;
+    private final int toll;
+    private final int roadClassCost; // 各段距离×道路等级之和，越小越偏向高等级道路
+
+    public ParetoRoute(List<String> cities, int distance, int toll, int roadClassCost) {
+        this.cities = cities;
+        this.distance = distance;
+        this.toll = toll;
+        this.roadClassCost = roadClassCost;
+    }
+
+    public List<String> getCities() {
+        return cities;
+    }
+
+    public int getDistance() {
+        return distance;
+    }
+
+    public int getToll() {
+        return toll;
+    }
+
+    public int getRoadClassCost() {
+        return roadClassCost;
+    }
+
+    @Override
+    public String toString() {
+        return "距离=" + distance + ", 过路费=" + toll + ", 等级代价=" + roadClassCost + " " + cities;
+    }
+}
@@ -0,0 +1,301 @@
+package org.example.cw;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 多目标（距离、过路费、道路等级代价）路线规划，返回帕累托最优路线集合
+ *
+ * 使用多目标标号设定算法：标号按（距离下界, 过路费, 等级代价）的字典序出队，
+ * 每个城市只保留互不支配的标号。为使搜索规模可控，支持有界支配剪枝：
+ * - epsilon：标号a的各项代价不超过b的(1+epsilon)倍即认为a支配b
+ * - maxLabelsPerNode：每个城市最多保留的标号数，满了以后拒绝新标号
+ * - 与终点已有标号比较（距离部分加上地标下界），被支配的标号直接剪掉
+ * 标号全部存放在基本类型数组中（每个标号3个代价、所在城市、父标号）。
+ */
+public class ParetoRoutePlanner {
+    public static final int DEFAULT_MAX_LABELS_PER_NODE = 64;
+    private static final int K = RoadAttributes.CRITERIA_COUNT;
+
+    private final RoadNetwork roadNetwork;
+    private final RoadAttributes attributes;
+    private final LandmarkIndex landmarkIndex; // 可为null
+    private int maxLabelsPerNode = DEFAULT_MAX_LABELS_PER_NODE;
+    private double epsilon = 0.0;
+
+    // 标号存储：第i个标号的代价在costs[i*K .. i*K+K-1]
+    private int[] costs;
+    private int[] nodes;
+    private int[] parents;
+    private boolean[] removed;
+    private int labelCount;
+
+    // 每个城市当前保留的标号编号
+    private int[][] nodeLabels;
+    private int[] nodeLabelCounts;
+
+    private int[] lowerBounds; // 城市到终点的距离下界
+
+    public ParetoRoutePlanner(RoadNetwork roadNetwork, RoadAttributes attributes, LandmarkIndex landmarkIndex) {
+        this.roadNetwork = roadNetwork;
+        this.attributes = attributes;
+        this.landmarkIndex = landmarkIndex;
+    }
+
+    public void setMaxLabelsPerNode(int maxLabelsPerNode) {
+        this.maxLabelsPerNode = maxLabelsPerNode;
+    }
+
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * 计算从起点到终点的帕累托最优路线集合，按距离升序排列
+     */
+    public synchronized List<ParetoRoute> route(String startingCity, String endingCity) {
+        roadNetwork.ensureCityAdjacency(); // 按城市邻接表搜索，堆外加载的路网先补建
+        City start = roadNetwork.getCity(startingCity);
+        City end = roadNetwork.getCity(endingCity);
+        if (start == null) {
+            throw new IllegalArgumentException("找不到起始城市: " + startingCity);
+        }
+        if (end == null) {
+            throw new IllegalArgumentException("找不到目的地城市: " + endingCity);
+        }
+
+        int n = roadNetwork.getCityCount();
+        int target = end.getId();
+        reset(n, end);
+
+        LabelHeap queue = new LabelHeap();
+        int[] candidate = new int[K];
+        int[] edgeCosts = new int[K];
+
+        insert(start.getId(), -1, candidate, target, queue);
+
+        while (!queue.isEmpty()) {
+            int label = queue.poll();
+            if (removed[label]) {
+                continue; // 出队前已被其他标号支配
+            }
+            int current = nodes[label];
+            if (current == target) {
+                continue; // 终点标号不再扩展
+            }
+
+            City city = roadNetwork.getCityById(current);
+            for (int j = 0; j < city.getDegree(); j++) {
+                int next = city.getNeighbor(j).getId();
+                attributes.fillCosts(current, next, city.getNeighborDistance(j), edgeCosts);
+                int base = label * K;
+                for (int i = 0; i < K; i++) {
+                    candidate[i] = costs[base + i] + edgeCosts[i];
+                }
+                insert(next, label, candidate, target, queue);
+            }
+        }
+
+        return collectRoutes(target);
+    }
+
+    private void reset(int n, City end) {
+        int capacity = 1024;
+        costs = new int[capacity * K];
+        nodes = new int[capacity];
+        parents = new int[capacity];
+        removed = new boolean[capacity];
+        labelCount = 0;
+        nodeLabels = new int[n][];
+        nodeLabelCounts = new int[n];
+
+        lowerBounds = new int[n];
+        if (landmarkIndex != null) {
+            for (int v = 0; v < n; v++) {
+                lowerBounds[v] = landmarkIndex.lowerBound(roadNetwork.getCityById(v), end);
+            }
+        }
+    }
+
+    /**
+     * 尝试在城市node上插入代价为candidate的新标号
+     */
+    private void insert(int node, int parent, int[] candidate, int target, LabelHeap queue) {
+        // 与终点已有标号比较：加上剩余距离下界后仍被支配则剪掉
+        int bound = lowerBounds[node];
+        int[] boundedCandidate = {candidate[0] + bound, candidate[1], candidate[2] + bound};
+        if (isDominated(target, boundedCandidate)) {
+            return;
+        }
+        if (node != target && isDominated(node, candidate)) {
+            return;
+        }
+
+        // 移除被新标号支配的旧标号
+        int[] labels = nodeLabels[node];
+        int count = nodeLabelCounts[node];
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int label = labels[i];
+            if (dominates(candidate, label)) {
+                removed[label] = true;
+            } else {
+                labels[kept++] = label;
+            }
+        }
+        nodeLabelCounts[node] = kept;
+
+        if (kept >= maxLabelsPerNode) {
+            return; // 有界剪枝：该城市的标号已满
+        }
+
+        int label = addLabel(node, parent, candidate);
+        if (labels == null) {
+            labels = new int[4];
+            nodeLabels[node] = labels;
+        } else if (kept == labels.length) {
+            labels = Arrays.copyOf(labels, labels.length * 2);
+            nodeLabels[node] = labels;
+        }
+        labels[kept] = label;
+        nodeLabelCounts[node] = kept + 1;
+
+        queue.add(label);
+    }
+
+    /**
+     * 检查城市node上是否已有标号（epsilon意义下）支配candidate
+     */
+    private boolean isDominated(int node, int[] candidate) {
+        int[] labels = nodeLabels[node];
+        int count = nodeLabelCounts[node];
+        double factor = 1.0 + epsilon;
+        for (int i = 0; i < count; i++) {
+            int base = labels[i] * K;
+            boolean dominated = true;
+            for (int c = 0; c < K; c++) {
+                if (costs[base + c] > candidate[c] * factor) {
+                    dominated = false;
+                    break;
+                }
+            }
+            if (dominated) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * candidate是否（弱）支配已有标号：每一项代价都不大于它，代价完全相同的旧标号也会被替换
+     */
+    private boolean dominates(int[] candidate, int label) {
+        int base = label * K;
+        for (int c = 0; c < K; c++) {
+            if (candidate[c] > costs[base + c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int addLabel(int node, int parent, int[] candidate) {
+        if (labelCount == nodes.length) {
+            int capacity = nodes.length * 2;
+            costs = Arrays.copyOf(costs, capacity * K);
+            nodes = Arrays.copyOf(nodes, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+        }
+        int label = labelCount++;
+        System.arraycopy(candidate, 0, costs, label * K, K);
+        nodes[label] = node;
+        parents[label] = parent;
+        return label;
+    }
+
+    private List<ParetoRoute> collectRoutes(int target) {
+        List<ParetoRoute> routes = new ArrayList<>();
+        int[] labels = nodeLabels[target];
+        for (int i = 0; i < nodeLabelCounts[target]; i++) {
+            int label = labels[i];
+            List<String> path = new ArrayList<>();
+            for (int l = label; l != -1; l = parents[l]) {
+                path.add(roadNetwork.getCityById(nodes[l]).getFullName());
+            }
+            Collections.reverse(path);
+            int base = label * K;
+            routes.add(new ParetoRoute(path, costs[base], costs[base + 1], costs[base + 2]));
+        }
+        routes.sort(Comparator.comparingInt(ParetoRoute::getDistance));
+        return routes;
+    }
+
+    /**
+     * 标号二叉堆：按（距离+下界, 过路费, 等级代价）字典序比较
+     */
+    private class LabelHeap {
+        private int[] heap = new int[256];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(int label) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int position = size++;
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (compare(heap[parent], label) <= 0) {
+                    break;
+                }
+                heap[position] = heap[parent];
+                position = parent;
+            }
+            heap[position] = label;
+        }
+
+        int poll() {
+            int top = heap[0];
+            int last = heap[--size];
+            int position = 0;
+            int half = size >>> 1;
+            while (position < half) {
+                int child = 2 * position + 1;
+                if (child + 1 < size && compare(heap[child + 1], heap[child]) < 0) {
+                    child++;
+                }
+                if (compare(last, heap[child]) <= 0) {
+                    break;
+                }
+                heap[position] = heap[child];
+                position = child;
+            }
+            if (size > 0) {
+                heap[position] = last;
+            }
+            return top;
+        }
+
+        private int compare(int a, int b) {
+            int keyA = costs[a * K] + lowerBounds[nodes[a]];
+            int keyB = costs[b * K] + lowerBounds[nodes[b]];
+            if (keyA != keyB) {
+                return Integer.compare(keyA, keyB);
+            }
+            for (int c = 1; c < K; c++) {
+                int diff = Integer.compare(costs[a * K + c], costs[b * K + c]);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return 0;
+        }
+    }
+}
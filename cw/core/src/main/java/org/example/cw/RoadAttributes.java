@@ -0,0 +1,148 @@
+package org.example.cw;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 道路的附加代价属性：过路费和道路等级
+ *
+ * 从附加CSV加载，格式（首行为标题）：城市A,城市B,过路费,道路等级
+ * 道路等级为1（高速公路）到5（乡间小路），未列出的道路过路费为0、等级为DEFAULT_ROAD_CLASS。
+ * 属性按无向边存放在排好序的long[]键和并行的int[]/byte[]数组中。
+ * 从文件加载的实例注册为路网监听器，城市重新编号后按新编号重排。
+ */
+public class RoadAttributes implements RoadNetworkListener {
+    public static final int DEFAULT_ROAD_CLASS = 3;
+    public static final int CRITERIA_COUNT = 3; // 距离、过路费、道路等级代价
+
+    private long[] edgeKeys;
+    private int[] tolls;
+    private byte[] roadClasses;
+
+    private RoadAttributes(long[] edgeKeys, int[] tolls, byte[] roadClasses) {
+        this.edgeKeys = edgeKeys;
+        this.tolls = tolls;
+        this.roadClasses = roadClasses;
+    }
+
+    /**
+     * 从CSV文件加载道路属性
+     */
+    public static RoadAttributes load(RoadNetwork roadNetwork, Path file) throws IOException {
+        List<long[]> rows = new ArrayList<>(); // {边键, 过路费, 等级}
+
+        try (BufferedReader br = Files.newBufferedReader(file)) {
+            String line = br.readLine(); // 跳过标题行
+
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length < 4) {
+                    continue;
+                }
+                City cityA = roadNetwork.getCity(parts[0].trim());
+                City cityB = roadNetwork.getCity(parts[1].trim());
+                if (cityA == null || cityB == null) {
+                    System.err.println("道路属性引用了未知城市: " + line);
+                    continue;
+                }
+                int toll = Integer.parseInt(parts[2].trim());
+                int roadClass = Integer.parseInt(parts[3].trim());
+                if (roadClass < 1 || roadClass > 5) {
+                    throw new IllegalArgumentException("道路等级必须在1到5之间: " + line);
+                }
+                rows.add(new long[]{edgeKey(cityA.getId(), cityB.getId()), toll, roadClass});
+            }
+        }
+
+        rows.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        long[] edgeKeys = new long[rows.size()];
+        int[] tolls = new int[rows.size()];
+        byte[] roadClasses = new byte[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            edgeKeys[i] = rows.get(i)[0];
+            tolls[i] = (int) rows.get(i)[1];
+            roadClasses[i] = (byte) rows.get(i)[2];
+        }
+        RoadAttributes attributes = new RoadAttributes(edgeKeys, tolls, roadClasses);
+        roadNetwork.addListener(attributes);
+        return attributes;
+    }
+
+    @Override
+    public void onEdgesChanged(List<EdgeChange> changes) {
+        // 属性按道路端点索引，与边权无关
+    }
+
+    /**
+     * 把边键换成新编号后重新排序
+     */
+    @Override
+    public synchronized void onCitiesRenumbered(int[] newToOld) {
+        int[] oldToNew = new int[newToOld.length];
+        for (int v = 0; v < newToOld.length; v++) {
+            oldToNew[newToOld[v]] = v;
+        }
+        int count = edgeKeys.length;
+        long[] renumberedKeys = new long[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            renumberedKeys[i] = edgeKey(oldToNew[(int) (edgeKeys[i] >>> 32)], oldToNew[(int) edgeKeys[i]]);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(renumberedKeys[a], renumberedKeys[b]));
+
+        long[] newKeys = new long[count];
+        int[] newTolls = new int[count];
+        byte[] newRoadClasses = new byte[count];
+        for (int i = 0; i < count; i++) {
+            newKeys[i] = renumberedKeys[order[i]];
+            newTolls[i] = tolls[order[i]];
+            newRoadClasses[i] = roadClasses[order[i]];
+        }
+        edgeKeys = newKeys;
+        tolls = newTolls;
+        roadClasses = newRoadClasses;
+    }
+
+    /**
+     * 创建不含任何属性的实例（所有道路免费、等级为默认值）
+     */
+    public static RoadAttributes empty() {
+        return new RoadAttributes(new long[0], new int[0], new byte[0]);
+    }
+
+    /**
+     * 无向边键：较小编号在高32位
+     */
+    private static long edgeKey(int a, int b) {
+        int low = Math.min(a, b);
+        int high = Math.max(a, b);
+        return ((long) low << 32) | high;
+    }
+
+    public int getToll(int cityA, int cityB) {
+        int index = Arrays.binarySearch(edgeKeys, edgeKey(cityA, cityB));
+        return index < 0 ? 0 : tolls[index];
+    }
+
+    public int getRoadClass(int cityA, int cityB) {
+        int index = Arrays.binarySearch(edgeKeys, edgeKey(cityA, cityB));
+        return index < 0 ? DEFAULT_ROAD_CLASS : roadClasses[index];
+    }
+
+    /**
+     * 将一条道路的各项代价写入costs数组：距离、过路费、道路等级代价（距离×等级）
+     */
+    public void fillCosts(int cityA, int cityB, int distance, int[] costs) {
+        int index = Arrays.binarySearch(edgeKeys, edgeKey(cityA, cityB));
+        costs[0] = distance;
+        costs[1] = index < 0 ? 0 : tolls[index];
+        costs[2] = distance * (index < 0 ? DEFAULT_ROAD_CLASS : roadClasses[index]);
+    }
+}
@@ -0,0 +1,197 @@
+package org.example.cw;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 监视道路和景点数据文件，文件变化后在后台重新加载并原子地替换路由快照
+ *
+ * 新快照（路网、CSR图、地标索引）完全在后台线程中构建，构建完成后才通过AtomicReference
+ * 一次性替换，查询线程从不等待重载。加载失败时保留旧快照。
+ * 编辑器保存文件时通常会产生多个事件，最后一个事件之后等待DEBOUNCE_MILLIS再重载。
+ */
+public class RoadDataReloader implements Closeable {
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    private final Path roadsFile;
+    private final Path attractionsFile;
+    private final AtomicReference<RoutingSnapshot> current = new AtomicReference<>();
+    private final List<Consumer<RoutingSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService builder; // 单线程，保证重载不会并发进行
+    private WatchService watchService;
+    private Thread watchThread;
+    private ScheduledFuture<?> pendingReload;
+    private long generation;
+
+    /**
+     * 同步加载初始快照
+     */
+    public RoadDataReloader(Path roadsFile, Path attractionsFile) throws IOException {
+        this.roadsFile = roadsFile.toAbsolutePath();
+        this.attractionsFile = attractionsFile.toAbsolutePath();
+        this.builder = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "road-data-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        current.set(build());
+    }
+
+    /**
+     * 获取当前生效的快照
+     */
+    public RoutingSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * 注册快照替换监听器（在重载线程中调用）
+     */
+    public void addListener(Consumer<RoutingSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<RoutingSnapshot> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 开始监视数据文件所在的目录
+     */
+    public synchronized void start() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        Set<Path> directories = new LinkedHashSet<>();
+        directories.add(roadsFile.getParent());
+        directories.add(attractionsFile.getParent());
+        for (Path directory : directories) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+
+        WatchService service = watchService;
+        watchThread = new Thread(() -> watch(service), "road-data-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        scheduleReload(); // 事件丢失，无法判断是哪个文件
+                        continue;
+                    }
+                    Path changed = directory.resolve((Path) event.context());
+                    if (changed.equals(roadsFile) || changed.equals(attractionsFile)) {
+                        scheduleReload();
+                    }
+                }
+                if (!key.reset()) {
+                    System.err.println("数据目录已不可访问，停止监视: " + directory);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 已停止
+        }
+    }
+
+    /**
+     * 推迟重载，期间的新事件会重新计时
+     */
+    private synchronized void scheduleReload() {
+        if (pendingReload != null) {
+            pendingReload.cancel(false);
+        }
+        pendingReload = builder.schedule(() -> {
+            try {
+                reload();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("重新加载数据时出错，继续使用旧数据: " + e.getMessage());
+            }
+        }, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 立即在调用线程中重新加载并替换快照
+     */
+    public RoutingSnapshot reload() throws IOException {
+        RoutingSnapshot snapshot;
+        synchronized (builder) {
+            snapshot = build();
+            current.set(snapshot);
+        }
+        for (Consumer<RoutingSnapshot> listener : listeners) {
+            listener.accept(snapshot);
+        }
+        return snapshot;
+    }
+
+    private RoutingSnapshot build() throws IOException {
+        RoadNetwork roadNetwork = new RoadNetwork();
+        roadNetwork.loadData(roadsFile, attractionsFile);
+        // 文件写到一半或内容损坏时通常读不到任何道路，此时不替换旧数据
+        if (roadNetwork.getRoadGraph().getEdgeCount() == 0) {
+            throw new IOException("道路文件中没有有效的道路: " + roadsFile);
+        }
+        RoutingSnapshot snapshot = new RoutingSnapshot(roadNetwork, ++generation);
+        // 同一缓存目录同时只能由一个快照打开：新快照构建成功后才关闭旧快照的磁盘存储，
+        // 构建失败时旧快照继续使用它的存储
+        String cacheDirectory = System.getProperty(RoutingSnapshot.CACHE_DIRECTORY_PROPERTY);
+        if (cacheDirectory != null) {
+            RoutingSnapshot previous = current.get();
+            if (previous != null) {
+                try {
+                    previous.close();
+                } catch (IOException e) {
+                    System.err.println("关闭旧的分段缓存时出错: " + e.getMessage());
+                }
+            }
+            snapshot.openStore(Path.of(cacheDirectory));
+        }
+        return snapshot;
+    }
+
+    /**
+     * 停止监视和后台重载，并关闭当前快照的磁盘缓存
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+        builder.shutdownNow();
+        RoutingSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            snapshot.close();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.cw;
+
+/**
+ * 路由引擎使用的通用图接口
+ *
+ * 节点用0到getNodeCount()-1的整数表示。基于城市的图中节点就是城市编号；
+ * 基于边的扩展图（转向限制）中节点可能表示一条有向道路，通过toCity映射回城市。
+ */
+public interface RoadGraph {
+
+    /**
+     * 出边访问器
+     */
+    @FunctionalInterface
+    interface EdgeVisitor {
+        void visit(int target, int weight);
+    }
+
+    /**
+     * 获取节点数量
+     */
+    int getNodeCount();
+
+    /**
+     * 遍历节点的所有可通行出边
+     */
+    void forEachEdge(int node, EdgeVisitor visitor);
+
+    /**
+     * 获取反向图（双向搜索的后向部分使用）
+     */
+    RoadGraph getReverse();
+
+    /**
+     * 节点对应的城市编号
+     */
+    int toCity(int node);
+}
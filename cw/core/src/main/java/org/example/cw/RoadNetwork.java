@@ -0,0 +1,1034 @@
+package org.example.cw;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 表示道路网络，其中城市是节点，道路是带有距离权重的边
+ */
+public class RoadNetwork {
+    private Map<String, City> cities; // 城市全名到City对象的映射
+    private Map<String, Attraction> attractions; // 景点名称到Attraction对象的映射
+    private Map<String, String> cityToAttraction; // 城市到景点的映射
+    private List<City> cityList; // 按编号排列的城市
+    private ByteInternTable cityNames; // 城市全名到编号的驻留表，按字节查找
+    private List<RoadNetworkListener> listeners; // 路网变更监听器
+    private volatile long version; // 路网版本号，每次加载或变更后递增（快照和路线缓存据此失效）
+    private List<TurnRestriction> turnRestrictions; // 转向限制和转向代价
+    private int uTurnCost; // 掉头代价，TurnRestriction.FORBIDDEN表示禁止掉头
+    private CsrGraph roadGraph; // CSR格式的城市图，首次使用时构建
+    private OffHeapRoadGraph.Storage graphStorage; // CSR图的堆外存储方式，null表示存放在堆内
+    private boolean graphOnly; // 道路只保存在堆外的CSR图中，城市没有邻接表
+    private boolean compressedGraph; // 是否使用差分压缩的邻接表
+    private EdgeBasedGraph edgeBasedGraph; // 考虑转向的扩展图，首次使用时构建
+    private CsrGraph edgeBasedBase; // 扩展图的底图，城市图压缩时是解压后的副本
+    private DistanceTable distanceTable; // 所有城市对的距离表，首次使用时构建
+    private CsrGraph distanceTableGraph; // 计算距离表时的CSR图（距离表回溯路径用的是它的权重副本）
+    private long distanceTableWeights; // 距离表对应的权重版本号
+    private long graphWeightVersion; // CSR图的权重原地更新时递增
+    private boolean distanceTableBuilding; // 是否正在后台重建距离表
+    private volatile RoadNetworkSnapshot snapshot; // 最近一次发布的不可变快照，查询线程不加锁读取
+    private FuzzySearchIndex citySearchIndex; // 城市名搜索索引，首次搜索时建立
+    private FuzzySearchIndex attractionSearchIndex; // 景点名搜索索引，首次搜索时建立
+
+    // 后台重建距离表的线程：所有路网共用一个守护线程
+    private static final ExecutorService DISTANCE_TABLE_BUILDER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "distance-table-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RoadNetwork() {
+        cities = new HashMap<>();
+        attractions = new HashMap<>();
+        cityToAttraction = new HashMap<>();
+        cityList = new ArrayList<>();
+        cityNames = new ByteInternTable();
+        listeners = new ArrayList<>();
+        version = 0;
+        turnRestrictions = new ArrayList<>();
+        uTurnCost = 0;
+    }
+
+    /**
+     * 从资源文件加载城市和道路数据
+     */
+    public void loadData(String roadsFile, String attractionsFile) {
+        loadFromResources(roadsFile, attractionsFile);
+    }
+    
+    /**
+     * 从文件系统上的CSV文件加载城市和道路数据，文件无法打开时抛出异常
+     */
+    public void loadData(Path roadsFile, Path attractionsFile) throws IOException {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(FileChannel.open(attractionsFile, StandardOpenOption.READ))) {
+            loadAttractions(tokenizer);
+        }
+        loadRoadsFile(roadsFile);
+    }
+    
+    /**
+     * 从资源文件加载数据
+     */
+    private void loadFromResources(String roadsFile, String attractionsFile) {
+        try {
+            InputStream attractionsStream = getClass().getResourceAsStream(attractionsFile);
+            if (attractionsStream != null) {
+                try (CsvTokenizer tokenizer = new CsvTokenizer(attractionsStream)) {
+                    loadAttractions(tokenizer);
+                }
+            } else {
+                System.err.println("景点资源文件未找到: " + attractionsFile);
+            }
+            
+            InputStream roadsStream = getClass().getResourceAsStream(roadsFile);
+            if (roadsStream != null) {
+                try (CsvTokenizer tokenizer = new CsvTokenizer(roadsStream)) {
+                    loadRoads(tokenizer);
+                }
+            } else {
+                System.err.println("道路资源文件未找到: " + roadsFile);
+            }
+        } catch (Exception e) {
+            System.err.println("加载资源文件时出错: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * 从文件系统上的CSV文件加载道路数据（用于编译二进制图等离线工具）
+     */
+    public void loadRoadsFile(Path roadsFile) throws IOException {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(FileChannel.open(roadsFile, StandardOpenOption.READ))) {
+            loadRoads(tokenizer);
+        }
+    }
+    
+    /**
+     * 多线程加载大型道路文件，CSR图在加载时直接构建
+     * 路网为空且设置了堆外存储时不构建城市的邻接表，见setGraphStorage
+     */
+    public void loadRoadsParallel(Path roadsFile, int threads) throws IOException {
+        ParallelRoadLoader.Result result = new ParallelRoadLoader(threads).load(roadsFile);
+        loadImported(new ImportedGraph(result.getGraph(), result.getCityNames(), null, null));
+    }
+    
+    /**
+     * 导入DIMACS格式的路网（.gr道路文件和可选的.co坐标文件，coordinatesFile可以为null）
+     */
+    public void loadDimacs(Path graphFile, Path coordinatesFile) throws IOException {
+        loadImported(new DimacsImporter().load(graphFile, coordinatesFile));
+    }
+    
+    /**
+     * 从本地OSM PBF文件导入可路由的路网
+     */
+    public void loadOsmPbf(Path pbfFile) throws IOException {
+        loadImported(new OsmPbfImporter().load(pbfFile));
+    }
+    
+    /**
+     * 从CSV文件加载城市坐标（格式：City,Latitude,Longitude），不存在的城市被忽略
+     */
+    public void loadCoordinates(Path coordinatesFile) throws IOException {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(FileChannel.open(coordinatesFile, StandardOpenOption.READ))) {
+            tokenizer.nextRecord(); // 跳过标题行
+            
+            while (tokenizer.nextRecord()) {
+                if (tokenizer.getFieldCount() >= 3) {
+                    City city = findCity(tokenizer, 0);
+                    if (city == null) {
+                        continue;
+                    }
+                    try {
+                        city.setCoordinates(Double.parseDouble(tokenizer.getString(1)),
+                                Double.parseDouble(tokenizer.getString(2)));
+                    } catch (NumberFormatException e) {
+                        System.err.println("第 " + tokenizer.getLineNumber() + " 行的坐标无效: " + e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            dataLoaded(false);
+        }
+    }
+    
+    private void loadImported(ImportedGraph imported) {
+        City[] loaded = adoptGraph(imported);
+        if (imported.hasCoordinates()) {
+            for (int v = 0; v < loaded.length; v++) {
+                if (!Double.isNaN(imported.getLatitude(v))) {
+                    loaded[v].setCoordinates(imported.getLatitude(v), imported.getLongitude(v));
+                }
+            }
+            dataLoaded(false);
+        }
+    }
+    
+    /**
+     * 把已构建好的CSR图并入路网
+     * 路网为空时直接作为路由使用的CSR图，否则按城市全名合并到已有路网。
+     * 路网为空且设置了堆外存储（未压缩）时，城市按图中编号创建、不建邻接表，道路连同坐标只复制到堆外，
+     * 加载器的堆内CSR图随后即可回收。
+     *
+     * @return 按图中编号排列的城市
+     */
+    private City[] adoptGraph(ImportedGraph imported) {
+        String[] names = imported.getCityNames();
+        CsrRoadGraph graph = imported.getGraph();
+        boolean empty = cityList.isEmpty();
+        if (!empty) {
+            ensureCityAdjacency();
+        }
+        boolean skipAdjacency = empty && graphStorage != null && !compressedGraph;
+        City[] loaded = new City[names.length];
+        for (int i = 0; i < names.length; i++) {
+            loaded[i] = getOrCreateCity(names[i]);
+        }
+        
+        for (int v = 0; v < names.length && !skipAdjacency; v++) {
+            int first = graph.getFirstEdge(v);
+            int degree = graph.getEndEdge(v) - first;
+            if (loaded[v].getDegree() == 0) {
+                // 新城市：CSR中的邻居没有重复，直接整体设置
+                City[] neighbors = new City[degree];
+                int[] distances = new int[degree];
+                for (int i = 0; i < degree; i++) {
+                    neighbors[i] = loaded[graph.getTarget(first + i)];
+                    distances[i] = graph.getWeight(first + i);
+                }
+                loaded[v].setConnections(neighbors, distances, degree);
+            } else {
+                for (int e = first; e < first + degree; e++) {
+                    loaded[v].addConnection(loaded[graph.getTarget(e)], graph.getWeight(e));
+                }
+            }
+        }
+        
+        synchronized (this) {
+            if (!empty) {
+                roadGraph = null;
+            } else if (compressedGraph) {
+                roadGraph = CompressedRoadGraph.compress(graph);
+            } else if (graphStorage == null) {
+                roadGraph = graph;
+            } else {
+                roadGraph = OffHeapRoadGraph.copyOf(graph, imported.getLatitudes(), imported.getLongitudes(),
+                        graphStorage);
+            }
+            graphOnly = skipAdjacency;
+            edgeBasedGraph = null;
+            version++;
+        }
+        return loaded;
+    }
+    
+    /**
+     * 从资源文件加载转向限制（格式：From,Via,To,Cost，Cost为forbidden表示禁止转向）
+     */
+    public void loadTurnRestrictions(String turnsFile) {
+        InputStream turnsStream = getClass().getResourceAsStream(turnsFile);
+        if (turnsStream == null) {
+            System.err.println("转向限制资源文件未找到: " + turnsFile);
+            return;
+        }
+        try (CsvTokenizer tokenizer = new CsvTokenizer(turnsStream)) {
+            tokenizer.nextRecord(); // 跳过标题行
+            
+            while (tokenizer.nextRecord()) {
+                if (tokenizer.getFieldCount() >= 4) {
+                    City from = findCity(tokenizer, 0);
+                    City via = findCity(tokenizer, 1);
+                    City to = findCity(tokenizer, 2);
+                    if (from == null || via == null || to == null) {
+                        System.err.println("第 " + tokenizer.getLineNumber() + " 行的转向限制中的城市不存在");
+                        continue;
+                    }
+                    int cost = tokenizer.equalsIgnoreCase(3, "forbidden") ? TurnRestriction.FORBIDDEN : tokenizer.getInt(3);
+                    addTurnRestriction(new TurnRestriction(from, via, to, cost));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("加载转向限制时出错: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 从CSV文件加载景点数据
+     */
+    private void loadAttractions(CsvTokenizer tokenizer) {
+        try {
+            tokenizer.nextRecord(); // 跳过标题行
+            
+            while (tokenizer.nextRecord()) {
+                if (tokenizer.getFieldCount() >= 2) {
+                    String attractionName = tokenizer.getString(0);
+                    
+                    // 如果城市不存在则创建
+                    City city = getOrCreateCity(tokenizer, 1);
+                    putAttraction(attractionName, city);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("加载景点时出错: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 从CSV文件加载道路数据
+     * 城市名按字节驻留，已出现过的城市不会再创建任何字符串，距离原地解析
+     */
+    private void loadRoads(CsvTokenizer tokenizer) {
+        ensureCityAdjacency();
+        try {
+            tokenizer.nextRecord(); // 跳过标题行
+            
+            while (tokenizer.nextRecord()) {
+                if (tokenizer.getFieldCount() >= 3) {
+                    int distance;
+                    try {
+                        distance = tokenizer.getInt(2);
+                    } catch (NumberFormatException e) {
+                        System.err.println("跳过无效的道路: " + e.getMessage());
+                        continue;
+                    }
+                    
+                    // 如果城市不存在则创建
+                    City cityA = getOrCreateCity(tokenizer, 0);
+                    City cityB = getOrCreateCity(tokenizer, 1);
+                    
+                    // 添加连接（双向）
+                    cityA.addConnection(cityB, distance);
+                    cityB.addConnection(cityA, distance); // 图是无向的
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("加载道路时出错: " + e.getMessage());
+        } finally {
+            dataLoaded(true); // 出错时已读入的道路同样生效
+        }
+    }
+    
+    /**
+     * 加载器修改了城市、道路或坐标之后调用：递增版本号，使按版本缓存的快照和路线失效
+     *
+     * @param roadsChanged 是否加入了道路，是则丢弃按旧道路构建的图
+     */
+    private synchronized void dataLoaded(boolean roadsChanged) {
+        if (roadsChanged) {
+            roadGraph = null;
+            edgeBasedGraph = null;
+        }
+        version++;
+    }
+    
+    /**
+     * 添加景点并与所在城市关联，同名景点已存在时替换
+     */
+    private void putAttraction(String attractionName, City city) {
+        removeAttraction(attractionName);
+        String cityFullName = city.getFullName();
+        attractions.put(attractionName, new Attraction(attractionName, cityFullName));
+        city.setAttractionName(attractionName);
+        cityToAttraction.put(cityFullName, attractionName);
+        if (attractionSearchIndex != null) {
+            attractionSearchIndex.add(attractionName);
+        }
+        version++;
+    }
+    
+    /**
+     * 删除景点，返回是否存在
+     */
+    private boolean removeAttraction(String attractionName) {
+        Attraction attraction = attractions.remove(attractionName);
+        if (attraction == null) {
+            return false;
+        }
+        City city = cities.get(attraction.getLocation());
+        if (city != null && attractionName.equals(city.getAttractionName())) {
+            city.setAttractionName(null);
+            cityToAttraction.remove(attraction.getLocation());
+        }
+        if (attractionSearchIndex != null) {
+            attractionSearchIndex.remove(attractionName);
+        }
+        version++;
+        return true;
+    }
+    
+    /**
+     * 按CSV字段中的全名获取城市，不存在时创建
+     */
+    private City getOrCreateCity(CsvTokenizer tokenizer, int field) {
+        int id = tokenizer.intern(field, cityNames);
+        if (id < cityList.size()) {
+            return cityList.get(id);
+        }
+        return createCity(tokenizer.getString(field), id);
+    }
+    
+    /**
+     * 按CSV字段中的全名查找城市，不存在时返回null
+     */
+    private City findCity(CsvTokenizer tokenizer, int field) {
+        int id = tokenizer.find(field, cityNames);
+        return id < 0 ? null : cityList.get(id);
+    }
+    
+    /**
+     * 按全名获取城市，不存在时创建并分配编号
+     */
+    private City getOrCreateCity(String fullName) {
+        int id = cityNames.intern(fullName);
+        if (id < cityList.size()) {
+            return cityList.get(id);
+        }
+        return createCity(fullName, id);
+    }
+    
+    /**
+     * 创建城市：全名的最后一个单词是州，其余部分是城市名
+     */
+    private City createCity(String fullName, int id) {
+        int split = fullName.lastIndexOf(' ');
+        City city = new City(split < 0 ? "" : fullName.substring(0, split), fullName.substring(split + 1));
+        city.setId(id);
+        cityList.add(city);
+        cities.put(fullName, city);
+        if (citySearchIndex != null) {
+            citySearchIndex.add(fullName);
+        }
+        return city;
+    }
+    
+    /**
+     * 批量应用道路变更（封路、改变距离、新增道路）
+     * 只修改受影响的边，并通知监听器增量更新其路由索引
+     * 整批要么全部生效要么都不生效：先检查所有端点，有不存在的城市时不做任何修改
+     *
+     * @param updates 道路变更列表
+     * @return 实际生效的边变更
+     * @throws IllegalArgumentException 某个变更的端点不存在时
+     */
+    public synchronized List<EdgeChange> applyEdgeUpdates(List<EdgeUpdate> updates) {
+        for (EdgeUpdate update : updates) {
+            if (!cities.containsKey(update.getCityA()) || !cities.containsKey(update.getCityB())) {
+                throw new IllegalArgumentException("找不到道路端点: " + update.getCityA() + " - " + update.getCityB());
+            }
+        }
+
+        if (graphOnly && !updatableInPlace(updates)) {
+            ensureCityAdjacency(); // 新增道路或城市，CSR图放不下
+        }
+
+        List<EdgeChange> changes = new ArrayList<>();
+        for (EdgeUpdate update : updates) {
+            City cityA = cities.get(update.getCityA());
+            City cityB = cities.get(update.getCityB());
+            int oldDistance = graphOnly
+                    ? roadGraph.getWeight(roadGraph.findEdge(cityA.getId(), cityB.getId()))
+                    : cityA.getDistanceTo(cityB);
+            int newDistance = update.getDistance();
+            if (oldDistance == newDistance) {
+                continue; // 没有变化
+            }
+            
+            if (graphOnly) {
+                // 道路只在CSR图中，由updateRoadGraph原地更新
+            } else if (update.isClosure()) {
+                cityA.removeConnection(cityB);
+                cityB.removeConnection(cityA);
+            } else {
+                cityA.addConnection(cityB, newDistance);
+                cityB.addConnection(cityA, newDistance); // 图是无向的
+            }
+            updateRoadGraph(cityA, cityB, newDistance);
+            changes.add(new EdgeChange(cityA, cityB, oldDistance, newDistance));
+        }
+        
+        if (!changes.isEmpty()) {
+            version++;
+            for (RoadNetworkListener listener : listeners) {
+                listener.onEdgesChanged(changes);
+            }
+        }
+        return changes;
+    }
+    
+    /**
+     * 所有变更是否都落在CSR图已有的边上（包括已封闭的道路），可以只原地修改权重
+     */
+    private boolean updatableInPlace(List<EdgeUpdate> updates) {
+        int nodeCount = roadGraph.getNodeCount();
+        for (EdgeUpdate update : updates) {
+            int a = cities.get(update.getCityA()).getId();
+            int b = cities.get(update.getCityB()).getId();
+            if (a >= nodeCount || b >= nodeCount || roadGraph.findEdge(a, b) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 按CSR图补建城市的邻接表，之后按普通路网处理
+     * 堆外加载的路网城市没有邻接表；合并加载、新增道路、重新编号、更换图的存储方式，
+     * 以及直接遍历邻接表的规划器（续航约束、多目标、时间相关）在使用前调用它。
+     */
+    synchronized void ensureCityAdjacency() {
+        if (!graphOnly) {
+            return;
+        }
+        CsrGraph graph = roadGraph;
+        for (int v = 0; v < graph.getNodeCount(); v++) {
+            int first = graph.getFirstEdge(v);
+            int end = graph.getEndEdge(v);
+            City[] neighbors = new City[end - first];
+            int[] distances = new int[end - first];
+            int degree = 0;
+            for (int e = first; e < end; e++) {
+                int weight = graph.getWeight(e);
+                if (weight != EdgeUpdate.CLOSED) {
+                    neighbors[degree] = cityList.get(graph.getTarget(e));
+                    distances[degree++] = weight;
+                }
+            }
+            cityList.get(v).setConnections(neighbors, distances, degree);
+        }
+        graphOnly = false;
+    }
+    
+    /**
+     * 城市是否保存了邻接表；堆外加载的路网在ensureCityAdjacency之前只有CSR图
+     */
+    synchronized boolean hasCityAdjacency() {
+        return !graphOnly;
+    }
+    
+    /**
+     * 把边权变更同步到CSR图；新增的道路不在CSR中，丢弃图以便下次使用时重建
+     */
+    private void updateRoadGraph(City cityA, City cityB, int distance) {
+        if (roadGraph == null) {
+            return;
+        }
+        graphWeightVersion++;
+        int nodeCount = roadGraph.getNodeCount();
+        if (cityA.getId() >= nodeCount || cityB.getId() >= nodeCount
+                || !roadGraph.updateWeight(cityA.getId(), cityB.getId(), distance)
+                || !roadGraph.updateWeight(cityB.getId(), cityA.getId(), distance)) {
+            roadGraph = null;
+            edgeBasedGraph = null;
+        } else if (edgeBasedGraph != null && edgeBasedBase != roadGraph) {
+            // 扩展图使用解压后的副本，同样原地更新
+            edgeBasedBase.updateWeight(cityA.getId(), cityB.getId(), distance);
+            edgeBasedBase.updateWeight(cityB.getId(), cityA.getId(), distance);
+        }
+    }
+    
+    /**
+     * 获取CSR格式的城市图，首次调用时构建，之后随边权变更原地更新
+     */
+    public synchronized CsrGraph getRoadGraph() {
+        if (roadGraph == null) {
+            if (compressedGraph) {
+                roadGraph = CompressedRoadGraph.compress(CsrRoadGraph.fromRoadNetwork(this));
+            } else if (graphStorage != null) {
+                roadGraph = OffHeapRoadGraph.fromRoadNetwork(this, graphStorage);
+            } else {
+                roadGraph = CsrRoadGraph.fromRoadNetwork(this);
+            }
+        }
+        return roadGraph;
+    }
+    
+    /**
+     * 设置是否使用压缩邻接表（CompressedRoadGraph），大路网上可减少内存带宽，优先于堆外存储设置
+     * 已构建的图会在下次使用时按新方式重建
+     */
+    public synchronized void setCompressedGraph(boolean compressedGraph) {
+        ensureCityAdjacency();
+        this.compressedGraph = compressedGraph;
+        roadGraph = null;
+        edgeBasedGraph = null;
+    }
+    
+    /**
+     * 设置CSR图的存储方式：null表示堆内数组，否则存放在堆外（大路网可避免长时间GC停顿）
+     * 已构建的图会在下次使用时按新方式重建。
+     * 在空路网上先设置堆外存储，再用loadRoadsParallel、loadDimacs或loadOsmPbf加载时，城市不建邻接表，
+     * 道路和坐标只在堆外，堆上只剩与城市数成正比的名称和编号，可以路由比堆更大的路网。
+     * 这种路网上修改已有道路的距离或封路只原地更新CSR图；合并加载、新增道路或城市、重新编号
+     * 和直接遍历邻接表的规划器会先按CSR图补建邻接表（ensureCityAdjacency），之后与普通路网相同。
+     * 其他加载方式只影响路由用的CSR图，城市的邻接表仍在堆上。
+     */
+    public synchronized void setGraphStorage(OffHeapRoadGraph.Storage graphStorage) {
+        ensureCityAdjacency();
+        this.graphStorage = graphStorage;
+        roadGraph = null;
+        edgeBasedGraph = null;
+    }
+    
+    /**
+     * 按重排策略为城市重新编号，提高路由时的缓存局部性
+     */
+    public void reorderCities(GraphReordering.Strategy strategy) {
+        renumberCities(GraphReordering.computeOrder(this, strategy));
+    }
+    
+    /**
+     * 为城市重新编号：newToOld[新编号] = 旧编号
+     * 城市全名不变，所有按编号索引的结构（名称驻留表、CSR图、邻居索引）随之重建，
+     * 监听器（如地标索引）通过onCitiesRenumbered重排自己的数据
+     */
+    public synchronized void renumberCities(int[] newToOld) {
+        int n = cityList.size();
+        if (newToOld.length != n) {
+            throw new IllegalArgumentException("排列长度 " + newToOld.length + " 与城市数 " + n + " 不符");
+        }
+        ensureCityAdjacency();
+        boolean[] seen = new boolean[n];
+        List<City> renumbered = new ArrayList<>(n);
+        ByteInternTable names = new ByteInternTable();
+        for (int v = 0; v < n; v++) {
+            int old = newToOld[v];
+            if (old < 0 || old >= n || seen[old]) {
+                throw new IllegalArgumentException("不是有效的排列: 位置 " + v + " 的编号 " + old);
+            }
+            seen[old] = true;
+            City city = cityList.get(old);
+            renumbered.add(city);
+            names.intern(city.getFullName());
+        }
+        for (int v = 0; v < n; v++) {
+            renumbered.get(v).setId(v);
+        }
+        for (City city : renumbered) {
+            city.reindexNeighbors();
+        }
+        cityList = renumbered;
+        cityNames = names;
+        roadGraph = null;
+        edgeBasedGraph = null;
+        version++;
+        for (RoadNetworkListener listener : listeners) {
+            listener.onCitiesRenumbered(newToOld);
+        }
+    }
+    
+    /**
+     * 获取考虑转向限制的扩展图，首次调用时构建
+     */
+    public synchronized EdgeBasedGraph getEdgeBasedGraph() {
+        CsrGraph base = getRoadGraph();
+        if (edgeBasedGraph == null) {
+            // 扩展图每次扩展都按边编号随机访问底图，压缩图上这很慢，改用解压后的副本
+            edgeBasedBase = base instanceof CompressedRoadGraph ? ((CompressedRoadGraph) base).decompress() : base;
+            edgeBasedGraph = new EdgeBasedGraph(edgeBasedBase, turnRestrictions, uTurnCost);
+        }
+        return edgeBasedGraph;
+    }
+    
+    /**
+     * 获取所有城市对的距离表，没有与当前道路一致的距离表时在调用线程中计算
+     * n个城市需要n²个距离，只适合中小规模的路网。
+     * 距离表跟随CSR图和它的权重，景点等不影响道路的变更不会使它失效。
+     * 计算在锁外的权重副本上进行，期间道路发生变更时仍返回算好的距离表（与副本一致），只是不发布为当前距离表。
+     */
+    public DistanceTable getDistanceTable() {
+        CsrGraph graph;
+        CsrGraph copy;
+        long weights;
+        synchronized (this) {
+            if (hasDistanceTable()) {
+                return distanceTable;
+            }
+            graph = getRoadGraph();
+            weights = graphWeightVersion;
+            copy = CsrRoadGraph.copyOf(graph);
+        }
+        DistanceTable table = DistanceTable.compute(copy);
+        publishDistanceTable(table, graph, weights);
+        return table;
+    }
+
+    /**
+     * 获取与当前道路一致的距离表，不阻塞查询
+     * 距离表不存在或道路变更后已过期时返回null，并在后台重建（同时只重建一次），
+     * 重建完成前调用方照常搜索；实时路况下每批变更都会使它过期，查询不会因此在调用线程中做全源计算。
+     */
+    public synchronized DistanceTable getCurrentDistanceTable() {
+        if (hasDistanceTable()) {
+            return distanceTable;
+        }
+        if (!distanceTableBuilding) {
+            CsrGraph graph = getRoadGraph();
+            long weights = graphWeightVersion;
+            CsrGraph copy = CsrRoadGraph.copyOf(graph);
+            distanceTableBuilding = true;
+            try {
+                DISTANCE_TABLE_BUILDER.execute(() -> buildDistanceTable(copy, graph, weights));
+            } catch (RejectedExecutionException e) {
+                distanceTableBuilding = false;
+            }
+        }
+        return null;
+    }
+
+    private void buildDistanceTable(CsrGraph copy, CsrGraph graph, long weights) {
+        try {
+            publishDistanceTable(DistanceTable.compute(copy), graph, weights);
+        } catch (RuntimeException e) {
+            System.err.println("后台重建距离表时出错: " + e);
+        } finally {
+            synchronized (this) {
+                distanceTableBuilding = false;
+            }
+        }
+    }
+
+    /**
+     * 计算期间道路没有变更时把距离表发布为当前距离表
+     */
+    private synchronized void publishDistanceTable(DistanceTable table, CsrGraph graph, long weights) {
+        if (roadGraph == graph && graphWeightVersion == weights) {
+            distanceTable = table;
+            distanceTableGraph = graph;
+            distanceTableWeights = weights;
+        }
+    }
+    
+    /**
+     * 获取当前内容的不可变快照，路网未变更时返回同一个快照
+     * 快照可以交给任意多个查询线程使用，之后对路网的修改不会影响它。
+     * 已发布的快照通过volatile字段读取，不获取路网的锁；只有变更后的第一次调用在锁内复制一次并发布新快照。
+     */
+    public RoadNetworkSnapshot snapshot() {
+        RoadNetworkSnapshot current = snapshot;
+        if (current != null && current.getVersion() == version) {
+            return current;
+        }
+        return publishSnapshot();
+    }
+
+    private synchronized RoadNetworkSnapshot publishSnapshot() {
+        RoadNetworkSnapshot current = snapshot;
+        if (current == null || current.getVersion() != version) {
+            current = RoadNetworkSnapshot.copyOf(this);
+            snapshot = current;
+        }
+        return current;
+    }
+    
+    /**
+     * 距离表是否已经计算且仍然有效
+     */
+    public synchronized boolean hasDistanceTable() {
+        return distanceTable != null && distanceTableGraph == roadGraph && distanceTableWeights == graphWeightVersion;
+    }
+    
+    /**
+     * 添加转向限制，扩展图会在下次使用时重建
+     */
+    public synchronized void addTurnRestriction(TurnRestriction restriction) {
+        turnRestrictions.add(restriction);
+        edgeBasedGraph = null;
+        version++;
+    }
+    
+    /**
+     * 获取所有转向限制
+     */
+    public List<TurnRestriction> getTurnRestrictions() {
+        return Collections.unmodifiableList(turnRestrictions);
+    }
+    
+    /**
+     * 设置掉头代价，TurnRestriction.FORBIDDEN表示禁止掉头
+     */
+    public synchronized void setUTurnCost(int uTurnCost) {
+        this.uTurnCost = uTurnCost;
+        edgeBasedGraph = null;
+        version++;
+    }
+    
+    /**
+     * 应用增量数据文件，只更新受影响的道路、景点和索引，不重新加载整个路网
+     *
+     * 文件格式（首行为标题）：操作,类型,字段1,字段2,字段3
+     * - "+,road,城市A,城市B,距离" 新增道路或修改距离（"~"与"+"相同），城市不存在时创建
+     * - "-,road,城市A,城市B" 删除道路
+     * - "+,attraction,景点名,所在城市" 新增或移动景点
+     * - "-,attraction,景点名" 删除景点
+     * 所有道路变更合并为一次applyEdgeUpdates，地标索引随之增量更新。
+     * 只修改已有道路的距离或封路时CSR图原地更新；新增道路或城市时CSR图放不下新边，会在下次使用时重建。
+     * 距离无效（不是整数或为负数）的行被跳过，不影响文件中的其他变更。
+     *
+     * @return 实际生效的变更数
+     */
+    public synchronized int applyDelta(Path deltaFile) throws IOException {
+        List<EdgeUpdate> roadUpdates = new ArrayList<>();
+        int attractionChanges = 0;
+        
+        try (CsvTokenizer tokenizer = new CsvTokenizer(FileChannel.open(deltaFile, StandardOpenOption.READ))) {
+            tokenizer.nextRecord(); // 跳过标题行
+            
+            while (tokenizer.nextRecord()) {
+                if (tokenizer.getFieldCount() < 3) {
+                    continue;
+                }
+                boolean add = tokenizer.equalsIgnoreCase(0, "+") || tokenizer.equalsIgnoreCase(0, "~");
+                boolean remove = tokenizer.equalsIgnoreCase(0, "-");
+                if (!add && !remove) {
+                    System.err.println("第 " + tokenizer.getLineNumber() + " 行的操作无效: " + tokenizer.getString(0));
+                    continue;
+                }
+                
+                if (tokenizer.equalsIgnoreCase(1, "road")) {
+                    if (add && tokenizer.getFieldCount() >= 5) {
+                        int distance;
+                        try {
+                            distance = tokenizer.getInt(4);
+                        } catch (NumberFormatException e) {
+                            System.err.println("跳过无效的道路: " + e.getMessage());
+                            continue;
+                        }
+                        if (distance < 0) {
+                            // 在创建城市之前检查，无效的行不留下任何痕迹
+                            System.err.println("跳过无效的道路: 第 " + tokenizer.getLineNumber() + " 行的距离为负数 "
+                                    + distance);
+                            continue;
+                        }
+                        City cityA = getOrCreateCity(tokenizer, 2);
+                        City cityB = getOrCreateCity(tokenizer, 3);
+                        roadUpdates.add(EdgeUpdate.setDistance(cityA.getFullName(), cityB.getFullName(), distance));
+                    } else if (remove && tokenizer.getFieldCount() >= 4) {
+                        City cityA = findCity(tokenizer, 2);
+                        City cityB = findCity(tokenizer, 3);
+                        if (cityA != null && cityB != null) {
+                            roadUpdates.add(EdgeUpdate.close(cityA.getFullName(), cityB.getFullName()));
+                        }
+                    }
+                } else if (tokenizer.equalsIgnoreCase(1, "attraction")) {
+                    String attractionName = tokenizer.getString(2);
+                    if (add && tokenizer.getFieldCount() >= 4) {
+                        putAttraction(attractionName, getOrCreateCity(tokenizer, 3));
+                        attractionChanges++;
+                    } else if (remove && removeAttraction(attractionName)) {
+                        attractionChanges++;
+                    }
+                } else {
+                    System.err.println("第 " + tokenizer.getLineNumber() + " 行的类型无效: " + tokenizer.getString(1));
+                }
+            }
+        }
+        
+        return applyEdgeUpdates(roadUpdates).size() + attractionChanges;
+    }
+    
+    /**
+     * 封闭两城市间的道路
+     */
+    public void closeRoad(String cityA, String cityB) {
+        applyEdgeUpdates(Collections.singletonList(EdgeUpdate.close(cityA, cityB)));
+    }
+    
+    /**
+     * 修改（或新增）两城市间的道路距离
+     */
+    public void updateRoadDistance(String cityA, String cityB, int distance) {
+        applyEdgeUpdates(Collections.singletonList(EdgeUpdate.setDistance(cityA, cityB, distance)));
+    }
+    
+    /**
+     * 注册路网变更监听器
+     */
+    public synchronized void addListener(RoadNetworkListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * 移除路网变更监听器
+     */
+    public synchronized void removeListener(RoadNetworkListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * 获取路网版本号，边权、景点、转向限制变更或城市重新编号后递增
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * 计算路网内容的64位哈希（FNV-1a）
+     *
+     * 覆盖按编号排列的城市名、每条边的终点和距离、转向限制和掉头代价，
+     * 内容相同且编号相同的路网哈希相同，与加载方式和版本号无关。用于识别持久化缓存是否过期。
+     */
+    public synchronized long contentHash() {
+        CsrGraph graph = getRoadGraph();
+        long hash = 0xCBF29CE484222325L;
+        hash = mixHash(hash, cityList.size());
+        for (int v = 0; v < cityList.size(); v++) {
+            for (byte b : cityList.get(v).getFullName().getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+            }
+            hash = mixHash(hash, graph.getEndEdge(v) - graph.getFirstEdge(v));
+            for (int e = graph.getFirstEdge(v); e < graph.getEndEdge(v); e++) {
+                hash = mixHash(hash, graph.getTarget(e));
+                hash = mixHash(hash, graph.getWeight(e));
+            }
+        }
+        for (TurnRestriction restriction : turnRestrictions) {
+            hash = mixHash(hash, restriction.getFromCity().getId());
+            hash = mixHash(hash, restriction.getViaCity().getId());
+            hash = mixHash(hash, restriction.getToCity().getId());
+            hash = mixHash(hash, restriction.getCost());
+        }
+        return mixHash(hash, uTurnCost);
+    }
+    
+    private static long mixHash(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xFF)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+    
+    /**
+     * 通过编号获取城市
+     */
+    public City getCityById(int id) {
+        return cityList.get(id);
+    }
+    
+    /**
+     * 获取城市数量（城市编号范围为 0 到 数量-1）
+     */
+    public int getCityCount() {
+        return cityList.size();
+    }
+    
+    /**
+     * 通过全名（城市+州）获取城市
+     */
+    public City getCity(String fullName) {
+        return cities.get(fullName);
+    }
+    
+    /**
+     * 获取网络中的所有城市
+     */
+    public Collection<City> getAllCities() {
+        return cities.values();
+    }
+    
+    /**
+     * 通过名称获取景点
+     */
+    public Attraction getAttraction(String name) {
+        return attractions.get(name);
+    }
+    
+    /**
+     * 获取所有景点
+     */
+    public Collection<Attraction> getAllAttractions() {
+        return attractions.values();
+    }
+    
+    /**
+     * 获取城市中的景点（如果存在）
+     */
+    public String getAttractionInCity(String cityName) {
+        return cityToAttraction.get(cityName);
+    }
+    
+    /**
+     * 获取所有城市名称列表
+     */
+    public List<String> getAllCityNames() {
+        return new ArrayList<>(cities.keySet());
+    }
+    
+    /**
+     * 获取所有景点名称列表
+     */
+    public List<String> getAllAttractionNames() {
+        return new ArrayList<>(attractions.keySet());
+    }
+    
+    /**
+     * 检查城市是否存在
+     */
+    public boolean cityExists(String fullName) {
+        return cities.containsKey(fullName);
+    }
+    
+    /**
+     * 检查景点是否存在
+     */
+    public boolean attractionExists(String name) {
+        return attractions.containsKey(name);
+    }
+    
+    /**
+     * 获取景点所在的城市
+     */
+    public City getCityForAttraction(String attractionName) {
+        Attraction attraction = attractions.get(attractionName);
+        if (attraction != null) {
+            return cities.get(attraction.getLocation());
+        }
+        return null;
+    }
+    
+    /**
+     * 根据模糊输入查找城市（不区分大小写的子串匹配），索引在首次查询时建立
+     */
+    public synchronized List<String> findCitiesByFuzzyName(String fuzzyName) {
+        if (citySearchIndex == null) {
+            citySearchIndex = new FuzzySearchIndex(cities.keySet());
+        }
+        return citySearchIndex.search(fuzzyName);
+    }
+    
+    /**
+     * 根据模糊输入查找景点（不区分大小写的子串匹配），索引在首次查询时建立
+     */
+    public synchronized List<String> findAttractionsByFuzzyName(String fuzzyName) {
+        if (attractionSearchIndex == null) {
+            attractionSearchIndex = new FuzzySearchIndex(attractions.keySet());
+        }
+        return attractionSearchIndex.search(fuzzyName);
+    }
+    
+    /**
+     * 给指定城市设置经纬度坐标
+     */
+    public void setCityCoordinates(String cityName, double latitude, double longitude) {
+        City city = cities.get(cityName);
+        if (city != null) {
+            city.setCoordinates(latitude, longitude);
+            dataLoaded(false);
+        }
+    }
+
+    /**
+     * 获取城市列表，包括其坐标信息
+     */
+    public Collection<City> getCities() {
+        return cities.values();
+    }
+} 
\ No newline at end of file
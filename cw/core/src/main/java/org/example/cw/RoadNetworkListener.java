@@ -0,0 +1,23 @@
+package org.example.cw;
+
+import java.util.List;
+
+/**
+ * 道路网络变更监听器
+ */
+public interface RoadNetworkListener {
+    /**
+     * 一批边权变更生效后调用
+     *
+     * @param changes 本批次实际生效的边变更
+     */
+    void onEdgesChanged(List<EdgeChange> changes);
+    
+    /**
+     * 城市重新编号后调用，按编号索引的数据需要随之重排
+     *
+     * @param newToOld newToOld[新编号] = 旧编号
+     */
+    default void onCitiesRenumbered(int[] newToOld) {
+    }
+}
@@ -0,0 +1,525 @@
+package org.example.cw;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * 不可变的路网快照，可以被任意多个线程同时查询而不加锁
+ *
+ * RoadNetwork、City和RoutePlanner都是可变的，加载和增量更新会与查询线程竞争。
+ * 快照在构建时复制城市名、CSR图、坐标和景点，之后不再修改，除按需建立的名称搜索索引外所有字段都是final的，
+ * 通过final字段语义安全发布。演进采用写时复制：
+ * - withEdgeUpdates只修改已有道路时共享城市表和图结构，只复制权重数组
+ * - 其他变更通过toBuilder()得到预填充的Builder，修改后build()出新快照
+ * 每个新快照的版本号比源快照大1。最短路径引擎从无锁队列中借用，用完归还，不同线程互不干扰。
+ */
+public final class RoadNetworkSnapshot {
+    public static final int MAX_ATTRACTIONS = 64; // 按顺序访问时每次route查询的景点上限
+    public static final int MAX_UNORDERED_ATTRACTIONS = 8; // 不按顺序时要枚举全排列，8! = 40320
+
+    private final long version;
+    private final String[] cityNames; // 按编号排列
+    private final Map<String, Integer> cityIds;
+    private final CsrRoadGraph graph;
+    private final double[] latitudes; // 没有坐标的城市为NaN
+    private final double[] longitudes;
+    private final Map<String, Integer> attractionCities; // 景点名称到所在城市编号
+    private final String[] cityAttractions; // 城市编号到景点名称，没有景点为null
+    private final ConcurrentLinkedQueue<GraphSearch> searches = new ConcurrentLinkedQueue<>();
+    private volatile FuzzySearchIndex citySearchIndex; // 首次搜索时建立，之后只读
+    private volatile FuzzySearchIndex attractionSearchIndex;
+
+    RoadNetworkSnapshot(long version, String[] cityNames, Map<String, Integer> cityIds, CsrRoadGraph graph,
+                        double[] latitudes, double[] longitudes, Map<String, Integer> attractionCities) {
+        this.version = version;
+        this.cityNames = cityNames;
+        this.cityIds = Collections.unmodifiableMap(cityIds);
+        this.graph = graph;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.attractionCities = Collections.unmodifiableMap(attractionCities);
+        this.cityAttractions = new String[cityNames.length];
+        for (Map.Entry<String, Integer> entry : attractionCities.entrySet()) {
+            cityAttractions[entry.getValue()] = entry.getKey();
+        }
+    }
+
+    /**
+     * 从可变路网的当前状态创建快照（调用方负责在复制期间不修改路网）
+     */
+    static RoadNetworkSnapshot copyOf(RoadNetwork roadNetwork) {
+        int n = roadNetwork.getCityCount();
+        String[] names = new String[n];
+        Map<String, Integer> ids = new HashMap<>(n * 2);
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int v = 0; v < n; v++) {
+            City city = roadNetwork.getCityById(v);
+            names[v] = city.getFullName();
+            ids.put(names[v], v);
+            latitudes[v] = city.hasCoordinates() ? city.getLatitude() : Double.NaN;
+            longitudes[v] = city.hasCoordinates() ? city.getLongitude() : Double.NaN;
+        }
+        Map<String, Integer> attractions = new HashMap<>();
+        for (String attraction : roadNetwork.getAllAttractionNames()) {
+            City city = roadNetwork.getCityForAttraction(attraction);
+            if (city != null) {
+                attractions.put(attraction, city.getId());
+            }
+        }
+        // 堆外加载的路网城市没有邻接表，从CSR图复制道路
+        CsrRoadGraph graph = roadNetwork.hasCityAdjacency()
+                ? CsrRoadGraph.fromRoadNetwork(roadNetwork) : CsrRoadGraph.copyOf(roadNetwork.getRoadGraph());
+        return new RoadNetworkSnapshot(roadNetwork.getVersion(), names, ids, graph, latitudes, longitudes, attractions);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 获取以本快照内容预填充的构建器，构建出的快照版本号加1
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.version = version + 1;
+        for (int v = 0; v < cityNames.length; v++) {
+            builder.addCity(cityNames[v]);
+            if (!Double.isNaN(latitudes[v])) {
+                builder.setCoordinates(cityNames[v], latitudes[v], longitudes[v]);
+            }
+        }
+        for (int v = 0; v < cityNames.length; v++) {
+            for (int e = graph.getFirstEdge(v); e < graph.getEndEdge(v); e++) {
+                int w = graph.getTarget(e);
+                if (v < w && graph.getWeight(e) != EdgeUpdate.CLOSED) {
+                    builder.roads.put(Builder.roadKey(v, w), graph.getWeight(e));
+                }
+            }
+        }
+        for (Map.Entry<String, Integer> entry : attractionCities.entrySet()) {
+            builder.addAttraction(entry.getKey(), cityNames[entry.getValue()]);
+        }
+        return builder;
+    }
+
+    /**
+     * 应用一批道路变更，返回新快照，本快照不变
+     * 所有变更都针对已有道路时共享城市表和图结构，只复制权重数组；否则经由Builder重建
+     */
+    public RoadNetworkSnapshot withEdgeUpdates(List<EdgeUpdate> updates) {
+        boolean inPlace = true;
+        for (EdgeUpdate update : updates) {
+            int a = getCityId(update.getCityA());
+            int b = getCityId(update.getCityB());
+            if (a < 0 || b < 0 || graph.findEdge(a, b) < 0) {
+                inPlace = false;
+                break;
+            }
+        }
+        if (!inPlace) {
+            Builder builder = toBuilder();
+            for (EdgeUpdate update : updates) {
+                if (update.isClosure()) {
+                    builder.removeRoad(update.getCityA(), update.getCityB());
+                } else {
+                    builder.addRoad(update.getCityA(), update.getCityB(), update.getDistance());
+                }
+            }
+            return builder.build();
+        }
+
+        CsrRoadGraph copy = graph.copyWeights();
+        for (EdgeUpdate update : updates) {
+            int a = getCityId(update.getCityA());
+            int b = getCityId(update.getCityB());
+            int weight = update.isClosure() ? EdgeUpdate.CLOSED : update.getDistance();
+            copy.updateWeight(a, b, weight);
+            copy.updateWeight(b, a, weight);
+        }
+        Map<String, Integer> attractions = new HashMap<>(attractionCities);
+        return new RoadNetworkSnapshot(version + 1, cityNames, cityIds, copy, latitudes, longitudes, attractions);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getCityCount() {
+        return cityNames.length;
+    }
+
+    public String getCityName(int id) {
+        return cityNames[id];
+    }
+
+    /**
+     * 按全名获取城市编号，不存在时返回-1
+     */
+    public int getCityId(String fullName) {
+        Integer id = cityIds.get(fullName);
+        return id == null ? -1 : id;
+    }
+
+    public boolean cityExists(String fullName) {
+        return cityIds.containsKey(fullName);
+    }
+
+    public boolean hasCoordinates(int id) {
+        return !Double.isNaN(latitudes[id]);
+    }
+
+    public double getLatitude(int id) {
+        return latitudes[id];
+    }
+
+    public double getLongitude(int id) {
+        return longitudes[id];
+    }
+
+    /**
+     * 获取景点所在城市的编号，不存在时返回-1
+     */
+    public int getAttractionCity(String attractionName) {
+        Integer id = attractionCities.get(attractionName);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * 获取城市中的景点名称，没有景点时返回null
+     */
+    public String getAttractionInCity(int id) {
+        return cityAttractions[id];
+    }
+
+    public List<String> getAllAttractionNames() {
+        return new ArrayList<>(attractionCities.keySet());
+    }
+
+    /**
+     * 获取两个相邻城市之间的道路距离，不相邻或封路时返回EdgeUpdate.CLOSED
+     */
+    public int getRoadDistance(int from, int to) {
+        int edge = graph.findEdge(from, to);
+        return edge < 0 ? EdgeUpdate.CLOSED : graph.getWeight(edge);
+    }
+
+    /**
+     * 获取只读的城市图
+     */
+    public RoadGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * 两城市间的最短路径（双向Dijkstra）
+     */
+    public GraphSearch.SearchResult shortestPath(int from, int to) {
+        return withSearch(search -> search.bidirectional(from, to));
+    }
+
+    /**
+     * 从source出发的完整最短路径树
+     */
+    public ShortestPathTree shortestPathTree(int source) {
+        return withSearch(search -> search.shortestPathTree(source));
+    }
+
+    /**
+     * 从source出发、距离不超过maxDistance的最短路径树，更远的城市视为不可达
+     */
+    public ShortestPathTree shortestPathTree(int source, int maxDistance) {
+        return withSearch(search -> search.shortestPathTree(source, maxDistance));
+    }
+
+    /**
+     * 距离source不超过maxDistance的所有城市（含起点），按距离从近到远排列
+     */
+    public GraphSearch.Reach reachWithin(int source, int maxDistance) {
+        return withSearch(search -> search.reachWithin(source, maxDistance));
+    }
+
+    /**
+     * 借用一个空闲的搜索引擎执行查询，用完归还
+     */
+    private <T> T withSearch(Function<GraphSearch, T> query) {
+        GraphSearch search = searches.poll();
+        if (search == null) {
+            search = new GraphSearch(graph);
+        }
+        try {
+            return query.apply(search);
+        } finally {
+            searches.offer(search);
+        }
+    }
+
+    /**
+     * 查找名称包含输入（不区分大小写）的城市，索引在首次查询时建立
+     */
+    public List<String> findCities(String fuzzyName) {
+        FuzzySearchIndex index = citySearchIndex;
+        if (index == null) {
+            // 并发的首次查询可能各建一份索引，内容相同，保留哪一份都可以
+            index = new FuzzySearchIndex(Arrays.asList(cityNames));
+            citySearchIndex = index;
+        }
+        return index.search(fuzzyName);
+    }
+
+    /**
+     * 查找名称包含输入（不区分大小写）的景点，索引在首次查询时建立
+     */
+    public List<String> findAttractions(String fuzzyName) {
+        FuzzySearchIndex index = attractionSearchIndex;
+        if (index == null) {
+            index = new FuzzySearchIndex(attractionCities.keySet());
+            attractionSearchIndex = index;
+        }
+        return index.search(fuzzyName);
+    }
+
+    /**
+     * 规划从起点经过所有景点到终点的最短路线
+     *
+     * @param orderedAttractions 是否按给定顺序访问景点，否则尝试所有排列
+     * @throws IllegalArgumentException 城市或景点不存在，或景点数超过MAX_ATTRACTIONS（不按顺序时为MAX_UNORDERED_ATTRACTIONS）时
+     * @throws NoSuchElementException 城市之间不连通时
+     */
+    public RouteResult route(String startingCity, String endingCity, List<String> attractions,
+                             boolean orderedAttractions) {
+        int start = getCityId(startingCity);
+        int end = getCityId(endingCity);
+        if (start < 0) {
+            throw new IllegalArgumentException("找不到起始城市: " + startingCity);
+        }
+        if (end < 0) {
+            throw new IllegalArgumentException("找不到目的地城市: " + endingCity);
+        }
+        int count = attractions == null ? 0 : attractions.size();
+        int limit = orderedAttractions ? MAX_ATTRACTIONS : MAX_UNORDERED_ATTRACTIONS;
+        if (count > limit) {
+            throw new IllegalArgumentException("景点数超过上限 " + limit + ": " + count);
+        }
+        int[] stops = new int[count];
+        for (int i = 0; i < stops.length; i++) {
+            stops[i] = getAttractionCity(attractions.get(i));
+            if (stops[i] < 0) {
+                throw new IllegalArgumentException("找不到景点: " + attractions.get(i));
+            }
+        }
+
+        BestRoute best = new BestRoute(start, end, stops.length);
+        if (orderedAttractions) {
+            best.consider(stops);
+        } else {
+            // 同一城市的多个景点只需访问一次，先去重再枚举排列
+            permute(Arrays.stream(stops).distinct().toArray(), 0, best);
+        }
+        if (best.path == null) {
+            throw new NoSuchElementException("找不到从 " + startingCity + " 到 " + endingCity + " 经过所有景点的路径");
+        }
+
+        List<String> cities = new ArrayList<>(best.path.length);
+        for (int city : best.path) {
+            cities.add(cityNames[city]);
+        }
+        return new RouteResult(Collections.unmodifiableList(cities), (int) best.distance, Collections.emptyList());
+    }
+
+    /**
+     * 原地枚举values[start..]的所有排列，每个排列交给best比较，不保存排列本身
+     */
+    private static void permute(int[] values, int start, BestRoute best) {
+        if (start >= values.length - 1) {
+            best.consider(values);
+            return;
+        }
+        for (int i = start; i < values.length; i++) {
+            int swap = values[start];
+            values[start] = values[i];
+            values[i] = swap;
+            permute(values, start + 1, best);
+            values[i] = values[start];
+            values[start] = swap;
+        }
+    }
+
+    /**
+     * 一次route查询中已知的最优访问顺序，不同排列共用已经计算过的路段
+     */
+    private final class BestRoute {
+        private final int[] visits; // 起点、景点城市、终点
+        private final Map<Long, GraphSearch.SearchResult> legs = new HashMap<>();
+        private int[] path;
+        private long distance = Long.MAX_VALUE;
+
+        BestRoute(int start, int end, int stopCount) {
+            visits = new int[stopCount + 2];
+            visits[0] = start;
+            visits[visits.length - 1] = end;
+        }
+
+        void consider(int[] order) {
+            System.arraycopy(order, 0, visits, 1, order.length);
+            // 去重后可能少于景点数，终点紧跟在最后一个景点之后
+            int last = order.length + 1;
+            visits[last] = visits[visits.length - 1];
+            List<int[]> paths = new ArrayList<>(last);
+            long total = 0;
+            for (int i = 0; i < last; i++) {
+                long key = ((long) visits[i] << 32) | visits[i + 1];
+                GraphSearch.SearchResult leg = legs.computeIfAbsent(key,
+                        k -> shortestPath((int) (k >>> 32), (int) (long) k));
+                if (!leg.isFound()) {
+                    return;
+                }
+                total += leg.getDistance();
+                if (total >= distance) {
+                    return;
+                }
+                paths.add(leg.getPath());
+            }
+            distance = total;
+            path = concatenate(paths);
+        }
+    }
+
+    /**
+     * 连接各段路径，去掉段与段之间重复的城市
+     */
+    private static int[] concatenate(List<int[]> paths) {
+        int length = 1;
+        for (int[] path : paths) {
+            length += path.length - 1;
+        }
+        int[] result = new int[length];
+        result[0] = paths.get(0)[0];
+        int index = 1;
+        for (int[] path : paths) {
+            System.arraycopy(path, 1, result, index, path.length - 1);
+            index += path.length - 1;
+        }
+        return result;
+    }
+
+    /**
+     * 快照构建器，不是线程安全的
+     */
+    public static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final Map<Long, Integer> roads = new LinkedHashMap<>(); // (较小编号, 较大编号) -> 距离
+        private double[] latitudes = new double[16];
+        private double[] longitudes = new double[16];
+        private final Map<String, String> attractions = new LinkedHashMap<>(); // 景点名称 -> 城市全名
+        private long version;
+
+        private Builder() {
+        }
+
+        private static long roadKey(int a, int b) {
+            return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+        }
+
+        /**
+         * 添加城市（已存在时忽略），返回编号
+         */
+        public int addCity(String fullName) {
+            Integer id = ids.get(fullName);
+            if (id != null) {
+                return id;
+            }
+            int newId = names.size();
+            names.add(fullName);
+            ids.put(fullName, newId);
+            if (newId == latitudes.length) {
+                latitudes = Arrays.copyOf(latitudes, newId * 2);
+                longitudes = Arrays.copyOf(longitudes, newId * 2);
+            }
+            latitudes[newId] = Double.NaN;
+            longitudes[newId] = Double.NaN;
+            return newId;
+        }
+
+        /**
+         * 添加双向道路或修改距离，城市不存在时创建
+         */
+        public Builder addRoad(String cityA, String cityB, int distance) {
+            if (distance < 0) {
+                throw new IllegalArgumentException("距离不能为负数: " + cityA + " - " + cityB + ": " + distance);
+            }
+            int a = addCity(cityA);
+            int b = addCity(cityB);
+            if (a != b) {
+                roads.put(roadKey(a, b), distance);
+            }
+            return this;
+        }
+
+        public Builder removeRoad(String cityA, String cityB) {
+            Integer a = ids.get(cityA);
+            Integer b = ids.get(cityB);
+            if (a != null && b != null) {
+                roads.remove(roadKey(a, b));
+            }
+            return this;
+        }
+
+        public Builder setCoordinates(String city, double latitude, double longitude) {
+            int id = addCity(city);
+            latitudes[id] = latitude;
+            longitudes[id] = longitude;
+            return this;
+        }
+
+        /**
+         * 添加景点或移动到新城市，城市不存在时创建
+         */
+        public Builder addAttraction(String attractionName, String city) {
+            addCity(city);
+            attractions.put(attractionName, city);
+            return this;
+        }
+
+        public Builder removeAttraction(String attractionName) {
+            attractions.remove(attractionName);
+            return this;
+        }
+
+        public Builder setVersion(long version) {
+            this.version = version;
+            return this;
+        }
+
+        public RoadNetworkSnapshot build() {
+            int n = names.size();
+            int m = roads.size();
+            int[] sources = new int[m];
+            int[] targets = new int[m];
+            int[] weights = new int[m];
+            int i = 0;
+            for (Map.Entry<Long, Integer> road : roads.entrySet()) {
+                sources[i] = (int) (road.getKey() >>> 32);
+                targets[i] = (int) (long) road.getKey();
+                weights[i] = road.getValue();
+                i++;
+            }
+            Map<String, Integer> attractionIds = new HashMap<>();
+            for (Map.Entry<String, String> attraction : attractions.entrySet()) {
+                attractionIds.put(attraction.getKey(), ids.get(attraction.getValue()));
+            }
+            return new RoadNetworkSnapshot(version, names.toArray(new String[0]), new HashMap<>(ids),
+                    CsrRoadGraph.fromEdges(n, sources, targets, weights, m),
+                    Arrays.copyOf(latitudes, n), Arrays.copyOf(longitudes, n), attractionIds);
+        }
+    }
+}
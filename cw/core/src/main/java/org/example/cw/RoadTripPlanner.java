@@ -1,3 +1,5 @@
+package org.example.cw;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -10,12 +12,15 @@ import java.io.InputStreamReader;
 import java.io.Console;
 
 /**
- * 道路旅行规划的主应用程序类
+ * 道路旅行规划的命令行程序，只依赖核心模块，不需要启动JavaFX
  */
 public class RoadTripPlanner {
     private static RoadNetwork roadNetwork;
     private static RoutePlanner routePlanner;
     private static Scanner scanner;
+
+    private RoadTripPlanner() {
+    }
     
     /**
      * 程序主入口
@@ -31,7 +36,7 @@ public class RoadTripPlanner {
      */
     private void initialize() {
         roadNetwork = new RoadNetwork();
-        roadNetwork.loadData("CW3_Data_Files/roads.csv", "CW3_Data_Files/attractions.csv");
+        roadNetwork.loadData("/data/roads.csv", "/data/attractions.csv");
         routePlanner = new RoutePlanner(roadNetwork);
         scanner = new Scanner(System.in);
     }
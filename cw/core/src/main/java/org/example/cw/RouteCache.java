@@ -0,0 +1,243 @@
+package org.example.cw;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 路线查询结果的LRU缓存
+ *
+ * 键是规范化后的查询：起点、终点、景点、搜索算法、是否按顺序访问、是否考虑转向以及续航约束。
+ * 同时限制条目数和总权重（每条结果按途经城市数和充电站数计权重），超出时淘汰最久未使用的条目。
+ * 每次访问都会比较路网版本号，路网变更后整个缓存失效；
+ * 结果对应的版本号在计算前读取，计算期间路网发生变更的结果不会写入缓存。
+ * 所有方法都是同步的，可以被多个查询线程共享。
+ */
+public class RouteCache {
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+    public static final long DEFAULT_MAX_WEIGHT = 1L << 20;
+
+    private final RoadNetwork roadNetwork;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<Key, RouteResult> entries;
+    private long version; // 缓存内容对应的路网版本号
+    private long weight; // 当前总权重
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long invalidationCount;
+
+    public RouteCache(RoadNetwork roadNetwork) {
+        this(roadNetwork, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT);
+    }
+
+    public RouteCache(RoadNetwork roadNetwork, int maxEntries, long maxWeight) {
+        if (maxEntries <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("缓存容量必须为正数: " + maxEntries + ", " + maxWeight);
+        }
+        this.roadNetwork = roadNetwork;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true); // 按访问顺序排列
+        this.version = roadNetwork.getVersion();
+    }
+
+    /**
+     * 查找缓存的结果，不存在时返回null
+     */
+    public synchronized RouteResult get(Key key) {
+        checkVersion();
+        RouteResult result = entries.get(key);
+        if (result == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return result;
+    }
+
+    /**
+     * 写入结果并返回实际缓存的不可变副本
+     *
+     * @param computedVersion 开始计算前读取的路网版本号，与当前版本不同时不写入
+     */
+    public synchronized RouteResult put(Key key, RouteResult result, long computedVersion) {
+        RouteResult frozen = new RouteResult(Collections.unmodifiableList(new ArrayList<>(result.getCities())),
+                result.getTotalDistance(), Collections.unmodifiableList(new ArrayList<>(result.getChargingStops())));
+        checkVersion();
+        if (computedVersion != version) {
+            return frozen;
+        }
+        long entryWeight = weigh(frozen);
+        if (entryWeight > maxWeight) {
+            return frozen;
+        }
+        RouteResult previous = entries.put(key, frozen);
+        if (previous != null) {
+            weight -= weigh(previous);
+        }
+        weight += entryWeight;
+        // 淘汰最久未使用的条目，直到条目数和权重都不超限
+        Iterator<RouteResult> iterator = entries.values().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && iterator.hasNext()) {
+            weight -= weigh(iterator.next());
+            iterator.remove();
+            evictionCount++;
+        }
+        return frozen;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * 路网版本变化时清空缓存
+     */
+    private void checkVersion() {
+        long current = roadNetwork.getVersion();
+        if (current != version) {
+            if (!entries.isEmpty()) {
+                invalidationCount++;
+            }
+            clear();
+            version = current;
+        }
+    }
+
+    private static long weigh(RouteResult result) {
+        return result.getCities().size() + result.getChargingStops().size();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 获取因路网变更而整体失效的次数
+     */
+    public synchronized long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    /**
+     * 获取命中率，尚无查询时返回0
+     */
+    public synchronized double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("RouteCache[条目=%d, 权重=%d, 命中=%d, 未命中=%d, 淘汰=%d, 失效=%d]",
+                entries.size(), weight, hitCount, missCount, evictionCount, invalidationCount);
+    }
+
+    /**
+     * 规范化的查询键
+     *
+     * 不按顺序访问景点时景点集合与输入顺序无关，按名称排序；
+     * 双向Dijkstra忽略A*标志；未启用续航约束时忽略充电城市。
+     */
+    public static final class Key {
+        private static final int DIJKSTRA = 0;
+        private static final int ASTAR = 1;
+        private static final int BIDIRECTIONAL = 2;
+
+        private final String startingCity;
+        private final String endingCity;
+        private final List<String> attractions;
+        private final boolean orderedAttractions;
+        private final int algorithm;
+        private final boolean turnAware;
+        private final int maxLegDistance;
+        private final List<String> refuelCities;
+        private final int hash;
+
+        private Key(String startingCity, String endingCity, List<String> attractions, boolean orderedAttractions,
+                    int algorithm, boolean turnAware, int maxLegDistance, List<String> refuelCities) {
+            this.startingCity = startingCity;
+            this.endingCity = endingCity;
+            this.attractions = attractions;
+            this.orderedAttractions = orderedAttractions;
+            this.algorithm = algorithm;
+            this.turnAware = turnAware;
+            this.maxLegDistance = maxLegDistance;
+            this.refuelCities = refuelCities;
+            this.hash = Objects.hash(startingCity, endingCity, attractions, orderedAttractions, algorithm,
+                    turnAware, maxLegDistance, refuelCities);
+        }
+
+        public static Key of(String startingCity, String endingCity, List<String> attractions, RouteOptions options) {
+            List<String> normalized = attractions == null ? new ArrayList<>() : new ArrayList<>(attractions);
+            // 少于两个景点时顺序无关紧要
+            boolean ordered = options.isOrderedAttractions() || normalized.size() < 2;
+            if (!ordered) {
+                Collections.sort(normalized);
+            }
+            int algorithm = options.isBidirectional() ? BIDIRECTIONAL : (options.isUseAstar() ? ASTAR : DIJKSTRA);
+            List<String> refuel = new ArrayList<>();
+            if (options.hasRangeLimit()) {
+                refuel.addAll(options.getRefuelCities());
+                Collections.sort(refuel);
+            }
+            return new Key(startingCity, endingCity, normalized, ordered, algorithm, options.isTurnAware(),
+                    options.getMaxLegDistance(), refuel);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash
+                    && orderedAttractions == other.orderedAttractions
+                    && algorithm == other.algorithm
+                    && turnAware == other.turnAware
+                    && maxLegDistance == other.maxLegDistance
+                    && startingCity.equals(other.startingCity)
+                    && endingCity.equals(other.endingCity)
+                    && attractions.equals(other.attractions)
+                    && refuelCities.equals(other.refuelCities);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return startingCity + " -> " + endingCity + " " + attractions;
+        }
+    }
+}
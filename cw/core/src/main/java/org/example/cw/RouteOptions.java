@@ -0,0 +1,108 @@
+package org.example.cw;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 路线查询选项
+ */
+public class RouteOptions {
+    public static final int UNLIMITED_RANGE = 0;
+
+    private boolean useAstar; // 是否使用A*算法
+    private boolean orderedAttractions; // 景点是否按指定顺序访问
+    private int maxLegDistance = UNLIMITED_RANGE; // 两次充电之间的最大行驶距离
+    private Set<String> refuelCities = new HashSet<>(); // 可以充电/加油的城市全名
+    private boolean bidirectional; // 是否使用双向Dijkstra
+    private boolean turnAware; // 是否考虑转向限制和转向代价
+    private boolean useCache = true; // 是否使用路线规划器的结果缓存和分段缓存
+
+    public RouteOptions() {
+        this(false, true);
+    }
+
+    public RouteOptions(boolean useAstar, boolean orderedAttractions) {
+        this.useAstar = useAstar;
+        this.orderedAttractions = orderedAttractions;
+    }
+
+    public boolean isUseAstar() {
+        return useAstar;
+    }
+
+    public void setUseAstar(boolean useAstar) {
+        this.useAstar = useAstar;
+    }
+
+    public boolean isOrderedAttractions() {
+        return orderedAttractions;
+    }
+
+    public void setOrderedAttractions(boolean orderedAttractions) {
+        this.orderedAttractions = orderedAttractions;
+    }
+
+    public int getMaxLegDistance() {
+        return maxLegDistance;
+    }
+
+    /**
+     * 设置续航里程，UNLIMITED_RANGE表示不限制
+     */
+    public void setMaxLegDistance(int maxLegDistance) {
+        if (maxLegDistance < 0) {
+            throw new IllegalArgumentException("续航里程不能为负数: " + maxLegDistance);
+        }
+        this.maxLegDistance = maxLegDistance;
+    }
+
+    public Set<String> getRefuelCities() {
+        return Collections.unmodifiableSet(refuelCities);
+    }
+
+    public void setRefuelCities(Set<String> refuelCities) {
+        this.refuelCities = new HashSet<>(refuelCities);
+    }
+
+    public void addRefuelCity(String cityName) {
+        refuelCities.add(cityName);
+    }
+
+    public boolean isBidirectional() {
+        return bidirectional;
+    }
+
+    public void setBidirectional(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+    }
+
+    public boolean isTurnAware() {
+        return turnAware;
+    }
+
+    /**
+     * 启用后在基于边的扩展图上搜索，遵守路网中的转向限制
+     */
+    public void setTurnAware(boolean turnAware) {
+        this.turnAware = turnAware;
+    }
+
+    public boolean isUseCache() {
+        return useCache;
+    }
+
+    /**
+     * 关闭后本次查询不读写缓存，用于测量算法本身的耗时
+     */
+    public void setUseCache(boolean useCache) {
+        this.useCache = useCache;
+    }
+
+    /**
+     * 是否启用续航约束
+     */
+    public boolean hasRangeLimit() {
+        return maxLegDistance != UNLIMITED_RANGE;
+    }
+}
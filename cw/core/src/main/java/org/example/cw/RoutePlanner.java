@@ -0,0 +1,590 @@
+package org.example.cw;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 使用基于图的算法规划城市间的路线，访问景点
+ */
+public class RoutePlanner {
+    private RoadNetwork roadNetwork;
+    private LandmarkIndex landmarkIndex; // A*使用的地标索引，首次使用时构建
+    private RouteCache routeCache; // 路线结果缓存，null表示不缓存
+    private SegmentCache segmentCache; // 城市对最短路径缓存，null表示不缓存
+    private ShortestPathTreeCache treeCache; // 常用起点的最短路径树，null表示不缓存
+    private boolean useDistanceTable; // 是否用路网的全源距离表回答城市图上的查询
+    // 空闲的搜索引擎，城市图和扩展图分开存放，图重建后旧引擎在借用时被丢弃
+    private final ConcurrentLinkedQueue<GraphSearch> citySearches = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<GraphSearch> turnSearches = new ConcurrentLinkedQueue<>();
+    
+    public RoutePlanner(RoadNetwork roadNetwork) {
+        this.roadNetwork = roadNetwork;
+    }
+    
+    public RoadNetwork getRoadNetwork() {
+        return roadNetwork;
+    }
+    
+    /**
+     * 设置路线结果缓存，null表示关闭缓存
+     */
+    public void setRouteCache(RouteCache routeCache) {
+        this.routeCache = routeCache;
+    }
+    
+    public RouteCache getRouteCache() {
+        return routeCache;
+    }
+    
+    /**
+     * 设置分段缓存，有序、无序景点路线和总距离计算共用，null表示关闭缓存
+     */
+    public void setSegmentCache(SegmentCache segmentCache) {
+        this.segmentCache = segmentCache;
+    }
+    
+    public SegmentCache getSegmentCache() {
+        return segmentCache;
+    }
+    
+    /**
+     * 设置常用起点的最短路径树缓存，null表示关闭
+     */
+    public void setShortestPathTreeCache(ShortestPathTreeCache treeCache) {
+        this.treeCache = treeCache;
+    }
+    
+    public ShortestPathTreeCache getShortestPathTreeCache() {
+        return treeCache;
+    }
+    
+    /**
+     * 启用后城市图上的每一段都从RoadNetwork.getCurrentDistanceTable()查距离并回溯路径，
+     * 距离表在后台构建，不存在或因道路变更过期时照常搜索；只适合中小规模的路网
+     */
+    public void setUseDistanceTable(boolean useDistanceTable) {
+        this.useDistanceTable = useDistanceTable;
+    }
+    
+    public boolean isUseDistanceTable() {
+        return useDistanceTable;
+    }
+    
+    /**
+     * 获取地标索引，首次调用时构建并注册为路网监听器以便增量更新
+     */
+    public synchronized LandmarkIndex getLandmarkIndex() {
+        if (landmarkIndex == null && roadNetwork.getCityCount() > 0) {
+            landmarkIndex = new LandmarkIndex(roadNetwork);
+            roadNetwork.addListener(landmarkIndex);
+        }
+        return landmarkIndex;
+    }
+    
+    /**
+     * 寻找从起始城市到目的地城市的最短路线，途经所有景点
+     * 支持Dijkstra和A*算法，以及有序和无序景点访问
+     * 
+     * @param startingCity 起始城市全名（例如 "New York NY"）
+     * @param endingCity 目的地城市全名（例如 "Miami FL"）
+     * @param attractions 要访问的景点名称列表
+     * @param useAstar 是否使用A*算法（true）或Dijkstra算法（false）
+     * @param orderedAttractions 景点是否按指定顺序访问
+     * @return 按顺序访问的城市列表，包括起始和结束城市
+     */
+    public List<String> route(String startingCity, String endingCity, List<String> attractions, 
+                              boolean useAstar, boolean orderedAttractions) {
+        return route(startingCity, endingCity, attractions, new RouteOptions(useAstar, orderedAttractions)).getCities();
+    }
+    
+    /**
+     * 借用一个绑定到graph的空闲搜索引擎，没有时新建
+     */
+    private GraphSearch borrowSearch(RoadGraph graph) {
+        ConcurrentLinkedQueue<GraphSearch> pool = graph instanceof EdgeBasedGraph ? turnSearches : citySearches;
+        for (GraphSearch search = pool.poll(); search != null; search = pool.poll()) {
+            if (search.getGraph() == graph) {
+                return search;
+            }
+        }
+        return new GraphSearch(graph);
+    }
+    
+    private void returnSearch(GraphSearch search) {
+        (search.getGraph() instanceof EdgeBasedGraph ? turnSearches : citySearches).offer(search);
+    }
+    
+    /**
+     * 不带续航约束的路线规划，按选项选择搜索算法和图（城市图或考虑转向的扩展图）
+     * 总距离是各段最短路径距离之和，考虑转向时包含转向代价
+     */
+    private RouteResult routeCities(String startingCity, String endingCity, List<String> attractions,
+                                     RouteOptions options) {
+        // 验证输入
+        if (!roadNetwork.cityExists(startingCity)) {
+            throw new IllegalArgumentException("找不到起始城市: " + startingCity);
+        }
+        if (!roadNetwork.cityExists(endingCity)) {
+            throw new IllegalArgumentException("找不到目的地城市: " + endingCity);
+        }
+        
+        // 获取起始和结束城市对象
+        City start = roadNetwork.getCity(startingCity);
+        City end = roadNetwork.getCity(endingCity);
+        // 先读版本号再取图：之后的变更只会让分段缓存丢弃这次的结果，不会把旧图上的结果记在新版本下
+        long version = roadNetwork.getVersion();
+        GraphSearch search = borrowSearch(options.isTurnAware()
+                ? roadNetwork.getEdgeBasedGraph() : roadNetwork.getRoadGraph());
+        try {
+            return routeCities(search, version, start, end, attractions, options);
+        } finally {
+            returnSearch(search);
+        }
+    }
+    
+    private RouteResult routeCities(GraphSearch search, long version, City start, City end,
+                                    List<String> attractions, RouteOptions options) {
+        // 如果没有景点，只需找到从起点到终点的最短路径
+        if (attractions == null || attractions.isEmpty()) {
+            // 比较Dijkstra和A*算法
+            long startTime = System.nanoTime();
+            
+            SegmentCache.Segment segment = findSegment(search, version, start, end, options);
+            
+            long endTime = System.nanoTime();
+            long duration = (endTime - startTime) / 1000000; // 转换为毫秒
+            
+            if (!segment.isFound()) {
+                throw new RuntimeException("找不到从 " + start.getFullName() + " 到 " + end.getFullName() + " 的路径");
+            }
+            List<String> route = toCityNames(segment.getCities());
+            
+            // 打印算法的复杂度分析
+            int vertices = roadNetwork.getCities().size();
+            int edges = countEdges();
+            System.out.println("算法: " + algorithmName(options));
+            System.out.println("顶点数 (V): " + vertices);
+            System.out.println("边数 (E): " + edges);
+            System.out.println("时间复杂度: O(V + E log V)");
+            System.out.println("执行时间: " + duration + " 毫秒");
+            
+            return new RouteResult(route, segment.getDistance(), Collections.emptyList());
+        }
+        
+        // 获取景点所在的城市
+        List<City> attractionCities = resolveAttractionCities(attractions);
+        
+        // 如果景点按顺序访问
+        if (options.isOrderedAttractions()) {
+            return handleOrderedAttractions(search, version, start, end, attractionCities, options);
+        } else {
+            // 不按顺序访问景点，尝试所有可能的排列
+            return handleUnorderedAttractions(search, version, start, end, attractionCities, options);
+        }
+    }
+    
+    private String algorithmName(RouteOptions options) {
+        String name = options.isBidirectional() ? "双向Dijkstra" : (options.isUseAstar() ? "A*" : "Dijkstra");
+        return options.isTurnAware() ? name + "（考虑转向）" : name;
+    }
+    
+    /**
+     * 按查询选项规划路线，支持续航约束（最大单段里程和充电城市）
+     * 
+     * @param startingCity 起始城市全名
+     * @param endingCity 目的地城市全名
+     * @param attractions 要访问的景点名称列表
+     * @param options 查询选项
+     * @return 路线结果，启用续航约束时包含途中的充电站；设置了缓存时结果中的列表不可修改
+     */
+    public RouteResult route(String startingCity, String endingCity, List<String> attractions, RouteOptions options) {
+        RouteCache cache = routeCache;
+        if (cache == null || !options.isUseCache()) {
+            return computeRoute(startingCity, endingCity, attractions, options);
+        }
+        RouteCache.Key key = RouteCache.Key.of(startingCity, endingCity, attractions, options);
+        RouteResult cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long version = roadNetwork.getVersion();
+        return cache.put(key, computeRoute(startingCity, endingCity, attractions, options), version);
+    }
+    
+    private RouteResult computeRoute(String startingCity, String endingCity, List<String> attractions,
+                                     RouteOptions options) {
+        if (!options.hasRangeLimit()) {
+            return routeCities(startingCity, endingCity, attractions, options);
+        }
+        
+        // 验证输入
+        if (!roadNetwork.cityExists(startingCity)) {
+            throw new IllegalArgumentException("找不到起始城市: " + startingCity);
+        }
+        if (!roadNetwork.cityExists(endingCity)) {
+            throw new IllegalArgumentException("找不到目的地城市: " + endingCity);
+        }
+        
+        City start = roadNetwork.getCity(startingCity);
+        City end = roadNetwork.getCity(endingCity);
+        List<City> attractionCities = resolveAttractionCities(attractions);
+        ConstrainedRoutePlanner constrained = new ConstrainedRoutePlanner(
+                roadNetwork, options.getMaxLegDistance(), options.getRefuelCities());
+        
+        // 按顺序访问时只有一种途经顺序，否则尝试所有排列
+        List<List<City>> orders = (options.isOrderedAttractions() || attractionCities.size() < 2)
+                ? Collections.singletonList(attractionCities)
+                : generatePermutations(attractionCities);
+        
+        RouteResult best = null;
+        for (List<City> order : orders) {
+            RouteResult result = constrained.route(start, order, end);
+            if (result != null && (best == null || result.getTotalDistance() < best.getTotalDistance())) {
+                best = result;
+            }
+        }
+        
+        if (best == null) {
+            throw new RuntimeException("在续航 " + options.getMaxLegDistance() + " 的限制下找不到从 "
+                    + startingCity + " 到 " + endingCity + " 的路径");
+        }
+        return best;
+    }
+    
+    /**
+     * 获取景点所在的城市
+     */
+    private List<City> resolveAttractionCities(List<String> attractions) {
+        List<City> attractionCities = new ArrayList<>();
+        if (attractions == null) {
+            return attractionCities;
+        }
+        for (String attraction : attractions) {
+            City city = roadNetwork.getCityForAttraction(attraction);
+            if (city != null) {
+                attractionCities.add(city);
+            } else {
+                throw new IllegalArgumentException("找不到景点: " + attraction);
+            }
+        }
+        return attractionCities;
+    }
+    
+    /**
+     * 处理按顺序访问景点的情况
+     */
+    private RouteResult handleOrderedAttractions(GraphSearch search, long version, City start, City end,
+                                                  List<City> attractionCities, RouteOptions options) {
+        // 构建需要访问的所有城市列表（起点 -> 景点1 -> 景点2 -> ... -> 终点）
+        List<City> orderedCities = new ArrayList<>();
+        orderedCities.add(start);
+        orderedCities.addAll(attractionCities);
+        orderedCities.add(end);
+        
+        // 分段计算最短路径
+        List<String> finalRoute = new ArrayList<>();
+        int totalDistance = 0;
+        
+        for (int i = 0; i < orderedCities.size() - 1; i++) {
+            City from = orderedCities.get(i);
+            City to = orderedCities.get(i + 1);
+            
+            SegmentCache.Segment result = findSegment(search, version, from, to, options);
+            
+            if (!result.isFound()) {
+                throw new RuntimeException("找不到从 " + from.getFullName() + " 到 " + to.getFullName() + " 的路径");
+            }
+            List<String> segment = toCityNames(result.getCities());
+            
+            if (i == 0) {
+                finalRoute.addAll(segment);
+            } else {
+                // 跳过第一个城市，因为它已经在前一段路线中
+                finalRoute.addAll(segment.subList(1, segment.size()));
+            }
+            totalDistance += result.getDistance();
+        }
+        
+        return new RouteResult(finalRoute, totalDistance, Collections.emptyList());
+    }
+    
+    /**
+     * 处理不按顺序访问景点的情况（使用全排列找最短路径）
+     */
+    private RouteResult handleUnorderedAttractions(GraphSearch search, long version, City start, City end,
+                                                    List<City> attractionCities, RouteOptions options) {
+        List<List<City>> allPermutations = generatePermutations(attractionCities);
+        
+        List<String> bestRoute = null;
+        int shortestDistance = Integer.MAX_VALUE;
+        
+        for (List<City> permutation : allPermutations) {
+            // 构建这个排列的访问顺序
+            List<City> orderedCities = new ArrayList<>();
+            orderedCities.add(start);
+            orderedCities.addAll(permutation);
+            orderedCities.add(end);
+            
+            // 计算这个排列的路径
+            List<String> route = new ArrayList<>();
+            int totalDistance = 0;
+            boolean validRoute = true;
+            
+            for (int i = 0; i < orderedCities.size() - 1; i++) {
+                City from = orderedCities.get(i);
+                City to = orderedCities.get(i + 1);
+                
+                SegmentCache.Segment result = findSegment(search, version, from, to, options);
+                
+                if (!result.isFound()) {
+                    validRoute = false;
+                    break;
+                }
+                List<String> segment = toCityNames(result.getCities());
+                
+                if (i == 0) {
+                    route.addAll(segment);
+                } else {
+                    route.addAll(segment.subList(1, segment.size()));
+                }
+                
+                totalDistance += result.getDistance();
+            }
+            
+            if (validRoute && totalDistance < shortestDistance) {
+                shortestDistance = totalDistance;
+                bestRoute = route;
+            }
+        }
+        
+        if (bestRoute == null) {
+            throw new RuntimeException("找不到经过所有景点的有效路径");
+        }
+        
+        System.out.println("找到的最短路径总距离: " + shortestDistance);
+        return new RouteResult(bestRoute, shortestDistance, Collections.emptyList());
+    }
+    
+    /**
+     * 生成列表的所有排列
+     */
+    private <T> List<List<T>> generatePermutations(List<T> list) {
+        List<List<T>> result = new ArrayList<>();
+        generatePermutationsHelper(list, 0, result);
+        return result;
+    }
+    
+    private <T> void generatePermutationsHelper(List<T> list, int start, List<List<T>> result) {
+        if (start == list.size() - 1) {
+            result.add(new ArrayList<>(list));
+            return;
+        }
+        
+        for (int i = start; i < list.size(); i++) {
+            // 交换元素
+            Collections.swap(list, start, i);
+            // 递归生成剩余元素的排列
+            generatePermutationsHelper(list, start + 1, result);
+            // 恢复原始顺序（回溯）
+            Collections.swap(list, start, i);
+        }
+    }
+    
+    /**
+     * 计算图中的边数
+     */
+    private int countEdges() {
+        CsrGraph graph = roadNetwork.getRoadGraph();
+        int totalEdges = 0;
+        
+        for (int v = 0; v < graph.getNodeCount(); v++) {
+            for (int e = graph.getFirstEdge(v); e < graph.getEndEdge(v); e++) {
+                // 道路是双向的，每条只在编号较小的一端计数；封闭的道路仍留在图中
+                if (v < graph.getTarget(e) && graph.getWeight(e) != EdgeUpdate.CLOSED) {
+                    totalEdges++;
+                }
+            }
+        }
+        
+        return totalEdges;
+    }
+    
+    /**
+     * 获取两城市间的一段最短路径
+     * 启用了距离表且它与当前道路一致时查表，在距离表自带的图上回溯；起点的最短路径树已缓存时直接回溯；
+     * 否则设置了分段缓存时先查缓存，计算结果写回缓存。
+     * 关闭缓存的查询不使用以上任何一种，总是重新搜索
+     *
+     * @param version 取得search所绑定的图之前读到的路网版本号，计算结果按它写入分段缓存
+     */
+    private SegmentCache.Segment findSegment(GraphSearch search, long version, City from, City to,
+                                             RouteOptions options) {
+        if (!options.isUseCache()) {
+            return searchSegment(search, from, to, options);
+        }
+        boolean cityGraph = !(search.getGraph() instanceof EdgeBasedGraph);
+        DistanceTable table = useDistanceTable && cityGraph ? roadNetwork.getCurrentDistanceTable() : null;
+        if (table != null) {
+            int distance = table.getDistance(from.getId(), to.getId());
+            int[] path = distance == DistanceTable.UNREACHABLE ? null : table.getPath(from.getId(), to.getId());
+            return new SegmentCache.Segment(distance, path);
+        }
+        ShortestPathTreeCache trees = treeCache;
+        if (trees != null && cityGraph) {
+            ShortestPathTree tree = trees.get(from.getId());
+            if (tree != null) {
+                return new SegmentCache.Segment(tree.getDistance(to.getId()), tree.getPath(to.getId()));
+            }
+        }
+        SegmentCache cache = segmentCache;
+        if (cache == null) {
+            return searchSegment(search, from, to, options);
+        }
+        long key = SegmentCache.key(from.getId(), to.getId(), search.getGraph() instanceof EdgeBasedGraph);
+        SegmentCache.Segment segment = cache.get(key);
+        if (segment == null) {
+            segment = searchSegment(search, from, to, options);
+            cache.put(key, segment, version);
+        }
+        return segment;
+    }
+    
+    /**
+     * 搜索两城市间的一段最短路径，结果中的路径已转换为城市编号
+     */
+    private SegmentCache.Segment searchSegment(GraphSearch search, City from, City to, RouteOptions options) {
+        GraphSearch.SearchResult result = searchNodes(search, from, to, options);
+        if (!result.isFound()) {
+            return new SegmentCache.Segment(result.getDistance(), null);
+        }
+        return new SegmentCache.Segment(result.getDistance(), toCityIds(search.getGraph(), result.getPath()));
+    }
+    
+    /**
+     * 计算两城市间的一段最短路径
+     * 在扩展图上从起点的出发节点搜索到终点的到达节点，在城市图上直接搜索
+     */
+    private GraphSearch.SearchResult searchNodes(GraphSearch search, City from, City to, RouteOptions options) {
+        RoadGraph graph = search.getGraph();
+        int source = from.getId();
+        int target = to.getId();
+        if (graph instanceof EdgeBasedGraph) {
+            EdgeBasedGraph edgeGraph = (EdgeBasedGraph) graph;
+            source = edgeGraph.sourceNode(source);
+            target = edgeGraph.targetNode(target);
+        }
+        
+        if (options.isBidirectional()) {
+            return search.bidirectional(source, target);
+        }
+        if (options.isUseAstar()) {
+            return search.astar(source, target, heuristic(graph, to));
+        }
+        return search.dijkstra(source, target);
+    }
+    
+    /**
+     * A*启发式函数：节点所在城市到终点的地标下界，索引不可用时退化为Dijkstra
+     */
+    private GraphSearch.Heuristic heuristic(RoadGraph graph, City end) {
+        LandmarkIndex landmarks = getLandmarkIndex();
+        if (landmarks == null) {
+            return null;
+        }
+        int target = end.getId();
+        return node -> landmarks.lowerBound(graph.toCity(node), target);
+    }
+    
+    /**
+     * 把搜索得到的节点路径转换为城市编号，合并扩展图中属于同一城市的相邻节点
+     */
+    private static int[] toCityIds(RoadGraph graph, int[] path) {
+        int[] cities = new int[path.length];
+        int count = 0;
+        for (int node : path) {
+            int city = graph.toCity(node);
+            if (count == 0 || cities[count - 1] != city) {
+                cities[count++] = city;
+            }
+        }
+        return count == cities.length ? cities : Arrays.copyOf(cities, count);
+    }
+    
+    /**
+     * 把城市编号路径转换为城市名称
+     */
+    private List<String> toCityNames(int[] cities) {
+        List<String> names = new ArrayList<>(cities.length);
+        for (int city : cities) {
+            names.add(roadNetwork.getCityById(city).getFullName());
+        }
+        return names;
+    }
+    
+    /**
+     * 计算路线总距离
+     */
+    public int calculateTotalDistance(List<String> route) {
+        int totalDistance = 0;
+        GraphSearch search = null;
+        long version = 0; // 取得search时读到的路网版本号
+        
+        if (route == null || route.size() < 2) {
+            return totalDistance;
+        }
+        CsrGraph graph = roadNetwork.getRoadGraph(); // 直接相连的道路从CSR图查距离，堆外加载的城市没有邻接表
+        
+        for (int i = 0; i < route.size() - 1; i++) {
+            String cityA = route.get(i);
+            String cityB = route.get(i + 1);
+            
+            City city1 = roadNetwork.getCity(cityA);
+            City city2 = roadNetwork.getCity(cityB);
+            
+            if (city1 != null && city2 != null) {
+                int distance = directDistance(graph, city1.getId(), city2.getId());
+                
+                if (distance != EdgeUpdate.CLOSED) {
+                    totalDistance += distance;
+                    continue;
+                }
+                // 城市之间没有直接连接时按最短路径计算，分段缓存中通常已有这一段
+                if (search == null) {
+                    version = roadNetwork.getVersion();
+                    search = borrowSearch(roadNetwork.getRoadGraph());
+                }
+                SegmentCache.Segment segment = findSegment(search, version, city1, city2, new RouteOptions());
+                if (segment.isFound()) {
+                    totalDistance += segment.getDistance();
+                } else {
+                    // 两城市之间不连通，这意味着计算的路线有问题
+                    System.err.println("警告: 城市 " + cityA + " 和 " + cityB + " 之间没有连通的道路");
+                }
+            }
+        }
+        if (search != null) {
+            returnSearch(search);
+        }
+        
+        return totalDistance;
+    }
+    
+    /**
+     * 两城市间直接道路的距离，没有或已封闭时返回EdgeUpdate.CLOSED
+     */
+    private static int directDistance(CsrGraph graph, int from, int to) {
+        if (from >= graph.getNodeCount() || to >= graph.getNodeCount()) {
+            return EdgeUpdate.CLOSED;
+        }
+        int edge = graph.findEdge(from, to);
+        return edge < 0 ? EdgeUpdate.CLOSED : graph.getWeight(edge);
+    }
+    
+    /**
+     * 为兼容原有代码提供的方法
+     */
+    public List<String> route(String startingCity, String endingCity, List<String> attractions) {
+        // 默认使用Dijkstra算法，按给定顺序访问景点
+        return route(startingCity, endingCity, attractions, false, true);
+    }
+} 
\ No newline at end of file
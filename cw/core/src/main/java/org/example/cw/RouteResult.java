@@ -0,0 +1,35 @@
+package org.example.cw;
+
+import java.util.List;
+
+/**
+ * 路线查询结果：途经城市、总距离以及途中的充电站
+ */
+public class RouteResult {
+    private final List<String> cities;
+    private final int totalDistance;
+    private final List<String> chargingStops; // 需要充电的城市（按经过顺序）
+
+    public RouteResult(List<String> cities, int totalDistance, List<String> chargingStops) {
+        this.cities = cities;
+        this.totalDistance = totalDistance;
+        this.chargingStops = chargingStops;
+    }
+
+    public List<String> getCities() {
+        return cities;
+    }
+
+    public int getTotalDistance() {
+        return totalDistance;
+    }
+
+    public List<String> getChargingStops() {
+        return chargingStops;
+    }
+
+    @Override
+    public String toString() {
+        return cities + " (" + totalDistance + ")" + (chargingStops.isEmpty() ? "" : " 充电: " + chargingStops);
+    }
+}
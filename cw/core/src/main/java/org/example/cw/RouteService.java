@@ -0,0 +1,221 @@
+package org.example.cw;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 路线查询服务：把同时到达的相同查询合并为一次计算
+ *
+ * 很多客户端同时查询同一条热门路线时（例如热重载使缓存失效之后），只有第一个请求真正调用
+ * RoutePlanner.route，之后到达的相同请求共享它的CompletableFuture，结果由这一次计算写入路线缓存。
+ * 查询键是规范化后的RouteCache.Key，再加上路线规划器和路网版本号：
+ * 热重载换了规划器或路网发生变更后开始的请求不会拿到旧数据上的结果。
+ * 关闭缓存的查询（RouteOptions.setUseCache(false)）不合并。
+ * 也可以直接在RoadNetworkSnapshot上合并查询，RoutingServer的/route接口就是这样使用的。
+ */
+public class RouteService {
+    private final Supplier<RoutePlanner> planners; // 每次查询时取当前的路线规划器
+    private final ConcurrentHashMap<FlightKey, CompletableFuture<RouteResult>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder computedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * 只用于在路网快照上合并查询
+     */
+    public RouteService() {
+        this(() -> {
+            throw new IllegalStateException("该路线查询服务没有路线规划器");
+        });
+    }
+
+    public RouteService(RoutePlanner routePlanner) {
+        this(() -> routePlanner);
+    }
+
+    /**
+     * 使用热重载的当前快照
+     */
+    public RouteService(RoadDataReloader reloader) {
+        this(() -> reloader.current().getRoutePlanner());
+    }
+
+    public RouteService(Supplier<RoutePlanner> planners) {
+        this.planners = planners;
+    }
+
+    /**
+     * 在调用线程中规划路线，已有相同查询正在计算时等待并共享它的结果
+     */
+    public RouteResult route(String startingCity, String endingCity, List<String> attractions, RouteOptions options) {
+        return join(route(startingCity, endingCity, attractions, options, null));
+    }
+
+    private static RouteResult join(CompletableFuture<RouteResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 异步规划路线：需要计算时在executor中执行，已有相同查询正在计算时直接返回它的future
+     *
+     * @param executor 执行计算的线程池，null表示在调用线程中计算
+     */
+    public CompletableFuture<RouteResult> route(String startingCity, String endingCity, List<String> attractions,
+                                                RouteOptions options, Executor executor) {
+        RoutePlanner planner = planners.get();
+        if (!options.isUseCache()) {
+            return compute(planner, startingCity, endingCity, attractions, options, executor);
+        }
+
+        FlightKey key = new FlightKey(planner, planner.getRoadNetwork().getVersion(),
+                RouteCache.Key.of(startingCity, endingCity, attractions, options));
+        return coalesce(key, () -> compute(planner, startingCity, endingCity, attractions, options, executor));
+    }
+
+    /**
+     * 在路网快照上规划路线，同一快照上已有相同查询正在计算时等待并共享它的结果
+     *
+     * 快照没有路线缓存，这里只合并同时到达的请求，计算结束后的相同请求重新计算。
+     *
+     * @see RoadNetworkSnapshot#route(String, String, List, boolean)
+     */
+    public RouteResult route(RoadNetworkSnapshot snapshot, String startingCity, String endingCity,
+                             List<String> attractions, boolean orderedAttractions) {
+        FlightKey key = new FlightKey(snapshot, snapshot.getVersion(), RouteCache.Key.of(startingCity, endingCity,
+                attractions, new RouteOptions(false, orderedAttractions)));
+        return join(coalesce(key, () -> {
+            try {
+                computedCount.increment();
+                return CompletableFuture.completedFuture(
+                        snapshot.route(startingCity, endingCity, attractions, orderedAttractions));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }));
+    }
+
+    /**
+     * 登记一次计算：已有相同的计算时返回它的future，否则调用compute并在结束后移除登记
+     */
+    private CompletableFuture<RouteResult> coalesce(FlightKey key,
+                                                    Supplier<CompletableFuture<RouteResult>> compute) {
+        CompletableFuture<RouteResult> flight = new CompletableFuture<>();
+        CompletableFuture<RouteResult> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalescedCount.increment();
+            return existing;
+        }
+
+        CompletableFuture<RouteResult> result;
+        try {
+            result = compute.get();
+        } catch (Throwable e) {
+            // 例如线程池拒绝任务或计算线程中的Error：不能让等待者永远挂在未完成的future上
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // 计算结束后先移除再完成，之后到达的相同请求从路线缓存中取结果
+        result.whenComplete((value, error) -> {
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+            } else {
+                flight.complete(value);
+            }
+        });
+        return flight;
+    }
+
+    private CompletableFuture<RouteResult> compute(RoutePlanner planner, String startingCity, String endingCity,
+                                                   List<String> attractions, RouteOptions options,
+                                                   Executor executor) {
+        Supplier<RouteResult> task = () -> {
+            computedCount.increment();
+            return planner.route(startingCity, endingCity, attractions, options);
+        };
+        if (executor != null) {
+            return CompletableFuture.supplyAsync(task, executor);
+        }
+        try {
+            return CompletableFuture.completedFuture(task.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 获取当前的路线规划器
+     */
+    public RoutePlanner getRoutePlanner() {
+        return planners.get();
+    }
+
+    /**
+     * 获取实际调用RoutePlanner.route的次数
+     */
+    public long getComputedCount() {
+        return computedCount.sum();
+    }
+
+    /**
+     * 获取合并到已有计算中的请求数
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * 获取正在计算的不同查询数
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * 合并键：路线规划器或路网快照按对象身份区分
+     */
+    private static final class FlightKey {
+        private final Object planner;
+        private final long version;
+        private final RouteCache.Key query;
+
+        FlightKey(Object planner, long version, RouteCache.Key query) {
+            this.planner = planner;
+            this.version = version;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FlightKey)) {
+                return false;
+            }
+            FlightKey other = (FlightKey) o;
+            return planner == other.planner && version == other.version && query.equals(other.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(planner), version, query);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package org.example.cw;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 只监听本机地址的HTTP路由服务
+ *
+ * 基于JDK自带的HttpServer，所有接口都是GET，返回JSON：
+ * - /route?from=城市&to=城市[&via=景点...][&ordered=false]  经过景点的最短路线，景点数有上限（见RoadNetworkSnapshot）
+ * - /table?city=城市&city=城市...                          城市之间的距离矩阵
+ * - /isochrone?from=城市&distance=距离                      距离不超过给定值的所有城市
+ * - /search?q=文本[&type=city|attraction][&limit=数量]       按名称模糊搜索
+ * 每个请求取当时的RoadNetworkSnapshot计算，请求之间不共享可变状态也不加锁，路网更新后新到的请求自动使用新快照。
+ * 同一快照上同时到达的相同/route请求通过RouteService合并为一次计算。
+ * 运行在Java 21及以上时每个请求使用一个虚拟线程，否则使用平台线程池。
+ * 同时计算的请求数不超过maxConcurrent（路由是CPU密集的，默认等于处理器数），
+ * 另外最多queueCapacity个请求排队等待，等待超过QUEUE_TIMEOUT_MILLIS或队列已满时立即返回503。
+ */
+public class RoutingServer implements Closeable {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    public static final long QUEUE_TIMEOUT_MILLIS = 1000;
+    public static final int MAX_TABLE_CITIES = 100;
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+
+    private final Supplier<RoadNetworkSnapshot> snapshots;
+    private final RouteService routeService = new RouteService();
+    private final Semaphore admission; // 计算中和排队中的请求
+    private final Semaphore permits; // 计算中的请求
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final HttpServer server;
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * 使用路网的当前快照，port为0时由系统选择空闲端口
+     */
+    public RoutingServer(RoadNetwork roadNetwork, int port) throws IOException {
+        this(roadNetwork::snapshot, port, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param snapshots 每个请求调用一次，返回计算该请求使用的快照
+     * @param maxConcurrent 同时计算的最大请求数
+     * @param queueCapacity 等待计算的最大请求数
+     */
+    public RoutingServer(Supplier<RoadNetworkSnapshot> snapshots, int port, int maxConcurrent, int queueCapacity)
+            throws IOException {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("并发数必须为正数: " + maxConcurrent);
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("队列容量不能为负数: " + queueCapacity);
+        }
+        this.snapshots = snapshots;
+        this.admission = new Semaphore(maxConcurrent + queueCapacity);
+        this.permits = new Semaphore(maxConcurrent);
+
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        // 平台线程数同样受admission限制，不会无限增长
+        this.executor = virtual != null ? virtual : Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "routing-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext("/route", exchange -> handle(exchange, this::route));
+        server.createContext("/table", exchange -> handle(exchange, this::table));
+        server.createContext("/isochrone", exchange -> handle(exchange, this::isochrone));
+        server.createContext("/search", exchange -> handle(exchange, this::search));
+    }
+
+    /**
+     * 通过反射创建每个任务一个虚拟线程的执行器，运行时不支持时返回null
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * 停止接受新请求并关闭线程
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * 请求是否运行在虚拟线程上
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    /**
+     * 获取合并/route请求的路线查询服务，可用于查看合并统计
+     */
+    public RouteService getRouteService() {
+        return routeService;
+    }
+
+    /**
+     * 获取因过载返回503的请求数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * 接口处理函数：根据查询参数和快照生成JSON响应
+     */
+    private interface Endpoint {
+        String handle(Map<String, List<String>> parameters, RoadNetworkSnapshot snapshot);
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        try {
+            requestCount.increment();
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                send(exchange, 405, error("只支持GET请求"));
+                return;
+            }
+            if (!admission.tryAcquire()) {
+                reject(exchange);
+                return;
+            }
+            int status;
+            String body;
+            try {
+                if (!permits.tryAcquire(QUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    reject(exchange);
+                    return;
+                }
+                try {
+                    body = endpoint.handle(parseQuery(exchange.getRequestURI().getRawQuery()), snapshots.get());
+                    status = 200;
+                } catch (IllegalArgumentException e) {
+                    status = 400;
+                    body = error(e.getMessage());
+                } catch (NoSuchElementException e) {
+                    status = 404;
+                    body = error(e.getMessage());
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reject(exchange);
+                return;
+            } finally {
+                admission.release();
+            }
+            send(exchange, status, body);
+        } catch (RuntimeException e) {
+            System.err.println("处理请求失败: " + exchange.getRequestURI() + ": " + e);
+            send(exchange, 500, error("服务器内部错误"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void reject(HttpExchange exchange) throws IOException {
+        rejectedCount.increment();
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        send(exchange, 503, error("服务繁忙，请稍后重试"));
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * /route：from、to为城市全名，via为景点名（可重复），ordered默认为true
+     */
+    private String route(Map<String, List<String>> parameters, RoadNetworkSnapshot snapshot) {
+        String from = required(parameters, "from");
+        String to = required(parameters, "to");
+        List<String> via = parameters.getOrDefault("via", Collections.emptyList());
+        boolean ordered = !"false".equalsIgnoreCase(optional(parameters, "ordered", "true"));
+        // 不按顺序时要枚举全排列，景点数必须在计算前限制
+        int maxVia = ordered ? RoadNetworkSnapshot.MAX_ATTRACTIONS : RoadNetworkSnapshot.MAX_UNORDERED_ATTRACTIONS;
+        if (via.size() > maxVia) {
+            throw new IllegalArgumentException("via数量超过上限 " + maxVia + ": " + via.size());
+        }
+
+        RouteResult result = routeService.route(snapshot, from, to, via, ordered);
+        StringBuilder json = new StringBuilder();
+        json.append("{\"distance\":").append(result.getTotalDistance()).append(",\"cities\":");
+        appendStrings(json, result.getCities());
+        return json.append('}').toString();
+    }
+
+    /**
+     * /table：city为城市全名（可重复），返回按给定顺序排列的距离矩阵，不可达为null
+     */
+    private String table(Map<String, List<String>> parameters, RoadNetworkSnapshot snapshot) {
+        List<String> names = parameters.getOrDefault("city", Collections.emptyList());
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("缺少参数: city");
+        }
+        if (names.size() > MAX_TABLE_CITIES) {
+            throw new IllegalArgumentException("城市数超过上限 " + MAX_TABLE_CITIES + ": " + names.size());
+        }
+        int[] ids = new int[names.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = cityId(snapshot, names.get(i));
+        }
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"cities\":");
+        appendStrings(json, names);
+        json.append(",\"distances\":[");
+        for (int i = 0; i < ids.length; i++) {
+            ShortestPathTree tree = snapshot.shortestPathTree(ids[i]);
+            json.append(i > 0 ? ",[" : "[");
+            for (int j = 0; j < ids.length; j++) {
+                if (j > 0) {
+                    json.append(',');
+                }
+                json.append(tree.isReachable(ids[j]) ? String.valueOf(tree.getDistance(ids[j])) : "null");
+            }
+            json.append(']');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * /isochrone：from为城市全名，返回距离不超过distance的所有城市（含起点），按距离从近到远排列
+     */
+    private String isochrone(Map<String, List<String>> parameters, RoadNetworkSnapshot snapshot) {
+        int source = cityId(snapshot, required(parameters, "from"));
+        int maxDistance = parseInt("distance", required(parameters, "distance"));
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("距离不能为负数: " + maxDistance);
+        }
+
+        GraphSearch.Reach reach = snapshot.reachWithin(source, maxDistance);
+        StringBuilder json = new StringBuilder();
+        json.append("{\"from\":").append(quote(snapshot.getCityName(source)))
+                .append(",\"distance\":").append(maxDistance).append(",\"cities\":[");
+        for (int i = 0; i < reach.size(); i++) {
+            json.append(i > 0 ? ",{" : "{").append("\"name\":").append(quote(snapshot.getCityName(reach.getNode(i))))
+                    .append(",\"distance\":").append(reach.getDistance(i)).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * /search：q为查询文本，type为city（默认）或attraction，按名称排序后返回前limit个
+     */
+    private String search(Map<String, List<String>> parameters, RoadNetworkSnapshot snapshot) {
+        String query = required(parameters, "q");
+        String type = optional(parameters, "type", "city");
+        int limit = parseInt("limit", optional(parameters, "limit", String.valueOf(DEFAULT_SEARCH_LIMIT)));
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit必须为正数: " + limit);
+        }
+        List<String> matches;
+        if ("city".equals(type)) {
+            matches = snapshot.findCities(query);
+        } else if ("attraction".equals(type)) {
+            matches = snapshot.findAttractions(query);
+        } else {
+            throw new IllegalArgumentException("未知的搜索类型: " + type);
+        }
+        Collections.sort(matches);
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"total\":").append(matches.size()).append(",\"results\":");
+        appendStrings(json, matches.subList(0, Math.min(limit, matches.size())));
+        return json.append('}').toString();
+    }
+
+    private static int cityId(RoadNetworkSnapshot snapshot, String name) {
+        int id = snapshot.getCityId(name);
+        if (id < 0) {
+            throw new IllegalArgumentException("找不到城市: " + name);
+        }
+        return id;
+    }
+
+    /**
+     * 解析查询字符串，同名参数按出现顺序保留
+     */
+    static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int split = pair.indexOf('=');
+            String name = URLDecoder.decode(split < 0 ? pair : pair.substring(0, split), StandardCharsets.UTF_8);
+            String value = split < 0 ? "" : URLDecoder.decode(pair.substring(split + 1), StandardCharsets.UTF_8);
+            parameters.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+        }
+        return parameters;
+    }
+
+    private static String required(Map<String, List<String>> parameters, String name) {
+        List<String> values = parameters.get(name);
+        if (values == null || values.get(0).isEmpty()) {
+            throw new IllegalArgumentException("缺少参数: " + name);
+        }
+        return values.get(0);
+    }
+
+    private static String optional(Map<String, List<String>> parameters, String name, String defaultValue) {
+        List<String> values = parameters.get(name);
+        return values == null || values.get(0).isEmpty() ? defaultValue : values.get(0);
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("参数" + name + "不是整数: " + value);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    private static void appendStrings(StringBuilder json, List<String> values) {
+        json.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(quote(values.get(i)));
+        }
+        json.append(']');
+    }
+
+    /**
+     * 转为JSON字符串字面量
+     */
+    static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * 参数：[端口] [道路CSV 景点CSV]，不给数据文件时使用内置数据
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        RoadNetwork roadNetwork = new RoadNetwork();
+        if (args.length > 2) {
+            roadNetwork.loadData(Path.of(args[1]), Path.of(args[2]));
+        } else {
+            roadNetwork.loadData("/data/roads.csv", "/data/attractions.csv");
+        }
+        RoutingServer server = new RoutingServer(roadNetwork, port);
+        server.start();
+        System.out.println("路由服务已启动: http://localhost:" + server.getPort() + "/ （"
+                + roadNetwork.getCityCount() + " 个城市，" + (server.isVirtualThreads() ? "虚拟线程" : "平台线程") + "）");
+    }
+}
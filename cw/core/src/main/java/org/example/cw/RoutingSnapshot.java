@@ -0,0 +1,104 @@
+package org.example.cw;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 某一时刻的路网数据及其路由索引，发布后不再修改
+ *
+ * 查询开始时取一次快照并在整个查询中使用它，热重载替换快照不会影响正在进行的查询。
+ * 每个快照的路线规划器带有自己的结果缓存、分段缓存和最短路径树缓存，替换快照即丢弃旧缓存。
+ * 指定了缓存目录时分段缓存以磁盘上的SegmentStore为后备，并在后台预热，重启后不必从零开始。
+ */
+public class RoutingSnapshot implements Closeable {
+    public static final String CACHE_DIRECTORY_PROPERTY = "cw.cacheDir";
+    public static final int DISTANCE_TABLE_MAX_CITIES = 5000; // 城市数不超过它时预先构建全源距离表
+
+    private final RoadNetwork roadNetwork;
+    private final RoutePlanner routePlanner;
+    private final long generation; // 第几次加载，从1开始
+    private final long loadedAt; // 加载完成的时间（毫秒）
+    private volatile SegmentStore segmentStore; // 分段缓存的磁盘存储，未指定缓存目录时为null
+
+    /**
+     * 包装已加载的路网，并预先构建路由索引，使第一次查询不必等待
+     */
+    public RoutingSnapshot(RoadNetwork roadNetwork, long generation) {
+        this(roadNetwork, generation, null);
+    }
+
+    /**
+     * @param cacheDirectory 持久化分段缓存的目录，null表示不持久化
+     */
+    public RoutingSnapshot(RoadNetwork roadNetwork, long generation, Path cacheDirectory) {
+        this.roadNetwork = roadNetwork;
+        this.routePlanner = new RoutePlanner(roadNetwork);
+        routePlanner.setRouteCache(new RouteCache(roadNetwork));
+        SegmentCache segmentCache = new SegmentCache(roadNetwork);
+        routePlanner.setSegmentCache(segmentCache);
+        routePlanner.setShortestPathTreeCache(new ShortestPathTreeCache(roadNetwork));
+        this.generation = generation;
+        roadNetwork.getRoadGraph();
+        routePlanner.getLandmarkIndex();
+        if (roadNetwork.getCityCount() <= DISTANCE_TABLE_MAX_CITIES) {
+            roadNetwork.getDistanceTable();
+            routePlanner.setUseDistanceTable(true);
+        }
+        if (cacheDirectory != null) {
+            openStore(cacheDirectory);
+        }
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 打开磁盘存储并作为分段缓存的后备，在后台预热
+     * 热重载先构建好新快照、关闭旧快照的存储之后再调用，同一缓存目录同时只由一个快照打开
+     */
+    synchronized void openStore(Path cacheDirectory) {
+        if (segmentStore != null) {
+            throw new IllegalStateException("磁盘存储已经打开");
+        }
+        SegmentStore store;
+        try {
+            store = SegmentStore.open(cacheDirectory, roadNetwork);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("无法打开分段缓存目录，不使用持久化缓存: " + e.getMessage());
+            return;
+        }
+        SegmentCache segmentCache = routePlanner.getSegmentCache();
+        segmentCache.setStore(store);
+        store.warmUp(segmentCache);
+        segmentStore = store;
+    }
+
+    public RoadNetwork getRoadNetwork() {
+        return roadNetwork;
+    }
+
+    public RoutePlanner getRoutePlanner() {
+        return routePlanner;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    public SegmentStore getSegmentStore() {
+        return segmentStore;
+    }
+
+    /**
+     * 关闭磁盘存储，之后分段缓存只使用内存
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (segmentStore != null) {
+            segmentStore.close();
+        }
+    }
+}
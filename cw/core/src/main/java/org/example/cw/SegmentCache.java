@@ -0,0 +1,275 @@
+package org.example.cw;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 城市对之间最短路径的分段缓存
+ *
+ * 按顺序或不按顺序访问景点时，同一段起点到终点的最短路径会在不同排列、不同查询中反复计算。
+ * 缓存以(起点编号, 终点编号)为键，保存距离和紧凑的城市编号路径，不可达的城市对也会缓存。
+ * 城市图和考虑转向的扩展图上的距离不同，分别缓存；不同搜索算法得到的距离相同，共用同一份结果。
+ * 键按哈希分到若干分段，每个分段有自己的锁和LRU链表，各分段平分总权重（路径城市数之和），
+ * 多个会话并发查询时只在同一分段上竞争。路网版本号变化后所有分段一起清空。
+ * 可以设置SegmentStore作为磁盘上的后备存储：内存未命中时读取磁盘，新计算的路段同时追加到磁盘。
+ */
+public class SegmentCache {
+    public static final int DEFAULT_STRIPES = 16;
+    public static final long DEFAULT_MAX_WEIGHT = 1L << 22;
+    private static final int ENTRY_OVERHEAD = 8; // 每个条目除路径外的固定权重
+    private static final long TURN_AWARE_BIT = 1L << 63;
+
+    private final RoadNetwork roadNetwork;
+    private final Stripe[] stripes;
+    private final long stripeMaxWeight;
+    private volatile long version; // 缓存内容对应的路网版本号
+    private volatile SegmentStore store; // 磁盘后备存储，null表示不持久化
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder storeHitCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    public SegmentCache(RoadNetwork roadNetwork) {
+        this(roadNetwork, DEFAULT_STRIPES, DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * @param stripes 分段数，向上取整为2的幂
+     * @param maxWeight 所有分段的总权重上限
+     */
+    public SegmentCache(RoadNetwork roadNetwork, int stripes, long maxWeight) {
+        if (stripes <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("分段数和容量必须为正数: " + stripes + ", " + maxWeight);
+        }
+        int count = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.roadNetwork = roadNetwork;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.stripeMaxWeight = Math.max(1, maxWeight / count);
+        this.version = roadNetwork.getVersion();
+    }
+
+    /**
+     * 组合缓存键，城市编号都是非负的int
+     */
+    public static long key(int from, int to, boolean turnAware) {
+        long key = ((long) from << 32) | to;
+        return turnAware ? key | TURN_AWARE_BIT : key;
+    }
+
+    /**
+     * 设置磁盘后备存储，null表示不持久化
+     */
+    public void setStore(SegmentStore store) {
+        this.store = store;
+    }
+
+    public SegmentStore getStore() {
+        return store;
+    }
+
+    /**
+     * 查找缓存的路段，内存中没有时查找后备存储，都不存在时返回null
+     */
+    public Segment get(long key) {
+        checkVersion();
+        Stripe stripe = stripeFor(key);
+        Segment segment;
+        synchronized (stripe) {
+            segment = stripe.entries.get(key);
+        }
+        if (segment != null) {
+            hitCount.increment();
+            return segment;
+        }
+        SegmentStore backing = store;
+        if (backing != null) {
+            long storeVersion = version;
+            segment = backing.get(key);
+            if (segment != null) {
+                storeHitCount.increment();
+                insert(key, segment, storeVersion, true);
+                return segment;
+            }
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * 写入新计算的路段，设置了后备存储时同时追加到磁盘
+     *
+     * @param computedVersion 开始计算前读取的路网版本号，与当前版本不同时不写入
+     */
+    public void put(long key, Segment segment, long computedVersion) {
+        if (insert(key, segment, computedVersion, false)) {
+            SegmentStore backing = store;
+            if (backing != null) {
+                backing.append(key, segment);
+            }
+        }
+    }
+
+    /**
+     * 只在内存中还没有该路段时写入（用于从后备存储预热），不写回磁盘
+     */
+    public void putIfAbsent(long key, Segment segment, long computedVersion) {
+        insert(key, segment, computedVersion, true);
+    }
+
+    /**
+     * 写入内存，返回版本号是否有效
+     */
+    private boolean insert(long key, Segment segment, long computedVersion, boolean onlyIfAbsent) {
+        checkVersion();
+        long entryWeight = weigh(segment);
+        if (entryWeight > stripeMaxWeight) {
+            return computedVersion == version;
+        }
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            // 在分段锁内再次检查，清空操作先更新版本号再逐个清空分段
+            if (computedVersion != version) {
+                return false;
+            }
+            if (onlyIfAbsent && stripe.entries.containsKey(key)) {
+                return true;
+            }
+            Segment previous = stripe.entries.put(key, segment);
+            if (previous != null) {
+                stripe.weight -= weigh(previous);
+            }
+            stripe.weight += entryWeight;
+            Iterator<Segment> iterator = stripe.entries.values().iterator();
+            while (stripe.weight > stripeMaxWeight && iterator.hasNext()) {
+                stripe.weight -= weigh(iterator.next());
+                iterator.remove();
+                evictionCount.increment();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 清空所有分段
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.entries.clear();
+                stripe.weight = 0;
+            }
+        }
+    }
+
+    /**
+     * 路网版本变化时清空缓存
+     */
+    private void checkVersion() {
+        long current = roadNetwork.getVersion();
+        if (current != version) {
+            synchronized (this) {
+                if (current != version) {
+                    version = current;
+                    clear();
+                    invalidationCount.increment();
+                }
+            }
+        }
+    }
+
+    private Stripe stripeFor(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h >>> 40) & (stripes.length - 1)];
+    }
+
+    private static long weigh(Segment segment) {
+        return ENTRY_OVERHEAD + (segment.cities == null ? 0 : segment.cities.length);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 获取内存未命中但在后备存储中找到的次数
+     */
+    public long getStoreHitCount() {
+        return storeHitCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.sum();
+    }
+
+    /**
+     * 获取命中率，尚无查询时返回0
+     */
+    public double getHitRate() {
+        long hits = hitCount.sum() + storeHitCount.sum();
+        long total = hits + missCount.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SegmentCache[条目=%d, 命中=%d, 磁盘命中=%d, 未命中=%d, 淘汰=%d, 失效=%d]",
+                size(), getHitCount(), getStoreHitCount(), getMissCount(), getEvictionCount(),
+                getInvalidationCount());
+    }
+
+    private static final class Stripe {
+        private final LinkedHashMap<Long, Segment> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight;
+    }
+
+    /**
+     * 一段最短路径：距离和途经的城市编号（含两端），不可达时路径为null
+     */
+    public static final class Segment {
+        private final int distance;
+        private final int[] cities;
+
+        public Segment(int distance, int[] cities) {
+            this.distance = distance;
+            this.cities = cities;
+        }
+
+        public boolean isFound() {
+            return cities != null;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+
+        /**
+         * 获取途经城市的编号，调用方不应修改返回的数组
+         */
+        public int[] getCities() {
+            return cities;
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package org.example.cw;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 分段缓存的磁盘持久化存储，应用重启后仍然保留已计算的城市对距离和路径
+ *
+ * 存储由两个文件组成，文件名带有路网内容哈希（RoadNetwork.contentHash），
+ * 路网内容变化后自然使用新文件，打开时删除目录中其他哈希的旧文件：
+ * - segments-哈希.log：只追加的记录日志，每条记录为 键(long) 距离(int) 城市数(int，不可达为-1) 城市编号...
+ * - segments-哈希.idx：内存映射的开放寻址哈希表，槽位为 键(long) 日志偏移(long，0表示空槽)，
+ *   头部记录已提交的日志长度；打开时把日志截断到该长度，丢弃崩溃时写了一半的记录，
+ *   并重建索引以去掉指向已提交长度之外的槽位（映射内存写回磁盘的顺序不确定，槽位可能先于提交长度落盘）
+ * 每条记录先写入日志并强制落盘，然后才写索引槽位和提交长度，已提交的长度之内都是完整的记录。
+ * 打开后路网再发生变更（版本号变化）或存储关闭后不再读写，下次启动会因哈希不同而重建。
+ * 所有读写方法都是同步的；同一对文件同时只能由一个实例打开。
+ */
+public class SegmentStore implements Closeable {
+    private static final int MAGIC = 0x53454753; // "SEGS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int LOG_HEADER_BYTES = 16; // 魔数、格式版本、路网哈希
+    private static final int INDEX_HEADER_BYTES = 32; // 魔数、格式版本、路网哈希、容量、条目数、已提交的日志长度
+    private static final int SLOT_BYTES = 16;
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final int MAX_CITIES = 1 << 24; // 单条记录的城市数上限，用于识别损坏的记录
+
+    private final RoadNetwork roadNetwork;
+    private final long networkVersion; // 打开时的路网版本号
+    private final long networkHash;
+    private final Path logFile;
+    private final Path indexFile;
+    private final FileChannel log;
+    private long logEnd;
+    private MappedByteBuffer index;
+    private int capacity; // 槽位数，2的幂
+    private int count;
+
+    private SegmentStore(RoadNetwork roadNetwork, Path directory) throws IOException {
+        this.roadNetwork = roadNetwork;
+        this.networkVersion = roadNetwork.getVersion();
+        this.networkHash = roadNetwork.contentHash();
+        String prefix = "segments-" + Long.toHexString(networkHash);
+        this.logFile = directory.resolve(prefix + ".log");
+        this.indexFile = directory.resolve(prefix + ".idx");
+        this.log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (!openExisting()) {
+            reset();
+        }
+    }
+
+    /**
+     * 在目录中打开（或创建）与路网内容对应的存储，并删除其他路网内容留下的旧文件
+     */
+    public static SegmentStore open(Path directory, RoadNetwork roadNetwork) throws IOException {
+        Files.createDirectories(directory);
+        SegmentStore store = new SegmentStore(roadNetwork, directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segments-*.{log,idx}")) {
+            for (Path file : files) {
+                if (!file.equals(store.logFile) && !file.equals(store.indexFile)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * 校验已有文件的头部，并把日志截断到已提交的长度
+     */
+    private boolean openExisting() throws IOException {
+        if (!Files.exists(indexFile) || log.size() < LOG_HEADER_BYTES) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+        log.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION || header.getLong() != networkHash) {
+            return false;
+        }
+        MappedByteBuffer mapped = map(indexFile, Files.size(indexFile));
+        if (mapped.capacity() < INDEX_HEADER_BYTES || mapped.getInt(0) != MAGIC
+                || mapped.getInt(4) != FORMAT_VERSION || mapped.getLong(8) != networkHash) {
+            return false;
+        }
+        int slots = mapped.getInt(16);
+        long committed = mapped.getLong(24);
+        if (Integer.bitCount(slots) != 1 || mapped.capacity() != INDEX_HEADER_BYTES + (long) slots * SLOT_BYTES
+                || committed < LOG_HEADER_BYTES || committed > log.size()) {
+            return false;
+        }
+        log.truncate(committed);
+        index = mapped;
+        capacity = slots;
+        count = mapped.getInt(20);
+        logEnd = committed;
+        for (int slot = 0; slot < capacity; slot++) {
+            long offset = index.getLong(INDEX_HEADER_BYTES + slot * SLOT_BYTES + 8);
+            if (offset != 0 && (offset < LOG_HEADER_BYTES || offset >= committed)) {
+                // 悬空的槽位会让这个键永远无法再写入，按已提交的槽位重建索引
+                rebuildIndex(capacity);
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 清空日志和索引
+     */
+    private void reset() throws IOException {
+        log.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(networkHash).flip();
+        log.write(header, 0);
+        logEnd = LOG_HEADER_BYTES;
+        Files.deleteIfExists(indexFile);
+        index = createIndex(indexFile, INITIAL_CAPACITY);
+        capacity = INITIAL_CAPACITY;
+        count = 0;
+        index.putLong(24, logEnd);
+    }
+
+    private MappedByteBuffer createIndex(Path file, int slots) throws IOException {
+        MappedByteBuffer mapped = map(file, INDEX_HEADER_BYTES + (long) slots * SLOT_BYTES);
+        mapped.putInt(0, MAGIC);
+        mapped.putInt(4, FORMAT_VERSION);
+        mapped.putLong(8, networkHash);
+        mapped.putInt(16, slots);
+        mapped.putInt(20, 0);
+        mapped.putLong(24, LOG_HEADER_BYTES);
+        return mapped;
+    }
+
+    private static MappedByteBuffer map(Path file, long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("索引文件超过2GB: " + bytes);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // 映射在通道关闭后仍然有效
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        }
+    }
+
+    /**
+     * 存储是否仍可使用：未关闭且打开后路网未发生变更
+     */
+    public boolean isCurrent() {
+        return log.isOpen() && roadNetwork.getVersion() == networkVersion;
+    }
+
+    /**
+     * 查找路段，不存在或存储已过期时返回null
+     */
+    public synchronized SegmentCache.Segment get(long key) {
+        if (!isCurrent()) {
+            return null;
+        }
+        long offset = find(key);
+        if (offset <= 0) {
+            return null;
+        }
+        try {
+            return readRecord(offset, key);
+        } catch (IOException e) {
+            System.err.println("读取分段缓存文件时出错: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 追加路段，键已存在或存储已过期时忽略
+     */
+    public synchronized void append(long key, SegmentCache.Segment segment) {
+        if (!isCurrent() || find(key) > 0) {
+            return;
+        }
+        int[] cities = segment.getCities();
+        int length = cities == null ? 0 : cities.length;
+        ByteBuffer record = ByteBuffer.allocate(16 + 4 * length);
+        record.putLong(key).putInt(segment.getDistance()).putInt(cities == null ? -1 : length);
+        for (int i = 0; i < length; i++) {
+            record.putInt(cities[i]);
+        }
+        record.flip();
+        try {
+            long offset = logEnd;
+            while (record.hasRemaining()) {
+                log.write(record, offset + record.position());
+            }
+            log.force(false); // 记录落盘之后才能在索引中提交
+            logEnd = offset + record.limit();
+            if ((count + 1) * 2L > capacity) {
+                grow();
+            }
+            insert(index, capacity, key, offset);
+            count++;
+            index.putInt(20, count);
+            index.putLong(24, logEnd); // 记录和索引都写好后才提交
+        } catch (IOException e) {
+            System.err.println("写入分段缓存文件时出错: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 按日志顺序读取所有记录
+     */
+    public void forEach(SegmentVisitor visitor) throws IOException {
+        long end;
+        synchronized (this) {
+            end = logEnd;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long position = LOG_HEADER_BYTES;
+        buffer.limit(0);
+        while (position < end && isCurrent()) {
+            if (buffer.remaining() < 16) {
+                buffer = fill(buffer, position, 16, end);
+            }
+            long key = buffer.getLong();
+            int distance = buffer.getInt();
+            int length = buffer.getInt();
+            if (length < -1 || length > MAX_CITIES) {
+                throw new IOException("分段缓存记录损坏，位置: " + position);
+            }
+            int bytes = 4 * Math.max(0, length);
+            if (buffer.remaining() < bytes) {
+                buffer = fill(buffer, position + 16, bytes, end);
+            }
+            int[] cities = null;
+            if (length >= 0) {
+                cities = new int[length];
+                for (int i = 0; i < length; i++) {
+                    cities[i] = buffer.getInt();
+                }
+            }
+            position += 16 + bytes;
+            visitor.visit(key, new SegmentCache.Segment(distance, cities));
+        }
+    }
+
+    /**
+     * 从position开始重新填充缓冲区，保证至少有need个字节
+     */
+    private ByteBuffer fill(ByteBuffer buffer, long position, int need, long end) throws IOException {
+        if (buffer.capacity() < need) {
+            buffer = ByteBuffer.allocate(need);
+        }
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), end - position));
+        while (buffer.hasRemaining()) {
+            if (log.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        if (buffer.remaining() < need) {
+            throw new IOException("分段缓存日志被截断，位置: " + position);
+        }
+        return buffer;
+    }
+
+    /**
+     * 在后台线程中把存储的路段预先装入内存缓存，缓存开始淘汰时停止
+     */
+    public Thread warmUp(SegmentCache cache) {
+        Thread thread = new Thread(() -> {
+            long evictions = cache.getEvictionCount();
+            try {
+                forEach((key, segment) -> {
+                    if (cache.getEvictionCount() != evictions) {
+                        throw new WarmUpFullException();
+                    }
+                    cache.putIfAbsent(key, segment, networkVersion);
+                });
+            } catch (WarmUpFullException e) {
+                // 内存缓存已满
+            } catch (IOException e) {
+                System.err.println("预热分段缓存时出错: " + e.getMessage());
+            }
+        }, "segment-store-warmup");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * 查找键对应的日志偏移，不存在时返回0
+     */
+    private long find(long key) {
+        int mask = capacity - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int position = INDEX_HEADER_BYTES + slot * SLOT_BYTES;
+            long offset = index.getLong(position + 8);
+            if (offset == 0 || index.getLong(position) == key) {
+                return offset;
+            }
+        }
+    }
+
+    private static void insert(MappedByteBuffer table, int slots, long key, long offset) {
+        int mask = slots - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int position = INDEX_HEADER_BYTES + slot * SLOT_BYTES;
+            if (table.getLong(position + 8) == 0) {
+                table.putLong(position, key);
+                table.putLong(position + 8, offset);
+                return;
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32);
+    }
+
+    /**
+     * 把索引扩大一倍
+     */
+    private void grow() throws IOException {
+        rebuildIndex(capacity * 2);
+    }
+
+    /**
+     * 把指向已提交日志的槽位重新插入slots个槽位的新索引：写入临时文件后原子地替换
+     */
+    private void rebuildIndex(int slots) throws IOException {
+        Path temporary = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        MappedByteBuffer table = createIndex(temporary, slots);
+        count = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int position = INDEX_HEADER_BYTES + slot * SLOT_BYTES;
+            long offset = index.getLong(position + 8);
+            if (offset >= LOG_HEADER_BYTES && offset < logEnd) {
+                insert(table, slots, index.getLong(position), offset);
+                count++;
+            }
+        }
+        table.putInt(20, count);
+        table.putLong(24, logEnd);
+        table.force();
+        Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index = table;
+        capacity = slots;
+    }
+
+    private SegmentCache.Segment readRecord(long offset, long key) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(16);
+        while (header.hasRemaining()) {
+            if (log.read(header, offset + header.position()) < 0) {
+                throw new IOException("分段缓存日志被截断，位置: " + offset);
+            }
+        }
+        header.flip();
+        if (header.getLong() != key) {
+            throw new IOException("分段缓存索引与日志不一致，位置: " + offset);
+        }
+        int distance = header.getInt();
+        int length = header.getInt();
+        if (length < 0) {
+            return new SegmentCache.Segment(distance, null);
+        }
+        if (length > MAX_CITIES) {
+            throw new IOException("分段缓存记录损坏，位置: " + offset);
+        }
+        ByteBuffer body = ByteBuffer.allocate(4 * length);
+        while (body.hasRemaining()) {
+            if (log.read(body, offset + 16 + body.position()) < 0) {
+                throw new IOException("分段缓存日志被截断，位置: " + offset);
+            }
+        }
+        body.flip();
+        int[] cities = new int[length];
+        body.asIntBuffer().get(cities);
+        return new SegmentCache.Segment(distance, cities);
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public long getNetworkHash() {
+        return networkHash;
+    }
+
+    /**
+     * 把日志和索引写回磁盘并关闭
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (log.isOpen()) {
+            index.force();
+            log.force(false);
+            log.close();
+        }
+    }
+
+    /**
+     * 顺序读取记录时的回调
+     */
+    public interface SegmentVisitor {
+        void visit(long key, SegmentCache.Segment segment);
+    }
+
+    /**
+     * 预热时内存缓存已满，用于提前结束遍历
+     */
+    private static final class WarmUpFullException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        WarmUpFullException() {
+            super(null, null, false, false);
+        }
+    }
+}
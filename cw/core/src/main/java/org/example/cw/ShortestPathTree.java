@@ -0,0 +1,63 @@
+package org.example.cw;
+
+/**
+ * 单源最短路径树：从起点到每个节点的距离和最短路径上的前驱
+ *
+ * 由GraphSearch.shortestPathTree构建，构建后不再修改，可以被多个线程同时读取。
+ * 到任意节点的路径按前驱回溯得到，耗时与路径长度成正比。
+ */
+public class ShortestPathTree {
+    private final int source;
+    private final int[] distance; // 不可达为GraphSearch.INFINITY
+    private final int[] parent; // 起点和不可达节点为-1
+
+    public ShortestPathTree(int source, int[] distance, int[] parent) {
+        this.source = source;
+        this.distance = distance;
+        this.parent = parent;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * 起点到node的最短距离，不可达时为GraphSearch.INFINITY
+     */
+    public int getDistance(int node) {
+        return distance[node];
+    }
+
+    public int getParent(int node) {
+        return parent[node];
+    }
+
+    public boolean isReachable(int node) {
+        return distance[node] != GraphSearch.INFINITY;
+    }
+
+    /**
+     * 起点到target的节点路径（含两端），不可达时返回null
+     */
+    public int[] getPath(int target) {
+        if (!isReachable(target)) {
+            return null;
+        }
+        int length = 0;
+        for (int v = target; v != -1; v = parent[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target, i = length - 1; v != -1; v = parent[v], i--) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    /**
+     * 占用的内存字节数（两个int数组）
+     */
+    public long getMemoryBytes() {
+        return 8L * distance.length;
+    }
+}
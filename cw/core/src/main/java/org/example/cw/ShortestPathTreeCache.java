@@ -0,0 +1,287 @@
+package org.example.cw;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 常用起点的最短路径树缓存
+ *
+ * 很多查询共享同一个起点（例如仓库城市或界面中选中的起始城市），为最常用的若干个起点
+ * 保存完整的单源最短路径树后，从这些起点出发的任何查询只需按前驱回溯，耗时与路径长度成正比。
+ * 准入策略参考TinyLFU：用Count-Min草图估计每个起点最近的访问频率，
+ * 频率达到ADMISSION_THRESHOLD才会为它构建树；缓存已满时只有比频率最低的已缓存起点更常用才替换它，
+ * 偶尔出现一次的起点不会挤掉常用起点。草图在记录的访问数达到容量的若干倍后把所有计数减半，使频率随时间衰减。
+ * 构建整棵树比一次点对点搜索慢得多，因此通过准入的查询不等待：树在后台执行器中构建，每个起点同时只构建一次，
+ * 这次查询和构建完成前的查询照常由调用方做点对点搜索。
+ * 只缓存城市图上的树，路网版本号变化后清空所有树，旧版本上构建完成的树被丢弃。
+ * 频率不随版本清空：实时路况下版本号每秒都在变，清空频率会让任何起点都达不到准入门槛；
+ * 保留频率后，常用起点在新版本上的下一次查询就会重新构建树。
+ */
+public class ShortestPathTreeCache {
+    public static final int DEFAULT_MAX_TREES = 8;
+    public static final int ADMISSION_THRESHOLD = 2; // 至少被访问过这么多次才构建树
+
+    private final RoadNetwork roadNetwork;
+    private final int maxTrees;
+    private final Map<Integer, ShortestPathTree> trees = new HashMap<>();
+    private final Set<Integer> building = new HashSet<>(); // 正在后台构建树的起点
+    private final Executor builder;
+    private final FrequencySketch sketch;
+    private long version; // 缓存内容对应的路网版本号
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder buildCount = new LongAdder();
+    private final LongAdder rejectCount = new LongAdder();
+
+    // 默认的后台构建线程：所有缓存共用一个守护线程，构建不会占满处理器
+    private static final ExecutorService SHARED_BUILDER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "shortest-path-tree");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ShortestPathTreeCache(RoadNetwork roadNetwork) {
+        this(roadNetwork, DEFAULT_MAX_TREES);
+    }
+
+    /**
+     * @param maxTrees 最多缓存的树数，每棵树占用8×城市数字节
+     */
+    public ShortestPathTreeCache(RoadNetwork roadNetwork, int maxTrees) {
+        this(roadNetwork, maxTrees, SHARED_BUILDER);
+    }
+
+    /**
+     * @param builder 构建树的执行器
+     */
+    public ShortestPathTreeCache(RoadNetwork roadNetwork, int maxTrees, Executor builder) {
+        if (maxTrees <= 0) {
+            throw new IllegalArgumentException("最短路径树数量必须为正数: " + maxTrees);
+        }
+        this.roadNetwork = roadNetwork;
+        this.maxTrees = maxTrees;
+        this.builder = builder;
+        this.sketch = new FrequencySketch(Math.max(64, 16 * maxTrees));
+        this.version = roadNetwork.getVersion();
+    }
+
+    /**
+     * 记录一次从origin出发的查询，返回它的最短路径树
+     *
+     * 树已缓存时直接返回；否则返回null，由调用方做点对点搜索。
+     * 未缓存但通过准入、且没有正在构建时，提交一次后台构建。
+     */
+    public ShortestPathTree get(int origin) {
+        long computedVersion;
+        synchronized (this) {
+            checkVersion();
+            sketch.increment(origin);
+            ShortestPathTree tree = trees.get(origin);
+            if (tree != null) {
+                hitCount.increment();
+                return tree;
+            }
+            missCount.increment();
+            if (building.contains(origin) || !admit(origin)) {
+                return null;
+            }
+            building.add(origin);
+            computedVersion = version;
+        }
+
+        try {
+            builder.execute(() -> build(origin, computedVersion));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                building.remove(origin);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在后台构建origin的树，完成时路网未变更且仍通过准入才放入缓存
+     */
+    private void build(int origin, long computedVersion) {
+        try {
+            ShortestPathTree tree = new GraphSearch(roadNetwork.getRoadGraph()).shortestPathTree(origin);
+            buildCount.increment();
+            synchronized (this) {
+                checkVersion();
+                if (computedVersion == version && !trees.containsKey(origin) && admit(origin)) {
+                    if (trees.size() >= maxTrees) {
+                        trees.remove(victim());
+                    }
+                    trees.put(origin, tree);
+                }
+            }
+        } finally {
+            synchronized (this) {
+                building.remove(origin);
+            }
+        }
+    }
+
+    /**
+     * 判断是否应为origin构建树
+     */
+    private boolean admit(int origin) {
+        int frequency = sketch.frequency(origin);
+        if (frequency < ADMISSION_THRESHOLD) {
+            rejectCount.increment();
+            return false;
+        }
+        if (trees.size() < maxTrees) {
+            return true;
+        }
+        if (frequency > sketch.frequency(victim())) {
+            return true;
+        }
+        rejectCount.increment();
+        return false;
+    }
+
+    /**
+     * 已缓存起点中估计频率最低的一个
+     */
+    private int victim() {
+        int victim = -1;
+        int lowest = Integer.MAX_VALUE;
+        for (int origin : trees.keySet()) {
+            int frequency = sketch.frequency(origin);
+            if (frequency < lowest) {
+                lowest = frequency;
+                victim = origin;
+            }
+        }
+        return victim;
+    }
+
+    private void checkVersion() {
+        long current = roadNetwork.getVersion();
+        if (current != version) {
+            trees.clear();
+            version = current;
+        }
+    }
+
+    /**
+     * 清空缓存的树和访问频率
+     */
+    public synchronized void clear() {
+        trees.clear();
+        sketch.clear();
+    }
+
+    public synchronized int size() {
+        return trees.size();
+    }
+
+    public synchronized boolean contains(int origin) {
+        return trees.containsKey(origin);
+    }
+
+    /**
+     * 正在后台构建的树数
+     */
+    public synchronized int getPendingCount() {
+        return building.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getBuildCount() {
+        return buildCount.sum();
+    }
+
+    /**
+     * 获取因频率不足而没有构建树的次数
+     */
+    public long getRejectCount() {
+        return rejectCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ShortestPathTreeCache[树=%d, 命中=%d, 未命中=%d, 构建=%d, 拒绝=%d]",
+                size(), getHitCount(), getMissCount(), getBuildCount(), getRejectCount());
+    }
+
+    /**
+     * 4行Count-Min草图，计数上限15，记录次数达到宽度的10倍后所有计数减半
+     */
+    private static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final long[] SEEDS = {
+                0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+        };
+
+        private final byte[][] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int width) {
+            int size = Integer.highestOneBit(width - 1) << 1;
+            counters = new byte[DEPTH][size];
+            mask = size - 1;
+            sampleSize = 10 * size;
+        }
+
+        void increment(int key) {
+            for (int row = 0; row < DEPTH; row++) {
+                int index = index(key, row);
+                if (counters[row][index] < MAX_COUNT) {
+                    counters[row][index]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                age();
+            }
+        }
+
+        int frequency(int key) {
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                frequency = Math.min(frequency, counters[row][index(key, row)]);
+            }
+            return frequency;
+        }
+
+        private int index(int key, int row) {
+            long h = (key + 1L) * SEEDS[row];
+            return (int) (h >>> 32) & mask;
+        }
+
+        private void age() {
+            for (byte[] row : counters) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>= 1;
+                }
+            }
+            additions /= 2;
+        }
+
+        void clear() {
+            for (byte[] row : counters) {
+                Arrays.fill(row, (byte) 0);
+            }
+            additions = 0;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.cw;
+
+import java.util.List;
+
+/**
+ * 时间相关路线查询的结果：途经城市及出发、到达时刻
+ */
+public class TimeDependentRoute {
+    private final List<String> cities;
+    private final int departureTime; // 出发时刻（秒）
+    private final int arrivalTime; // 最早到达时刻（秒）
+
+    public TimeDependentRoute(List<String> cities, int departureTime, int arrivalTime) {
+        this.cities = cities;
+        this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
+    }
+
+    public List<String> getCities() {
+        return cities;
+    }
+
+    public int getDepartureTime() {
+        return departureTime;
+    }
+
+    public int getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public int getTravelSeconds() {
+        return arrivalTime - departureTime;
+    }
+
+    @Override
+    public String toString() {
+        return TravelTimeProfiles.formatTime(departureTime) + " -> "
+                + TravelTimeProfiles.formatTime(arrivalTime) + " " + cities;
+    }
+}
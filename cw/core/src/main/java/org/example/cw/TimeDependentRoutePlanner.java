@@ -0,0 +1,117 @@
+package org.example.cw;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 时间相关的最早到达路线规划
+ *
+ * 边的通行时间取决于到达该边起点的时刻（见TravelTimeProfiles）。
+ * 在满足先进先出（晚出发不会早到达）的曲线上，以到达时刻为键的
+ * Dijkstra即可求出最早到达时间；A*再加上由地标距离下界换算的时间下界。
+ * 下界换算时有取整误差，因此已出队的城市在到达时间变早时允许重新入队。
+ */
+public class TimeDependentRoutePlanner {
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final RoadNetwork roadNetwork;
+    private final TravelTimeProfiles profiles;
+    private final LandmarkIndex landmarkIndex; // 可为null，此时A*退化为Dijkstra
+    private double minSecondsPerUnit; // 缓存的时间下界系数
+    private long cachedVersion = -1; // 缓存对应的路网版本
+
+    public TimeDependentRoutePlanner(RoadNetwork roadNetwork, TravelTimeProfiles profiles, LandmarkIndex landmarkIndex) {
+        this.roadNetwork = roadNetwork;
+        this.profiles = profiles;
+        this.landmarkIndex = landmarkIndex;
+    }
+
+    /**
+     * 计算给定出发时刻下的最早到达路线
+     *
+     * @param startingCity 起始城市全名
+     * @param endingCity 目的地城市全名
+     * @param departureTime 出发时刻（当天秒数）
+     * @param useAstar 是否使用A*算法
+     * @return 路线及到达时刻
+     */
+    public TimeDependentRoute route(String startingCity, String endingCity, int departureTime, boolean useAstar) {
+        roadNetwork.ensureCityAdjacency(); // 按城市邻接表搜索，堆外加载的路网先补建
+        City start = roadNetwork.getCity(startingCity);
+        City end = roadNetwork.getCity(endingCity);
+        if (start == null) {
+            throw new IllegalArgumentException("找不到起始城市: " + startingCity);
+        }
+        if (end == null) {
+            throw new IllegalArgumentException("找不到目的地城市: " + endingCity);
+        }
+
+        int n = roadNetwork.getCityCount();
+        int[] arrival = new int[n];
+        int[] previous = new int[n];
+        Arrays.fill(arrival, INFINITY);
+        Arrays.fill(previous, -1);
+
+        // 时间下界系数：距离下界 × 每单位距离最少秒数
+        double secondsPerUnit = (useAstar && landmarkIndex != null) ? getMinSecondsPerUnit() : 0;
+
+        IntMinHeap queue = new IntMinHeap(n);
+        arrival[start.getId()] = departureTime;
+        queue.insertOrDecrease(start.getId(), departureTime + heuristic(start, end, secondsPerUnit));
+
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            if (current == end.getId()) {
+                break;
+            }
+
+            City city = roadNetwork.getCityById(current);
+            for (int i = 0; i < city.getDegree(); i++) {
+                City neighbor = city.getNeighbor(i);
+                int next = neighbor.getId();
+
+                int travel = profiles.travelTime(current, next, city.getNeighborDistance(i), arrival[current]);
+                int newArrival = arrival[current] + travel;
+                if (newArrival < arrival[next]) {
+                    arrival[next] = newArrival;
+                    previous[next] = current;
+                    queue.insertOrDecrease(next, newArrival + heuristic(neighbor, end, secondsPerUnit));
+                }
+            }
+        }
+
+        if (arrival[end.getId()] == INFINITY) {
+            throw new RuntimeException("找不到从 " + startingCity + " 到 " + endingCity + " 的路径");
+        }
+
+        List<String> path = new ArrayList<>();
+        for (int v = end.getId(); v != -1; v = previous[v]) {
+            path.add(roadNetwork.getCityById(v).getFullName());
+        }
+        Collections.reverse(path);
+        return new TimeDependentRoute(path, departureTime, arrival[end.getId()]);
+    }
+
+    /**
+     * 获取时间下界系数，路网变更后重新计算
+     */
+    private synchronized double getMinSecondsPerUnit() {
+        if (cachedVersion != roadNetwork.getVersion()) {
+            minSecondsPerUnit = profiles.minSecondsPerUnit(roadNetwork);
+            cachedVersion = roadNetwork.getVersion();
+        }
+        return minSecondsPerUnit;
+    }
+
+    /**
+     * 剩余通行时间的下界（秒）
+     */
+    private int heuristic(City current, City end, double secondsPerUnit) {
+        if (secondsPerUnit == 0) {
+            return 0;
+        }
+        return (int) (landmarkIndex.lowerBound(current, end) * secondsPerUnit);
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.cw;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 从本地文件回放交通信息流，按秒批量应用到道路网络
+ *
+ * 文件格式（首行为标题）：秒偏移,城市A,城市B,距离
+ * 距离为 closed 或 -1 表示封路。每个时刻到期的记录合并为一批调用
+ * RoadNetwork.applyEdgeUpdates，路由索引随之增量更新，不会整体重建。
+ */
+public class TrafficFeedReplayer {
+    private final RoadNetwork roadNetwork;
+    private final List<TimedUpdate> updates; // 按时间排序的变更
+    private ScheduledExecutorService scheduler;
+    private long startTime;
+    private int nextIndex; // 下一条待应用的变更
+    private int appliedBatches;
+
+    public TrafficFeedReplayer(RoadNetwork roadNetwork, Path feedFile) throws IOException {
+        this.roadNetwork = roadNetwork;
+        this.updates = new ArrayList<>();
+
+        try (BufferedReader br = Files.newBufferedReader(feedFile)) {
+            String line = br.readLine(); // 跳过标题行
+
+            while ((line = br.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (line.trim().isEmpty() || comma < 0) {
+                    continue;
+                }
+                long offset = Long.parseLong(line.substring(0, comma).trim());
+                updates.add(new TimedUpdate(offset, EdgeUpdate.parse(line.substring(comma + 1))));
+            }
+        }
+        updates.sort(Comparator.comparingLong(u -> u.offsetSeconds));
+    }
+
+    /**
+     * 开始回放，每秒应用一次到期的变更
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        startTime = System.nanoTime();
+        nextIndex = 0;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "traffic-feed-replayer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, 0, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止回放
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 应用所有已到期的变更
+     */
+    private synchronized void tick() {
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTime);
+
+        List<EdgeUpdate> batch = new ArrayList<>();
+        while (nextIndex < updates.size() && updates.get(nextIndex).offsetSeconds <= elapsedSeconds) {
+            EdgeUpdate update = updates.get(nextIndex).update;
+            nextIndex++;
+            // 端点不存在的变更会使整批被拒绝，单独跳过
+            if (!roadNetwork.cityExists(update.getCityA()) || !roadNetwork.cityExists(update.getCityB())) {
+                System.err.println("跳过端点不存在的交通变更: " + update);
+                continue;
+            }
+            batch.add(update);
+        }
+
+        if (!batch.isEmpty()) {
+            try {
+                roadNetwork.applyEdgeUpdates(batch);
+                appliedBatches++;
+            } catch (IllegalArgumentException e) {
+                System.err.println("应用交通变更时出错，整批未应用: " + e.getMessage());
+            } catch (RuntimeException e) {
+                // 异常逃出tick会使scheduleAtFixedRate静默取消后续回放，记录后继续
+                System.err.println("应用交通变更时出错: " + e);
+            }
+        }
+
+        if (nextIndex >= updates.size()) {
+            stop();
+        }
+    }
+
+    /**
+     * 回放是否已经结束
+     */
+    public synchronized boolean isFinished() {
+        return nextIndex >= updates.size();
+    }
+
+    /**
+     * 获取已应用的批次数量
+     */
+    public synchronized int getAppliedBatches() {
+        return appliedBatches;
+    }
+
+    /**
+     * 带时间偏移的道路变更
+     */
+    private static class TimedUpdate {
+        final long offsetSeconds;
+        final EdgeUpdate update;
+
+        TimedUpdate(long offsetSeconds, EdgeUpdate update) {
+            this.offsetSeconds = offsetSeconds;
+            this.update = update;
+        }
+    }
+}
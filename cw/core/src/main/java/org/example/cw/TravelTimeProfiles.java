@@ -0,0 +1,343 @@
+package org.example.cw;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 按出发时刻变化的道路通行时间（分段线性，以一天为周期）
+ *
+ * 从附加CSV加载，格式（首行为标题）：城市A,城市B,时刻(HH:MM),通行分钟数
+ * 同一条有向道路的多行组成一条曲线；没有曲线的道路按距离和默认车速计算。
+ * 所有曲线存放在几个基本类型数组中：
+ * - edgeKeys：排好序的有向边键（起点编号<<32 | 终点编号），用二分查找定位曲线
+ * - offsets：每条曲线在断点数组中的起始位置
+ * - times / values：断点时刻（秒）和该时刻出发的通行时间（秒）
+ * 四个数组放在一个不可变的Curves中，通过volatile字段整体发布：查询先读一次字段，
+ * 城市重新编号时构建新的Curves再替换，查询不会把旧的offsets和新的断点数组混在一起。
+ * 从文件加载的实例注册为路网监听器，城市重新编号后按新编号重排曲线。
+ * 时间相关的Dijkstra要求曲线满足FIFO（晚出发不会早到达），即相邻断点间斜率不小于-1，
+ * 加载时不满足的曲线被报告并忽略，该道路按默认车速计算。
+ */
+public class TravelTimeProfiles implements RoadNetworkListener {
+    public static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    public static final double DEFAULT_SPEED = 80.0; // 默认车速（公里/小时）
+
+    private volatile Curves curves;
+    private final double secondsPerUnit; // 无曲线道路每单位距离的通行秒数
+
+    private TravelTimeProfiles(Curves curves, double speed) {
+        this.curves = curves;
+        this.secondsPerUnit = 3600.0 / speed;
+    }
+
+    /**
+     * 从CSV文件加载通行时间曲线
+     */
+    public static TravelTimeProfiles load(RoadNetwork roadNetwork, Path file) throws IOException {
+        return load(roadNetwork, file, DEFAULT_SPEED);
+    }
+
+    /**
+     * 从CSV文件加载通行时间曲线，并指定无曲线道路的车速
+     */
+    public static TravelTimeProfiles load(RoadNetwork roadNetwork, Path file, double defaultSpeed) throws IOException {
+        List<long[]> rows = new ArrayList<>(); // {边键, 时刻, 通行秒数}
+
+        try (BufferedReader br = Files.newBufferedReader(file)) {
+            String line = br.readLine(); // 跳过标题行
+
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length < 4) {
+                    continue;
+                }
+                City cityA = roadNetwork.getCity(parts[0].trim());
+                City cityB = roadNetwork.getCity(parts[1].trim());
+                if (cityA == null || cityB == null) {
+                    System.err.println("通行时间曲线引用了未知城市: " + line);
+                    continue;
+                }
+                int time = parseTimeOfDay(parts[2].trim());
+                int travelSeconds = (int) Math.round(Double.parseDouble(parts[3].trim()) * 60);
+                rows.add(new long[]{edgeKey(cityA.getId(), cityB.getId()), time, travelSeconds});
+            }
+        }
+
+        // 按边键、时刻排序，去掉不满足FIFO的曲线后压缩为数组
+        rows.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        rows = removeNonFifo(roadNetwork, rows);
+
+        int profileCount = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            if (i == 0 || rows.get(i)[0] != rows.get(i - 1)[0]) {
+                profileCount++;
+            }
+        }
+
+        long[] edgeKeys = new long[profileCount];
+        int[] offsets = new int[profileCount + 1];
+        int[] times = new int[rows.size()];
+        int[] values = new int[rows.size()];
+        int profile = -1;
+        for (int i = 0; i < rows.size(); i++) {
+            long[] row = rows.get(i);
+            if (i == 0 || row[0] != rows.get(i - 1)[0]) {
+                profile++;
+                edgeKeys[profile] = row[0];
+                offsets[profile] = i;
+            }
+            times[i] = (int) row[1];
+            values[i] = (int) row[2];
+        }
+        offsets[profileCount] = rows.size();
+
+        TravelTimeProfiles profiles = new TravelTimeProfiles(new Curves(edgeKeys, offsets, times, values), defaultSpeed);
+        roadNetwork.addListener(profiles);
+        return profiles;
+    }
+
+    /**
+     * 去掉不满足FIFO的曲线（rows已按边键、时刻排序）
+     *
+     * 按出发时刻依次比较相邻断点（包括最后一个断点与次日第一个断点）的到达时刻，
+     * 到达时刻减小即斜率小于-1；同一时刻出现多个断点时曲线在该时刻没有确定的值，同样拒绝。
+     */
+    private static List<long[]> removeNonFifo(RoadNetwork roadNetwork, List<long[]> rows) {
+        List<long[]> accepted = new ArrayList<>(rows.size());
+        int start = 0;
+        while (start < rows.size()) {
+            int end = start + 1;
+            while (end < rows.size() && rows.get(end)[0] == rows.get(start)[0]) {
+                end++;
+            }
+            boolean fifo = true;
+            for (int i = start; i < end - 1 && fifo; i++) {
+                long[] left = rows.get(i);
+                long[] right = rows.get(i + 1);
+                fifo = right[1] > left[1] && right[1] + right[2] >= left[1] + left[2];
+            }
+            if (fifo && end - start > 1) {
+                long[] last = rows.get(end - 1);
+                long[] first = rows.get(start);
+                fifo = first[1] + SECONDS_PER_DAY + first[2] >= last[1] + last[2];
+            }
+            if (fifo) {
+                accepted.addAll(rows.subList(start, end));
+            } else {
+                long key = rows.get(start)[0];
+                System.err.println("通行时间曲线不满足先进先出（晚出发反而早到达），已忽略: "
+                        + roadNetwork.getCityById((int) (key >>> 32)).getFullName() + " -> "
+                        + roadNetwork.getCityById((int) key).getFullName());
+            }
+            start = end;
+        }
+        return accepted;
+    }
+
+    @Override
+    public void onEdgesChanged(List<EdgeChange> changes) {
+        // 曲线按道路端点索引，与边权无关
+    }
+
+    /**
+     * 把边键换成新编号，重新排序曲线及其断点
+     */
+    @Override
+    public synchronized void onCitiesRenumbered(int[] newToOld) {
+        Curves current = curves;
+        long[] edgeKeys = current.edgeKeys;
+        int[] offsets = current.offsets;
+        int[] times = current.times;
+        int[] values = current.values;
+        int[] oldToNew = new int[newToOld.length];
+        for (int v = 0; v < newToOld.length; v++) {
+            oldToNew[newToOld[v]] = v;
+        }
+        int profileCount = edgeKeys.length;
+        long[] renumberedKeys = new long[profileCount];
+        Integer[] order = new Integer[profileCount];
+        for (int profile = 0; profile < profileCount; profile++) {
+            long key = edgeKeys[profile];
+            renumberedKeys[profile] = edgeKey(oldToNew[(int) (key >>> 32)], oldToNew[(int) key]);
+            order[profile] = profile;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(renumberedKeys[a], renumberedKeys[b]));
+
+        long[] newKeys = new long[profileCount];
+        int[] newOffsets = new int[profileCount + 1];
+        int[] newTimes = new int[times.length];
+        int[] newValues = new int[values.length];
+        int position = 0;
+        for (int i = 0; i < profileCount; i++) {
+            int profile = order[i];
+            int start = offsets[profile];
+            int length = offsets[profile + 1] - start;
+            newKeys[i] = renumberedKeys[profile];
+            newOffsets[i] = position;
+            System.arraycopy(times, start, newTimes, position, length);
+            System.arraycopy(values, start, newValues, position, length);
+            position += length;
+        }
+        newOffsets[profileCount] = position;
+        curves = new Curves(newKeys, newOffsets, newTimes, newValues);
+    }
+
+    /**
+     * 创建不含任何曲线的实例，所有道路按默认车速计算
+     */
+    public static TravelTimeProfiles empty(double defaultSpeed) {
+        return new TravelTimeProfiles(new Curves(new long[0], new int[]{0}, new int[0], new int[0]), defaultSpeed);
+    }
+
+    /**
+     * 解析 HH:MM 格式的时刻，返回当天的秒数
+     */
+    public static int parseTimeOfDay(String text) {
+        String[] parts = text.split(":");
+        int hours = Integer.parseInt(parts[0].trim());
+        int minutes = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 0;
+        return (hours * 60 + minutes) * 60 % SECONDS_PER_DAY;
+    }
+
+    /**
+     * 将秒数格式化为 HH:MM（超过一天时附加天数）
+     */
+    public static String formatTime(int seconds) {
+        int days = seconds / SECONDS_PER_DAY;
+        int secondsOfDay = seconds % SECONDS_PER_DAY;
+        String time = String.format("%02d:%02d", secondsOfDay / 3600, secondsOfDay / 60 % 60);
+        return days > 0 ? time + " (+" + days + ")" : time;
+    }
+
+    private static long edgeKey(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 计算在指定时刻从from出发沿道路到达to所需的秒数
+     *
+     * @param from 起点城市编号
+     * @param to 终点城市编号
+     * @param distance 道路距离（无曲线时使用）
+     * @param departure 出发时刻（秒，可超过一天）
+     */
+    public int travelTime(int from, int to, int distance, int departure) {
+        Curves current = curves;
+        int profile = Arrays.binarySearch(current.edgeKeys, edgeKey(from, to));
+        if (profile < 0) {
+            return (int) Math.round(distance * secondsPerUnit);
+        }
+        return evaluate(current, profile, departure % SECONDS_PER_DAY);
+    }
+
+    /**
+     * 在曲线上做线性插值，最后一个断点与次日第一个断点之间环绕
+     */
+    private static int evaluate(Curves curves, int profile, int timeOfDay) {
+        int[] offsets = curves.offsets;
+        int[] times = curves.times;
+        int[] values = curves.values;
+        int start = offsets[profile];
+        int end = offsets[profile + 1];
+        if (end - start == 1) {
+            return values[start];
+        }
+
+        // 找到最后一个不晚于timeOfDay的断点
+        int index = Arrays.binarySearch(times, start, end, timeOfDay);
+        if (index < 0) {
+            index = -index - 2;
+        }
+
+        int leftTime;
+        int leftValue;
+        int rightTime;
+        int rightValue;
+        if (index < start) {
+            // 早于第一个断点：与前一天最后一个断点插值
+            leftTime = times[end - 1] - SECONDS_PER_DAY;
+            leftValue = values[end - 1];
+            rightTime = times[start];
+            rightValue = values[start];
+        } else if (index == end - 1) {
+            leftTime = times[index];
+            leftValue = values[index];
+            rightTime = times[start] + SECONDS_PER_DAY;
+            rightValue = values[start];
+        } else {
+            leftTime = times[index];
+            leftValue = values[index];
+            rightTime = times[index + 1];
+            rightValue = values[index + 1];
+        }
+
+        if (rightTime == leftTime) {
+            return leftValue;
+        }
+        long delta = (long) (rightValue - leftValue) * (timeOfDay - leftTime);
+        return leftValue + (int) (delta / (rightTime - leftTime));
+    }
+
+    /**
+     * 每单位距离通行时间的下界（秒），用于把距离下界换算为时间下界
+     */
+    public double minSecondsPerUnit(RoadNetwork roadNetwork) {
+        roadNetwork.ensureCityAdjacency(); // 按城市邻接表查道路距离，堆外加载的路网先补建
+        Curves current = curves;
+        long[] edgeKeys = current.edgeKeys;
+        int[] offsets = current.offsets;
+        int[] values = current.values;
+        double min = secondsPerUnit;
+        for (int profile = 0; profile < edgeKeys.length; profile++) {
+            City from = roadNetwork.getCityById((int) (edgeKeys[profile] >>> 32));
+            City to = roadNetwork.getCityById((int) edgeKeys[profile]);
+            int distance = from.getDistanceTo(to);
+            if (distance == EdgeUpdate.CLOSED) {
+                continue; // 道路已封闭
+            }
+            if (distance == 0) {
+                return 0;
+            }
+            for (int i = offsets[profile]; i < offsets[profile + 1]; i++) {
+                min = Math.min(min, (double) values[i] / distance);
+            }
+        }
+        return min;
+    }
+
+    /**
+     * 获取曲线数量
+     */
+    public int getProfileCount() {
+        return curves.edgeKeys.length;
+    }
+
+    /**
+     * 获取断点总数
+     */
+    public int getBreakpointCount() {
+        return curves.times.length;
+    }
+
+    /**
+     * 一组曲线的全部数组，创建后不再修改
+     */
+    private static final class Curves {
+        final long[] edgeKeys;
+        final int[] offsets;
+        final int[] times;
+        final int[] values;
+
+        Curves(long[] edgeKeys, int[] offsets, int[] times, int[] values) {
+            this.edgeKeys = edgeKeys;
+            this.offsets = offsets;
+            this.times = times;
+            this.values = values;
+        }
+    }
+}
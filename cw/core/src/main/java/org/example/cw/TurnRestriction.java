@@ -0,0 +1,45 @@
+package org.example.cw;
+
+/**
+ * 转向限制：从fromCity经viaCity驶向toCity时的额外代价，FORBIDDEN表示禁止转向
+ */
+public class TurnRestriction {
+    public static final int FORBIDDEN = -1;
+
+    private final City fromCity;
+    private final City viaCity;
+    private final City toCity;
+    private final int cost;
+
+    public TurnRestriction(City fromCity, City viaCity, City toCity, int cost) {
+        this.fromCity = fromCity;
+        this.viaCity = viaCity;
+        this.toCity = toCity;
+        this.cost = cost;
+    }
+
+    public City getFromCity() {
+        return fromCity;
+    }
+
+    public City getViaCity() {
+        return viaCity;
+    }
+
+    public City getToCity() {
+        return toCity;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public boolean isForbidden() {
+        return cost == FORBIDDEN;
+    }
+
+    @Override
+    public String toString() {
+        return fromCity + " -> " + viaCity + " -> " + toCity + ": " + (isForbidden() ? "forbidden" : String.valueOf(cost));
+    }
+}
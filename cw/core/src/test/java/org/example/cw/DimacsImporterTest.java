@@ -0,0 +1,64 @@
+package org.example.cw;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用fixtures/tiny.gr和tiny.co检查DIMACS导入的节点数、边数、距离和坐标
+ */
+class DimacsImporterTest {
+
+    static Path fixture(String name) throws URISyntaxException {
+        return Path.of(DimacsImporterTest.class.getResource("/fixtures/" + name).toURI());
+    }
+
+    @Test
+    void importsNodesAndArcsAsTwoWayRoads() throws Exception {
+        ImportedGraph imported = new DimacsImporter().load(fixture("tiny.gr"), null);
+
+        assertEquals(5, imported.getCityNames().length);
+        assertEquals("V1 DIMACS", imported.getCityNames()[0]);
+        // 10条弧是5对双向道路
+        assertEquals(10, imported.getGraph().getEdgeCount());
+        assertEquals(0, imported.getGraph().getEndEdge(4) - imported.getGraph().getFirstEdge(4));
+    }
+
+    @Test
+    void keepsShorterDirectionOfARoad() throws Exception {
+        CsrRoadGraph graph = new DimacsImporter().load(fixture("tiny.gr"), null).getGraph();
+
+        assertEquals(25, graph.getWeight(graph.findEdge(1, 3)));
+        assertEquals(25, graph.getWeight(graph.findEdge(3, 1)));
+    }
+
+    @Test
+    void loadsIntoRoadNetwork() throws Exception {
+        RoadNetwork roadNetwork = new RoadNetwork();
+        roadNetwork.loadDimacs(fixture("tiny.gr"), fixture("tiny.co"));
+
+        assertEquals(5, roadNetwork.getCityCount());
+        assertEquals(10, roadNetwork.getRoadGraph().getEdgeCount());
+        RoadNetworkSnapshot snapshot = roadNetwork.snapshot();
+        // V1 -> V2 -> V3 -> V4 = 10 + 5 + 7
+        assertEquals(22, snapshot.shortestPath(0, 3).getDistance());
+        assertEquals(12, snapshot.shortestPath(1, 3).getDistance());
+        assertFalse(snapshot.shortestPath(0, 4).isFound());
+    }
+
+    @Test
+    void readsCoordinatesInMillionthsOfDegree() throws Exception {
+        RoadNetwork roadNetwork = new RoadNetwork();
+        roadNetwork.loadDimacs(fixture("tiny.gr"), fixture("tiny.co"));
+
+        City first = roadNetwork.getCity("V1 DIMACS");
+        assertTrue(first.hasCoordinates());
+        assertEquals(40.73, first.getLatitude(), 1e-9);
+        assertEquals(-73.99, first.getLongitude(), 1e-9);
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.cw;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 用手工生成的fixtures/tiny.pbf检查OSM导入
+ *
+ * 文件包含一个未压缩的OSMHeader块和一个zlib压缩的OSMData块，数据块里有5个DenseNodes节点和3条way：
+ * - way 10：highway=residential，节点1、2、3
+ * - way 11：highway=residential，节点3、4
+ * - way 12：highway=footway，节点4、5（不可通行机动车，应被忽略）
+ * 路口是节点1、3、4，节点2是way 10中间的普通节点。
+ */
+class OsmPbfImporterTest {
+
+    private static ImportedGraph load() throws Exception {
+        return new OsmPbfImporter().load(DimacsImporterTest.fixture("tiny.pbf"));
+    }
+
+    @Test
+    void keepsOnlyJunctionsOfRoutableWays() throws Exception {
+        ImportedGraph imported = load();
+
+        assertEquals(3, imported.getCityNames().length);
+        assertEquals("N1 OSM", imported.getCityNames()[0]);
+        assertEquals("N3 OSM", imported.getCityNames()[1]);
+        assertEquals("N4 OSM", imported.getCityNames()[2]);
+        // 两段道路，双向各一条边
+        assertEquals(4, imported.getGraph().getEdgeCount());
+    }
+
+    @Test
+    void roadLengthFollowsIntermediateNodes() throws Exception {
+        CsrRoadGraph graph = load().getGraph();
+
+        long viaNode2 = Math.round(OsmPbfImporter.distance(52.52, 13.405, 52.521, 13.405)
+                + OsmPbfImporter.distance(52.521, 13.405, 52.522, 13.406));
+        assertEquals(viaNode2, graph.getWeight(graph.findEdge(0, 1)));
+        assertEquals(Math.round(OsmPbfImporter.distance(52.522, 13.406, 52.522, 13.408)),
+                graph.getWeight(graph.findEdge(1, 2)));
+    }
+
+    @Test
+    void loadsIntoRoadNetwork() throws Exception {
+        RoadNetwork roadNetwork = new RoadNetwork();
+        roadNetwork.loadOsmPbf(DimacsImporterTest.fixture("tiny.pbf"));
+
+        assertEquals(3, roadNetwork.getCityCount());
+        assertEquals(4, roadNetwork.getRoadGraph().getEdgeCount());
+        assertNull(roadNetwork.getCity("N5 OSM"));
+        City junction = roadNetwork.getCity("N3 OSM");
+        assertEquals(52.522, junction.getLatitude(), 1e-7);
+        assertEquals(13.406, junction.getLongitude(), 1e-7);
+        // 241 + 135米
+        assertEquals(376, roadNetwork.snapshot().shortestPath(0, 2).getDistance());
+    }
+}